@@ -0,0 +1,57 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Instrument;
+import com.cheddar.util.BenchmarkPayloads;
+import com.cheddar.util.JSONUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of {@code getAllInstruments}: the original org.json tree re-serialized per element into Jackson, against
+ * the streaming decode the client uses now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentsPageBenchmark {
+
+    private String page;
+    private byte[] pageBytes;
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkPayloads.page(BenchmarkPayloads.INSTRUMENT, 100);
+        pageBytes = page.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Instrument> orgJsonThenJackson() {
+        final List<Instrument> instruments = new ArrayList<>();
+        final JSONArray results = new JSONObject(page).getJSONArray("results");
+        for (final Object instrumentObj : results) {
+            if (instrumentObj instanceof JSONObject) {
+                JSONUtil.deserializeObject(instrumentObj.toString(), Instrument.class).ifPresent(instruments::add);
+            }
+        }
+        return instruments;
+    }
+
+    @Benchmark
+    public List<Instrument> streamArrayField() throws IOException {
+        final List<Instrument> instruments = new ArrayList<>();
+        JSONUtil.streamArrayField(new ByteArrayInputStream(pageBytes), "results", Instrument.class, instruments::add);
+        return instruments;
+    }
+
+}
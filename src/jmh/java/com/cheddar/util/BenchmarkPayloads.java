@@ -0,0 +1,39 @@
+package com.cheddar.util;
+
+import com.google.common.io.Resources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Captured Robinhood response bodies under {@code src/jmh/resources/payloads}, and pages built from them.
+ */
+public class BenchmarkPayloads {
+
+    public static final String QUOTE = load("quote.json");
+    public static final String ORDER = load("order.json");
+    public static final String INSTRUMENT = load("instrument.json");
+
+    private static String load(final String name) {
+        try {
+            return Resources.toString(Resources.getResource("payloads/" + name), StandardCharsets.UTF_8).trim();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A paginated response whose {@code results} holds {@code count} copies of {@code element}, like the quotes and
+     * instruments endpoints return.
+     */
+    public static String page(final String element, final int count) {
+        final StringBuilder page = new StringBuilder(element.length() * count + 128)
+                .append("{\"previous\":null,\"results\":[");
+        for (int i = 0; i < count; ++i) {
+            page.append(i == 0 ? "" : ",").append(element);
+        }
+        return page.append("],\"next\":\"https://api.robinhood.com/instruments/?cursor=cD0xMjM0NQ%3D%3D\"}").toString();
+    }
+
+}
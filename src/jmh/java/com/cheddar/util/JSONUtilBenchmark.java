@@ -0,0 +1,51 @@
+package com.cheddar.util;
+
+import com.cheddar.robinhood.data.Instrument;
+import com.cheddar.robinhood.data.Order;
+import com.cheddar.robinhood.data.Quote;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JSONUtilBenchmark {
+
+    private static final TypeReference<Map<String, List<Quote>>> QUOTES_TYPE = new TypeReference<Map<String, List<Quote>>>() {};
+
+    private String quotesPage;
+
+    @Setup
+    public void setUp() {
+        quotesPage = BenchmarkPayloads.page(BenchmarkPayloads.QUOTE, 50);
+    }
+
+    @Benchmark
+    public Optional<Quote> deserializeQuote() {
+        return JSONUtil.deserializeObject(BenchmarkPayloads.QUOTE, Quote.class);
+    }
+
+    @Benchmark
+    public Optional<Order> deserializeOrder() {
+        return JSONUtil.deserializeObject(BenchmarkPayloads.ORDER, Order.class);
+    }
+
+    @Benchmark
+    public Optional<Instrument> deserializeInstrument() {
+        return JSONUtil.deserializeObject(BenchmarkPayloads.INSTRUMENT, Instrument.class);
+    }
+
+    @Benchmark
+    public Optional<Map<String, List<Quote>>> deserializeQuotesPage() {
+        return JSONUtil.deserializeString(quotesPage, QUOTES_TYPE);
+    }
+
+}
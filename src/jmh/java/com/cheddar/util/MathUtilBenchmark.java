@@ -0,0 +1,33 @@
+package com.cheddar.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilBenchmark {
+
+    private final double[] prices = new double[1024];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        for (int i = 0; i < prices.length; ++i) {
+            prices[i] = 1 + random.nextDouble() * 500;
+        }
+    }
+
+    @Benchmark
+    public float roundToTick() {
+        index = (index + 1) & (prices.length - 1);
+        return MathUtil.roundToTick(prices[index], 0.01f);
+    }
+
+}
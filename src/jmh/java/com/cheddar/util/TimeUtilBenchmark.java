@@ -0,0 +1,37 @@
+package com.cheddar.util;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeUtilBenchmark {
+
+    private static final String TIMESTAMP_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
+
+    private String timestamp = "2017-06-09T15:21:01";
+    private String isoTimestamp = "2017-06-09T15:21:01.918530Z";
+
+    @Benchmark
+    public Optional<DateTime> createDateFromStr() {
+        return TimeUtil.createDateFromStr(TIMESTAMP_FORMAT, timestamp);
+    }
+
+    @Benchmark
+    public Optional<DateTime> createDateFromStrInTimezone() {
+        return TimeUtil.createDateFromStr(TIMESTAMP_FORMAT, timestamp, "America/New_York");
+    }
+
+    @Benchmark
+    public long parseISO8601Millis() {
+        return TimeUtil.parseISO8601Millis(isoTimestamp);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.cheddar.http;
+
+import com.cheddar.metrics.Metrics;
+import com.cheddar.metrics.MetricsRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/1.1 over a pool of keep-alive connections, one request per connection at a time.
+ */
+@Slf4j
+public class ApacheHTTPTransport implements HTTPTransport {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    public ApacheHTTPTransport(final HTTPClientConfig config) {
+        this.connectionManager =
+                new PoolingHttpClientConnectionManager(config.getConnectionTimeToLiveMillis(), TimeUnit.MILLISECONDS);
+        this.connectionManager.setMaxTotal(config.getMaxConnectionsTotal());
+        this.connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        this.connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivityMillis());
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                                                         .setCookieSpec(CookieSpecs.STANDARD)
+                                                         .setConnectTimeout(config.getConnectTimeoutMillis())
+                                                         .setSocketTimeout(config.getSocketTimeoutMillis())
+                                                         .setConnectionRequestTimeout(config.getConnectionRequestTimeoutMillis())
+                                                         .build();
+
+        this.httpClient = HttpClients.custom()
+                                     .setConnectionManager(this.connectionManager)
+                                     .setDefaultRequestConfig(requestConfig)
+                                     .setKeepAliveStrategy(createKeepAliveStrategy(config.getDefaultKeepAliveMillis()))
+                                     .evictExpiredConnections()
+                                     .evictIdleConnections(config.getMaxIdleMillis(), TimeUnit.MILLISECONDS)
+                                     .disableAutomaticRetries()
+                                     .disableContentCompression()
+                                     .build();
+    }
+
+    private static ConnectionKeepAliveStrategy createKeepAliveStrategy(final long defaultKeepAliveMillis) {
+        return (response, context) -> {
+            final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? serverKeepAlive : defaultKeepAliveMillis;
+        };
+    }
+
+    @Override
+    public <T> T execute(final String method, final HTTPQuery httpQuery, final HTTPResponseReader<T> reader) throws IOException {
+        final HttpUriRequest httpRequest = "POST".equals(method) ? HTTPRequests.createPostRequest(httpQuery)
+                                                                 : HTTPRequests.createGetRequest(httpQuery);
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            final HttpEntity requestEntity = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
+            Metrics.getRecorder().recordBytesOut(EndpointFamily.forURL(httpQuery.getUrl()), requestEntity.getContentLength());
+        }
+
+        try (final CloseableHttpResponse response = httpClient.execute(httpRequest)) {
+            final HttpEntity entity = response.getEntity();
+            final InputStream body = entity == null ? new ByteArrayInputStream(new byte[0]) : entity.getContent();
+
+            final T read = reader.read(response.getStatusLine().getStatusCode(), HTTPRequests.readHeaders(response), body);
+
+            // Drain whatever the reader left unread so the connection goes back to the pool instead of being discarded.
+            EntityUtils.consume(entity);
+
+            return read;
+        }
+    }
+
+    @Override
+    public void reportConnectionPool(final MetricsRecorder recorder) {
+        final PoolStats stats = connectionManager.getTotalStats();
+        recorder.recordConnectionPool(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (final IOException e) {
+            log.warn(e.getMessage(), e);
+        }
+        connectionManager.shutdown();
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.cheddar.http;
+
+import com.cheddar.metrics.Metrics;
+import com.cheddar.metrics.MetricsRecorder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.*;
+
+/**
+ * Non-blocking counterpart of {@link HTTPClient}. Requests are multiplexed over a small number of I/O reactor
+ * threads; the returned futures complete on those threads, so callers should hop to their own executor before
+ * doing any real work with the result. Rate-limited requests and retries are scheduled rather than waited for.
+ */
+@Slf4j
+public class AsyncHTTPClient implements Closeable {
+
+    private final CloseableHttpAsyncClient httpClient;
+
+    @Getter
+    private final RateLimiter rateLimiter;
+
+    @Getter
+    private final ResiliencePolicy resiliencePolicy;
+
+    private final BodyDecoder bodyDecoder = new BodyDecoder();
+
+    private final ScheduledExecutorService delayScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("http-async-delay-%d").build());
+
+    public AsyncHTTPClient() {
+        this(new HTTPClientConfig());
+    }
+
+    public AsyncHTTPClient(final HTTPClientConfig config) {
+        this(config, new RateLimiter(config.getRateLimiterConfig()), new ResiliencePolicy(config.getResilienceConfig()));
+    }
+
+    public AsyncHTTPClient(final HTTPClientConfig config, final RateLimiter rateLimiter, final ResiliencePolicy resiliencePolicy) {
+        this.rateLimiter = rateLimiter;
+        this.resiliencePolicy = resiliencePolicy;
+
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                                                               .setConnectTimeout(config.getConnectTimeoutMillis())
+                                                               .setSoTimeout(config.getSocketTimeoutMillis())
+                                                               .build();
+
+        final PoolingNHttpClientConnectionManager connectionManager;
+        try {
+            connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        } catch (final IOReactorException e) {
+            throw new IllegalStateException("Unable to start I/O reactor.", e);
+        }
+        connectionManager.setMaxTotal(config.getMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                                                         .setCookieSpec(CookieSpecs.STANDARD)
+                                                         .setConnectTimeout(config.getConnectTimeoutMillis())
+                                                         .setSocketTimeout(config.getSocketTimeoutMillis())
+                                                         .setConnectionRequestTimeout(config.getConnectionRequestTimeoutMillis())
+                                                         .build();
+
+        this.httpClient = HttpAsyncClients.custom()
+                                          .setConnectionManager(connectionManager)
+                                          .setDefaultRequestConfig(requestConfig)
+                                          .build();
+        this.httpClient.start();
+    }
+
+    public CompletableFuture<HTTPResult> executeHTTPPostRequest(final HTTPQuery httpQuery) {
+        return executeHTTPRequest(HTTPRequests.createPostRequest(httpQuery));
+    }
+
+    public CompletableFuture<HTTPResult> executeHTTPGetRequest(final HTTPQuery httpQuery) {
+        return executeHTTPRequest(HTTPRequests.createGetRequest(httpQuery));
+    }
+
+    private CompletableFuture<HTTPResult> executeHTTPRequest(final HttpUriRequest httpRequest) {
+        final CompletableFuture<HTTPResult> resultFuture = new CompletableFuture<>();
+        attempt(httpRequest, 1, resultFuture);
+        return resultFuture;
+    }
+
+    private void attempt(final HttpUriRequest httpRequest, final int attempt, final CompletableFuture<HTTPResult> resultFuture) {
+        schedule(() -> sendHTTPRequest(httpRequest, attempt, resultFuture),
+                 rateLimiter.reserve(httpRequest.getURI().toString()), TimeUnit.NANOSECONDS, resultFuture);
+    }
+
+    private void schedule(final Runnable task, final long delay, final TimeUnit timeUnit, final CompletableFuture<?> resultFuture) {
+        if (delay <= 0) {
+            task.run();
+            return;
+        }
+
+        try {
+            delayScheduler.schedule(task, delay, timeUnit);
+        } catch (final RejectedExecutionException e) {
+            resultFuture.completeExceptionally(e);
+        }
+    }
+
+    private void sendHTTPRequest(final HttpUriRequest httpRequest, final int attempt, final CompletableFuture<HTTPResult> resultFuture) {
+        final String url = httpRequest.getURI().toString();
+
+        if (!resiliencePolicy.allowRequest(url)) {
+            resultFuture.completeExceptionally(new CircuitOpenException(url));
+            return;
+        }
+
+        final EndpointFamily family = EndpointFamily.forURL(url);
+        final MetricsRecorder recorder = Metrics.getRecorder();
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            recorder.recordBytesOut(family, ((HttpEntityEnclosingRequest) httpRequest).getEntity().getContentLength());
+        }
+
+        final long startNanos = System.nanoTime();
+        httpClient.execute(httpRequest, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                final int statusCode = response.getStatusLine().getStatusCode();
+                final Header retryAfter = response.getFirstHeader("Retry-After");
+                rateLimiter.onResponse(url, statusCode, retryAfter == null ? null : retryAfter.getValue());
+
+                final long retryDelayMillis = resiliencePolicy.onResponse(httpRequest.getMethod(), url, statusCode, attempt);
+                if (retryDelayMillis != ResiliencePolicy.NO_RETRY) {
+                    log.info("Got status {} from {}, retrying in {} ms (attempt {}).", statusCode, url, retryDelayMillis, attempt);
+                    recorder.recordRequest(family, statusCode, System.nanoTime() - startNanos);
+                    recorder.recordRetry(family);
+                    schedule(() -> attempt(httpRequest, attempt + 1, resultFuture), retryDelayMillis, TimeUnit.MILLISECONDS, resultFuture);
+                    return;
+                }
+
+                try {
+                    resultFuture.complete(HTTPRequests.readResult(response, bodyDecoder, url));
+                } catch (final IOException e) {
+                    resultFuture.completeExceptionally(e);
+                } catch (final RuntimeException e) {
+                    // Typically a body the decoder choked on; count it against the breaker as the blocking client does.
+                    log.warn("Request to {} failed because {}", url, e.getMessage(), e);
+                    resiliencePolicy.getCircuitBreaker(family).onFailure();
+                    resultFuture.completeExceptionally(e);
+                } finally {
+                    recorder.recordRequest(family, statusCode, System.nanoTime() - startNanos);
+                }
+            }
+
+            @Override
+            public void failed(final Exception e) {
+                recorder.recordRequest(family, 0, System.nanoTime() - startNanos);
+                if (e instanceof IOException) {
+                    final long retryDelayMillis = resiliencePolicy.onFailure(httpRequest.getMethod(), url, (IOException) e, attempt);
+                    if (retryDelayMillis != ResiliencePolicy.NO_RETRY) {
+                        log.info("Request to {} failed because {}, retrying in {} ms (attempt {}).", url, e.getMessage(), retryDelayMillis, attempt);
+                        recorder.recordRetry(family);
+                        schedule(() -> attempt(httpRequest, attempt + 1, resultFuture), retryDelayMillis, TimeUnit.MILLISECONDS, resultFuture);
+                        return;
+                    }
+                }
+
+                log.warn(e.getMessage(), e);
+                resultFuture.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                recorder.recordRequest(family, 0, System.nanoTime() - startNanos);
+                resultFuture.completeExceptionally(new CancellationException(httpRequest.getRequestLine().toString()));
+            }
+        });
+    }
+
+    public CompressionMetrics getCompressionMetrics() {
+        return bodyDecoder.getCompressionMetrics();
+    }
+
+    @Override
+    public void close() {
+        delayScheduler.shutdownNow();
+        try {
+            httpClient.close();
+        } catch (final IOException e) {
+            log.warn(e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.cheddar.http;
+
+import com.cheddar.metrics.Metrics;
+import com.google.common.io.CountingInputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Opens response bodies, undoing any {@code Content-Encoding} ourselves (automatic decompression is switched off in
+ * the clients) and recording wire versus decoded bytes in {@link CompressionMetrics} when the body is closed.
+ */
+@Slf4j
+class BodyDecoder {
+
+    private final InflaterPool inflaterPool = new InflaterPool(32);
+
+    @Getter
+    private final CompressionMetrics compressionMetrics = new CompressionMetrics();
+
+    InputStream openBody(final String url, final HttpEntity entity) throws IOException {
+        if (entity == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        final Header contentEncoding = entity.getContentEncoding();
+        return openBody(url, entity.getContent(), contentEncoding == null ? null : contentEncoding.getValue());
+    }
+
+    /**
+     * Wraps a body as it came off the wire, {@code contentEncodingHeader} being the raw header value or null.
+     */
+    InputStream openBody(final String url, final InputStream wireBody, final String contentEncodingHeader) throws IOException {
+        final CountingInputStream wireStream = new CountingInputStream(wireBody);
+        final String contentEncoding =
+                contentEncodingHeader == null ? null : contentEncodingHeader.trim().toLowerCase(Locale.ENGLISH);
+
+        final InputStream decodedStream;
+        if ("gzip".equals(contentEncoding) || "x-gzip".equals(contentEncoding)) {
+            decodedStream = DecompressingInputStream.gzip(wireStream, inflaterPool);
+        } else if ("deflate".equals(contentEncoding)) {
+            decodedStream = DecompressingInputStream.deflate(wireStream, inflaterPool);
+        } else {
+            if (contentEncoding != null && !"identity".equals(contentEncoding)) {
+                log.warn("Unsupported Content-Encoding {} from {}, passing the body through.", contentEncoding, url);
+            }
+            decodedStream = wireStream;
+        }
+
+        return new MeteredInputStream(decodedStream, wireStream, decodedStream != wireStream, EndpointFamily.forURL(url));
+    }
+
+    private class MeteredInputStream extends FilterInputStream {
+        private final CountingInputStream wireStream;
+        private final boolean compressed;
+        private final EndpointFamily family;
+
+        private long decodedBytes;
+        private boolean closed = false;
+
+        private MeteredInputStream(final InputStream decodedStream, final CountingInputStream wireStream,
+                                   final boolean compressed, final EndpointFamily family) {
+            super(decodedStream);
+            this.wireStream = wireStream;
+            this.compressed = compressed;
+            this.family = family;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                ++decodedBytes;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                decodedBytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            decodedBytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            compressionMetrics.record(family, wireStream.getCount(), decodedBytes, compressed);
+            Metrics.getRecorder().recordBytesIn(family, wireStream.getCount());
+            super.close();
+        }
+    }
+
+}
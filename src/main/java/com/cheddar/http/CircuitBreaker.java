@@ -0,0 +1,83 @@
+package com.cheddar.http;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opens after {@code failureThreshold} consecutive failures and rejects requests until {@code openMillis} have passed.
+ * It then lets a single probe through: success closes the breaker, failure opens it again.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(final String name, final int failureThreshold, final long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public boolean allowRequest() {
+        return allowRequest(System.currentTimeMillis());
+    }
+
+    synchronized boolean allowRequest(final long nowMillis) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowMillis - openedAtMillis < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit {} closed.", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public void onFailure() {
+        onFailure(System.currentTimeMillis());
+    }
+
+    synchronized void onFailure(final long nowMillis) {
+        probeInFlight = false;
+        ++consecutiveFailures;
+
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            log.warn("Circuit {} opened after {} consecutive failures.", name, consecutiveFailures);
+            state = State.OPEN;
+            openedAtMillis = nowMillis;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.cheddar.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker for its endpoint family is open.
+ */
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(final String url) {
+        super("Circuit open, not sending request to " + url);
+    }
+}
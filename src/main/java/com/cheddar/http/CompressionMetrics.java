@@ -0,0 +1,74 @@
+package com.cheddar.http;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes received on the wire versus bytes after decompression, per {@link EndpointFamily}. Compare the two to see
+ * what {@code Accept-Encoding} actually saves on each kind of call.
+ */
+public class CompressionMetrics {
+
+    private final Map<EndpointFamily, Counters> counters = new EnumMap<>(EndpointFamily.class);
+
+    public CompressionMetrics() {
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            counters.put(family, new Counters());
+        }
+    }
+
+    void record(final EndpointFamily family, final long wireBytes, final long decodedBytes, final boolean compressed) {
+        final Counters familyCounters = counters.get(family);
+        familyCounters.wireBytes.add(wireBytes);
+        familyCounters.decodedBytes.add(decodedBytes);
+        familyCounters.responses.increment();
+        if (compressed) {
+            familyCounters.compressedResponses.increment();
+        }
+    }
+
+    public long getWireBytes(final EndpointFamily family) {
+        return counters.get(family).wireBytes.sum();
+    }
+
+    public long getDecodedBytes(final EndpointFamily family) {
+        return counters.get(family).decodedBytes.sum();
+    }
+
+    public long getResponses(final EndpointFamily family) {
+        return counters.get(family).responses.sum();
+    }
+
+    public long getCompressedResponses(final EndpointFamily family) {
+        return counters.get(family).compressedResponses.sum();
+    }
+
+    /**
+     * Wire bytes per decoded byte; below 1.0 means compression is paying off. Returns 1.0 before any traffic.
+     */
+    public double getCompressionRatio(final EndpointFamily family) {
+        final long decodedBytes = getDecodedBytes(family);
+        return decodedBytes == 0 ? 1.0 : (double) getWireBytes(family) / decodedBytes;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder("CompressionMetrics(");
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            if (getResponses(family) > 0) {
+                stringBuilder.append(String.format("%s: %d/%d bytes in %d/%d compressed responses; ", family, getWireBytes(family),
+                                                   getDecodedBytes(family), getCompressedResponses(family), getResponses(family)));
+            }
+        }
+        return stringBuilder.append(')').toString();
+    }
+
+    private static class Counters {
+        private final LongAdder wireBytes = new LongAdder();
+        private final LongAdder decodedBytes = new LongAdder();
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder compressedResponses = new LongAdder();
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.cheddar.http;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Inflates a {@code gzip} or {@code deflate} response body with an {@link Inflater} and input buffer borrowed from an
+ * {@link InflaterPool}; both go back to the pool on {@link #close()}. The gzip trailer's CRC and length are checked.
+ */
+class DecompressingInputStream extends InputStream {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InputStream source;
+    private final InflaterPool inflaterPool;
+    private final InflaterPool.Buffers buffers;
+    private final Inflater inflater;
+    private final boolean gzip;
+
+    private int inputLength;
+    private boolean finished = false;
+    private boolean closed = false;
+
+    private DecompressingInputStream(final InputStream source, final InflaterPool inflaterPool, final InflaterPool.Buffers buffers,
+                                     final Inflater inflater, final boolean gzip) {
+        this.source = source;
+        this.inflaterPool = inflaterPool;
+        this.buffers = buffers;
+        this.inflater = inflater;
+        this.gzip = gzip;
+    }
+
+    static DecompressingInputStream gzip(final InputStream source, final InflaterPool inflaterPool) throws IOException {
+        final InflaterPool.Buffers buffers = inflaterPool.acquire();
+        try {
+            readGzipHeader(source);
+        } catch (final IOException e) {
+            inflaterPool.release(buffers);
+            throw e;
+        }
+        return new DecompressingInputStream(source, inflaterPool, buffers, buffers.rawInflater, true);
+    }
+
+    /**
+     * HTTP's {@code deflate} is meant to be zlib-wrapped, but some servers send raw deflate; the first two bytes tell
+     * which.
+     */
+    static DecompressingInputStream deflate(final InputStream source, final InflaterPool inflaterPool) throws IOException {
+        final InflaterPool.Buffers buffers = inflaterPool.acquire();
+
+        final int inputLength;
+        try {
+            inputLength = Math.max(0, source.read(buffers.input, 0, buffers.input.length));
+        } catch (final IOException e) {
+            inflaterPool.release(buffers);
+            throw e;
+        }
+
+        final boolean zlibWrapped = inputLength >= 2 && (buffers.input[0] & 0x0f) == 8 &&
+                                    (((buffers.input[0] & 0xff) << 8) | (buffers.input[1] & 0xff)) % 31 == 0;
+        final Inflater inflater = zlibWrapped ? buffers.zlibInflater : buffers.rawInflater;
+
+        final DecompressingInputStream stream = new DecompressingInputStream(source, inflaterPool, buffers, inflater, false);
+        stream.inputLength = inputLength;
+        inflater.setInput(buffers.input, 0, inputLength);
+        return stream;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(buffers.single, 0, 1) == -1 ? -1 : buffers.single[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (finished) {
+            return -1;
+        }
+
+        try {
+            while (true) {
+                final int inflated = inflater.inflate(b, off, len);
+                if (inflated > 0) {
+                    if (gzip) {
+                        buffers.crc.update(b, off, inflated);
+                    }
+                    return inflated;
+                }
+
+                if (inflater.finished()) {
+                    if (gzip) {
+                        readGzipTrailer();
+                    }
+                    finished = true;
+                    return -1;
+                }
+
+                if (inflater.needsDictionary()) {
+                    throw new ZipException("Preset dictionaries are not supported");
+                }
+
+                if (inflater.needsInput()) {
+                    inputLength = source.read(buffers.input, 0, buffers.input.length);
+                    if (inputLength < 0) {
+                        throw new EOFException("Unexpected end of compressed response");
+                    }
+                    inflater.setInput(buffers.input, 0, inputLength);
+                }
+            }
+        } catch (final DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            source.close();
+        } finally {
+            inflaterPool.release(buffers);
+        }
+    }
+
+    private void readGzipTrailer() throws IOException {
+        final int remaining = inflater.getRemaining();
+        final int trailerStart = inputLength - remaining;
+
+        long crc = 0;
+        long size = 0;
+        for (int i = 0; i < 8; ++i) {
+            final long trailerByte = i < remaining ? buffers.input[trailerStart + i] & 0xff : readUnsignedByte(source);
+            if (i < 4) {
+                crc |= trailerByte << (8 * i);
+            } else {
+                size |= trailerByte << (8 * (i - 4));
+            }
+        }
+
+        if (crc != buffers.crc.getValue() || size != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+    }
+
+    private static void readGzipHeader(final InputStream in) throws IOException {
+        if (readUnsignedShort(in) != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (readUnsignedByte(in) != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+
+        final int flags = readUnsignedByte(in);
+
+        // Modification time, extra flags and OS.
+        skipFully(in, 6);
+
+        if ((flags & FEXTRA) != 0) {
+            skipFully(in, readUnsignedShort(in));
+        }
+        if ((flags & FNAME) != 0) {
+            while (readUnsignedByte(in) != 0) {
+                // Skip the zero-terminated file name.
+            }
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (readUnsignedByte(in) != 0) {
+                // Skip the zero-terminated comment.
+            }
+        }
+        if ((flags & FHCRC) != 0) {
+            skipFully(in, 2);
+        }
+    }
+
+    private static int readUnsignedByte(final InputStream in) throws IOException {
+        final int b = in.read();
+        if (b == -1) {
+            throw new EOFException("Unexpected end of GZIP stream");
+        }
+        return b;
+    }
+
+    private static int readUnsignedShort(final InputStream in) throws IOException {
+        return readUnsignedByte(in) | (readUnsignedByte(in) << 8);
+    }
+
+    private static void skipFully(final InputStream in, final int count) throws IOException {
+        for (int i = 0; i < count; ++i) {
+            readUnsignedByte(in);
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.cheddar.http;
+
+/**
+ * Groups of endpoints that are rate limited together. Each family gets its own token bucket in {@link RateLimiter},
+ * so being throttled on one (say a bulk instrument scrape) does not hold back calls to another (say orders).
+ */
+public enum EndpointFamily {
+    QUOTES("/quotes/"),
+    ORDERS("/orders/"),
+    INSTRUMENTS("/instruments/"),
+    ACCOUNT("/accounts/", "/portfolios/", "/positions/", "/user/", "/api-token-auth/"),
+    OTHER;
+
+    // values() clones its array on every call, and forURL runs on every request.
+    private static final EndpointFamily[] FAMILIES = values();
+
+    private final String[] pathMarkers;
+
+    EndpointFamily(final String... pathMarkers) {
+        this.pathMarkers = pathMarkers;
+    }
+
+    public static EndpointFamily forURL(final String url) {
+        if (url == null) {
+            return OTHER;
+        }
+
+        for (final EndpointFamily family : FAMILIES) {
+            for (final String pathMarker : family.pathMarkers) {
+                if (url.contains(pathMarker)) {
+                    return family;
+                }
+            }
+        }
+        return OTHER;
+    }
+}
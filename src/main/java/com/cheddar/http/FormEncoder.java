@@ -0,0 +1,159 @@
+package com.cheddar.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Builds an {@code application/x-www-form-urlencoded} body straight into a byte array, encoding exactly as
+ * {@link java.net.URLEncoder} does with UTF-8. Numbers are written as ASCII digits without an intermediate String, and
+ * an encoder can start from the pre-encoded bytes of fields that never change, so per-request work is only the
+ * varying fields. Not thread-safe; {@link #toByteArray()} returns a copy, so the encoder may be discarded or reused.
+ */
+public class FormEncoder {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer;
+    private int length;
+
+    public FormEncoder() {
+        this(64);
+    }
+
+    public FormEncoder(final int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Starts from an already-encoded body, such as the {@link #toByteArray()} of an earlier encoder.
+     */
+    public FormEncoder(final byte[] encodedPrefix, final int extraCapacity) {
+        this.buffer = Arrays.copyOf(encodedPrefix, encodedPrefix.length + Math.max(extraCapacity, 16));
+        this.length = encodedPrefix.length;
+    }
+
+    public static byte[] encode(final Map<String, String> parameters) {
+        final FormEncoder encoder = new FormEncoder();
+        parameters.forEach(encoder::add);
+        return encoder.toByteArray();
+    }
+
+    public FormEncoder add(final String name, final CharSequence value) {
+        startField(name);
+        appendEncoded(value);
+        return this;
+    }
+
+    public FormEncoder add(final String name, final long value) {
+        startField(name);
+        appendDigits(value);
+        return this;
+    }
+
+    /**
+     * Writes {@code cents} as a decimal amount with exactly two fraction digits, {@code 15025} as {@code 150.25}.
+     */
+    public FormEncoder addCents(final String name, final long cents) {
+        startField(name);
+        final long absolute = Math.abs(cents);
+        if (cents < 0) {
+            append('-');
+        }
+        appendDigits(absolute / 100);
+        append('.');
+        append((char) ('0' + absolute % 100 / 10));
+        append((char) ('0' + absolute % 10));
+        return this;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void startField(final String name) {
+        if (length > 0) {
+            append('&');
+        }
+        appendEncoded(name);
+        append('=');
+    }
+
+    private void appendEncoded(final CharSequence text) {
+        final int textLength = text.length();
+        for (int i = 0; i < textLength; ++i) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                appendEncodedAscii(c);
+            } else {
+                // Rare in practice: hand the rest to the JDK so surrogate pairs are encoded as whole code points.
+                for (final byte b : text.subSequence(i, textLength).toString().getBytes(StandardCharsets.UTF_8)) {
+                    if (b >= 0) {
+                        appendEncodedAscii((char) b);
+                    } else {
+                        appendPercent(b & 0xFF);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void appendEncodedAscii(final char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+            c == '.' || c == '-' || c == '*' || c == '_') {
+            append(c);
+        } else if (c == ' ') {
+            append('+');
+        } else {
+            appendPercent(c);
+        }
+    }
+
+    private void appendDigits(final long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                appendEncoded(Long.toString(value));
+                return;
+            }
+            append('-');
+            appendDigits(-value);
+            return;
+        }
+
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            ++digits;
+        }
+        ensureCapacity(digits);
+        long remaining = value;
+        for (int i = length + digits - 1; i >= length; --i) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        length += digits;
+    }
+
+    private void appendPercent(final int b) {
+        ensureCapacity(3);
+        buffer[length++] = '%';
+        buffer[length++] = HEX[b >> 4];
+        buffer[length++] = HEX[b & 0xF];
+    }
+
+    private void append(final char c) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) c;
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+}
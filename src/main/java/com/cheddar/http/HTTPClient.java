@@ -1,108 +1,237 @@
 package com.cheddar.http;
 
+import com.cheddar.metrics.Metrics;
+import com.cheddar.metrics.MetricsRecorder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
-import org.apache.http.Header;
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.NameValuePair;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.config.CookieSpecs;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.entity.UrlEncodedFormEntity;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.client.utils.URLEncodedUtils;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.message.BasicHeader;
-import org.apache.http.message.BasicNameValuePair;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.charset.Charset;
-import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.*;
 
 @Slf4j
-public class HTTPClient {
+public class HTTPClient implements Closeable {
 
-    public Optional<HTTPResult> executeHTTPPostRequest(final HTTPQuery httpQuery) {
-        HttpPost httpPost = new HttpPost(httpQuery.getUrl());
+    private static final long POOL_SAMPLE_MILLIS = 1000;
 
-        List<NameValuePair> params = new ArrayList<>();
-        for (final Map.Entry<String, String> paramEntry : httpQuery.getParameters().entrySet()) {
-            params.add(new BasicNameValuePair(paramEntry.getKey(), paramEntry.getValue()));
-        }
+    private final HTTPTransport transport;
 
-        try {
-            httpPost.setEntity(new UrlEncodedFormEntity(params, "utf-8"));
-        } catch (final UnsupportedEncodingException e) {
-            log.warn(e.getMessage(), e);
-        }
+    @Getter
+    private final RateLimiter rateLimiter;
+
+    @Getter
+    private final ResiliencePolicy resiliencePolicy;
+
+    private final BodyDecoder bodyDecoder = new BodyDecoder();
+
+    private final ScheduledExecutorService delayScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("http-delay-%d").build());
+
+    public HTTPClient() {
+        this(new HTTPClientConfig());
+    }
+
+    public HTTPClient(final HTTPClientConfig config) {
+        this(config, new RateLimiter(config.getRateLimiterConfig()), new ResiliencePolicy(config.getResilienceConfig()));
+    }
+
+    /**
+     * Pass the same {@link RateLimiter} and {@link ResiliencePolicy} to every client talking to one server so they
+     * share its request budget and its view of which endpoints are healthy.
+     */
+    public HTTPClient(final HTTPClientConfig config, final RateLimiter rateLimiter, final ResiliencePolicy resiliencePolicy) {
+        this(config.getTransportType().create(config), rateLimiter, resiliencePolicy);
+    }
 
-        return executeHTTPRequest(httpPost, httpQuery.getHeaders());
+    public HTTPClient(final HTTPTransport transport, final RateLimiter rateLimiter, final ResiliencePolicy resiliencePolicy) {
+        this.transport = transport;
+        this.rateLimiter = rateLimiter;
+        this.resiliencePolicy = resiliencePolicy;
+
+        delayScheduler.scheduleWithFixedDelay(() -> transport.reportConnectionPool(Metrics.getRecorder()),
+                                              POOL_SAMPLE_MILLIS, POOL_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
     }
 
+    public Optional<HTTPResult> executeHTTPPostRequest(final HTTPQuery httpQuery) {
+        return executeHTTPRequest("POST", httpQuery, HTTPRequests::readResult);
+    }
 
     public Optional<HTTPResult> executeHTTPGetRequest(final HTTPQuery httpQuery) {
-        String paramString = "";
-        if (httpQuery.getParameters().size() > 0) {
-            List<NameValuePair> params = new ArrayList<>();
-            for (final Map.Entry<String, String> paramEntry : httpQuery.getParameters().entrySet()) {
-                final String urlParameter;
-                try {
-                    urlParameter = URLEncoder.encode(paramEntry.getKey(), "UTF-8");
-                } catch (UnsupportedEncodingException e) {
-                    log.warn("Cannot encode parameter {}!", paramEntry.getKey());
-                    continue;
-                }
-                if (httpQuery.getUrl().contains(urlParameter+"=")) {
-                    continue;
+        return executeHTTPRequest("GET", httpQuery, HTTPRequests::readResult);
+    }
+
+    public <T> Optional<T> executeHTTPGetRequest(final HTTPQuery httpQuery, final HTTPResponseReader<T> reader) {
+        return executeHTTPRequest("GET", httpQuery, reader);
+    }
+
+    /**
+     * Like {@link #executeHTTPGetRequest(HTTPQuery, HTTPResponseReader)}, but runs on {@code executor}. Waits for the
+     * rate limiter and retry backoffs are scheduled rather than spent holding a thread.
+     */
+    public <T> CompletableFuture<Optional<T>> submitHTTPGetRequest(final HTTPQuery httpQuery, final HTTPResponseReader<T> reader,
+                                                                   final Executor executor) {
+        final CompletableFuture<Optional<T>> resultFuture = new CompletableFuture<>();
+        submitAttempt("GET", httpQuery, reader, 1, executor, resultFuture);
+        return resultFuture;
+    }
+
+    private <T> void submitAttempt(final String method, final HTTPQuery httpQuery, final HTTPResponseReader<T> reader, final int attempt,
+                                   final Executor executor, final CompletableFuture<Optional<T>> resultFuture) {
+        final Runnable request = () -> {
+            try {
+                final Attempt<T> outcome = executeAttempt(method, httpQuery, reader, attempt);
+                if (outcome.retryDelayMillis == ResiliencePolicy.NO_RETRY) {
+                    resultFuture.complete(outcome.result);
+                } else {
+                    schedule(() -> submitAttempt(method, httpQuery, reader, attempt + 1, executor, resultFuture),
+                             outcome.retryDelayMillis, TimeUnit.MILLISECONDS, executor, resultFuture);
                 }
-                params.add(new BasicNameValuePair(paramEntry.getKey(), paramEntry.getValue()));
+            } catch (final RuntimeException e) {
+                resultFuture.completeExceptionally(e);
             }
-            if (params.size() > 0) {
-                paramString = "?" + URLEncodedUtils.format(params, "utf-8");
+        };
+
+        schedule(request, rateLimiter.reserve(httpQuery.getUrl()), TimeUnit.NANOSECONDS, executor, resultFuture);
+    }
+
+    private void schedule(final Runnable request, final long delay, final TimeUnit timeUnit,
+                          final Executor executor, final CompletableFuture<?> resultFuture) {
+        try {
+            if (delay <= 0) {
+                executor.execute(request);
+            } else {
+                delayScheduler.schedule(() -> schedule(request, 0, timeUnit, executor, resultFuture), delay, timeUnit);
             }
+        } catch (final RejectedExecutionException e) {
+            resultFuture.completeExceptionally(e);
         }
-        HttpGet httpGet = new HttpGet(httpQuery.getUrl() + paramString);
-
-        return executeHTTPRequest(httpGet, httpQuery.getHeaders());
     }
 
-    private Optional<HTTPResult> executeHTTPRequest(final HttpUriRequest httpRequest,
-                                                    final Map<String, String> headers) {
+    private <T> Optional<T> executeHTTPRequest(final String method, final HTTPQuery httpQuery, final HTTPResponseReader<T> reader) {
+        for (int attempt = 1; ; ++attempt) {
+            if (!pause(rateLimiter.reserve(httpQuery.getUrl()), TimeUnit.NANOSECONDS)) {
+                return Optional.empty();
+            }
 
-        final List<Header> headerList = new ArrayList<>();
-        headers.forEach((key, value) -> headerList.add(new BasicHeader(key, value)));
+            final Attempt<T> outcome = executeAttempt(method, httpQuery, reader, attempt);
+            if (outcome.retryDelayMillis == ResiliencePolicy.NO_RETRY) {
+                return outcome.result;
+            }
 
-        final HttpClient httpClient = HttpClients.custom()
-                                                 .setDefaultRequestConfig(RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build())
-                                                 .setDefaultHeaders(headerList).setConnectionTimeToLive(2000, TimeUnit.MILLISECONDS).build();
+            if (!pause(outcome.retryDelayMillis, TimeUnit.MILLISECONDS)) {
+                return Optional.empty();
+            }
+        }
+    }
 
-        Optional<HTTPResult> httpResultOptional = Optional.empty();
+    /**
+     * Sends the request once over the transport. Failures the {@link ResiliencePolicy} deems retryable come back with a
+     * retry delay; anything else, including a failure while the reader was consuming the body or a runtime exception
+     * from the reader, is final. Each attempt is reported to the {@link MetricsRecorder} with its status, or 0 if no
+     * response came back.
+     */
+    private <T> Attempt<T> executeAttempt(final String method, final HTTPQuery httpQuery, final HTTPResponseReader<T> reader,
+                                          final int attempt) {
+        final String url = httpQuery.getUrl();
+        final EndpointFamily family = EndpointFamily.forURL(url);
+        final MetricsRecorder recorder = Metrics.getRecorder();
+
+        if (!resiliencePolicy.allowRequest(url)) {
+            log.warn("Circuit open, not sending request to {}", url);
+            return new Attempt<>(Optional.empty(), ResiliencePolicy.NO_RETRY);
+        }
 
+        final AttemptState state = new AttemptState();
+        final long startNanos = System.nanoTime();
         try {
-            HttpResponse response = httpClient.execute(httpRequest);
-            HttpEntity entity = response.getEntity();
+            return transport.execute(method, httpQuery, (statusCode, headers, wireBody) -> {
+                state.statusCode = statusCode;
+                rateLimiter.onResponse(url, statusCode, headers.get("Retry-After"));
+
+                final long retryDelayMillis = resiliencePolicy.onResponse(method, url, statusCode, attempt);
+                if (retryDelayMillis != ResiliencePolicy.NO_RETRY) {
+                    log.info("Got status {} from {}, retrying in {} ms (attempt {}).", statusCode, url, retryDelayMillis, attempt);
+                    recorder.recordRetry(family);
+                    return new Attempt<T>(Optional.empty(), retryDelayMillis);
+                }
 
-            final Map<String, String> responseHeader = new HashMap<>();
-            for (final Header header : response.getAllHeaders()) {
-                responseHeader.put(header.getName(), header.getValue());
+                state.handling = true;
+                try (final InputStream body = bodyDecoder.openBody(url, wireBody, headers.get("Content-Encoding"))) {
+                    return new Attempt<>(Optional.ofNullable(reader.read(statusCode, headers, body)), ResiliencePolicy.NO_RETRY);
+                }
+            });
+        } catch (final IOException e) {
+            if (state.handling) {
+                log.warn(e.getMessage(), e);
+                return new Attempt<>(Optional.empty(), ResiliencePolicy.NO_RETRY);
             }
 
-            final String pageContents = IOUtils.toString(entity.getContent(), Charset.defaultCharset());
+            final long retryDelayMillis = resiliencePolicy.onFailure(method, url, e, attempt);
+            if (retryDelayMillis == ResiliencePolicy.NO_RETRY) {
+                log.warn(e.getMessage(), e);
+            } else {
+                log.info("Request to {} failed because {}, retrying in {} ms (attempt {}).", url, e.getMessage(), retryDelayMillis, attempt);
+                recorder.recordRetry(family);
+            }
+            return new Attempt<>(Optional.empty(), retryDelayMillis);
+        } catch (final RuntimeException e) {
+            // Typically a reader that choked on the body. The transport has closed the response, releasing its
+            // connection; count it against the breaker like any other failed request, but never retry it.
+            log.warn("Request to {} failed because {}", url, e.getMessage(), e);
+            resiliencePolicy.getCircuitBreaker(family).onFailure();
+            return new Attempt<>(Optional.empty(), ResiliencePolicy.NO_RETRY);
+        } finally {
+            recorder.recordRequest(family, state.statusCode, System.nanoTime() - startNanos);
+        }
+    }
 
-            HTTPResult result = new HTTPResult(response.getStatusLine().getStatusCode(), responseHeader, pageContents);
+    /**
+     * Blocks the calling thread, and only it, for {@code delay}. Returns false if interrupted.
+     */
+    private static boolean pause(final long delay, final TimeUnit timeUnit) {
+        if (delay <= 0) {
+            return true;
+        }
 
-            httpResultOptional = Optional.of(result);
-        } catch (final IOException e) {
-            log.warn(e.getMessage(), e);
+        try {
+            timeUnit.sleep(delay);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
+    }
+
+    /**
+     * Wire versus decoded response bytes per endpoint family. Responses are decompressed by {@link BodyDecoder} rather
+     * than by the transport, so these reflect what actually crossed the network.
+     */
+    public CompressionMetrics getCompressionMetrics() {
+        return bodyDecoder.getCompressionMetrics();
+    }
 
-        return httpResultOptional;
+    @Override
+    public void close() {
+        delayScheduler.shutdownNow();
+        transport.close();
+    }
+
+    private static class AttemptState {
+        private int statusCode;
+        private boolean handling;
+    }
+
+    private static class Attempt<T> {
+        private final Optional<T> result;
+        private final long retryDelayMillis;
+
+        private Attempt(final Optional<T> result, final long retryDelayMillis) {
+            this.result = result;
+            this.retryDelayMillis = retryDelayMillis;
+        }
     }
 
 }
@@ -0,0 +1,33 @@
+package com.cheddar.http;
+
+import lombok.Data;
+
+/**
+ * Tuning knobs for the transport, rate limiter and retry policy owned by {@link HTTPClient}.
+ * All durations are in milliseconds.
+ */
+@Data
+public class HTTPClientConfig {
+    private HTTPTransportType transportType = HTTPTransportType.APACHE_HTTP_1_1;
+
+    /**
+     * Speak HTTP/2 without negotiating it first (cleartext h2c). Only for servers known to accept it, and only used by
+     * {@link HTTPTransportType#OKHTTP_HTTP_2}.
+     */
+    private boolean http2PriorKnowledge = false;
+
+    private int maxConnectionsTotal = 64;
+    private int maxConnectionsPerRoute = 16;
+
+    private long connectionTimeToLiveMillis = 5 * 60 * 1000;
+    private long maxIdleMillis = 30 * 1000;
+    private long defaultKeepAliveMillis = 30 * 1000;
+    private int validateAfterInactivityMillis = 2000;
+
+    private int connectTimeoutMillis = 5000;
+    private int socketTimeoutMillis = 15000;
+    private int connectionRequestTimeoutMillis = 5000;
+
+    private RateLimiterConfig rateLimiterConfig = new RateLimiterConfig();
+    private ResilienceConfig resilienceConfig = new ResilienceConfig();
+}
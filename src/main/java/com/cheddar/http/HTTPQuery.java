@@ -2,21 +2,40 @@ package com.cheddar.http;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.ToString;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 
+// Headers carry the auth token and login parameters the password, so neither belongs in logs.
 @Data
 @AllArgsConstructor
+@ToString(exclude = {"parameters", "headers", "formBody"})
 public class HTTPQuery {
     private final String url;
     private final Map<String, String> parameters;
     private final Map<String, String> headers;
 
+    /**
+     * A POST body already encoded by {@link FormEncoder}, sent as is in place of {@link #parameters}. Null for
+     * ordinary queries.
+     */
+    private final byte[] formBody;
+
+    public HTTPQuery(final String url, final Map<String, String> parameters, final Map<String, String> headers) {
+        this(url, parameters, headers, null);
+    }
+
+    public static HTTPQuery withFormBody(final String url, final byte[] formBody, final Map<String, String> headers) {
+        return new HTTPQuery(url, Collections.emptyMap(), headers, formBody);
+    }
+
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(url).append(parameters).append(headers).toHashCode();
+        return new HashCodeBuilder().append(url).append(parameters).append(headers).append(formBody).toHashCode();
     }
 
     @Override
@@ -27,6 +46,7 @@ public class HTTPQuery {
         final HTTPQuery otherQuery = (HTTPQuery)  otherObject;
         return (Objects.equals(url, otherQuery.getUrl()) &&
                 Objects.equals(parameters, otherQuery.getParameters()) &&
-                Objects.equals(headers, otherQuery.getHeaders()));
+                Objects.equals(headers, otherQuery.getHeaders()) &&
+                Arrays.equals(formBody, otherQuery.getFormBody()));
     }
 }
@@ -0,0 +1,144 @@
+package com.cheddar.http;
+
+import com.google.common.io.ByteStreams;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.NameValuePair;
+import org.apache.http.ParseException;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicNameValuePair;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Request building and response reading shared by the blocking and non-blocking clients.
+ */
+@Slf4j
+class HTTPRequests {
+
+    private static final ContentType FORM_CONTENT_TYPE = ContentType.create("application/x-www-form-urlencoded", StandardCharsets.UTF_8);
+
+    static HttpPost createPostRequest(final HTTPQuery httpQuery) {
+        HttpPost httpPost = new HttpPost(httpQuery.getUrl());
+
+        if (httpQuery.getFormBody() != null) {
+            httpPost.setEntity(new ByteArrayEntity(httpQuery.getFormBody(), FORM_CONTENT_TYPE));
+            httpQuery.getHeaders().forEach(httpPost::setHeader);
+            return httpPost;
+        }
+
+        List<NameValuePair> params = new ArrayList<>();
+        for (final Map.Entry<String, String> paramEntry : httpQuery.getParameters().entrySet()) {
+            params.add(new BasicNameValuePair(paramEntry.getKey(), paramEntry.getValue()));
+        }
+
+        try {
+            httpPost.setEntity(new UrlEncodedFormEntity(params, "utf-8"));
+        } catch (final UnsupportedEncodingException e) {
+            log.warn(e.getMessage(), e);
+        }
+
+        httpQuery.getHeaders().forEach(httpPost::setHeader);
+
+        return httpPost;
+    }
+
+    static HttpGet createGetRequest(final HTTPQuery httpQuery) {
+        HttpGet httpGet = new HttpGet(createGetURL(httpQuery));
+
+        httpQuery.getHeaders().forEach(httpGet::setHeader);
+
+        return httpGet;
+    }
+
+    /**
+     * The query's URL with its parameters appended, skipping any the URL already carries.
+     */
+    static String createGetURL(final HTTPQuery httpQuery) {
+        String paramString = "";
+        if (httpQuery.getParameters().size() > 0) {
+            List<NameValuePair> params = new ArrayList<>();
+            for (final Map.Entry<String, String> paramEntry : httpQuery.getParameters().entrySet()) {
+                final String urlParameter;
+                try {
+                    urlParameter = URLEncoder.encode(paramEntry.getKey(), "UTF-8");
+                } catch (UnsupportedEncodingException e) {
+                    log.warn("Cannot encode parameter {}!", paramEntry.getKey());
+                    continue;
+                }
+                if (httpQuery.getUrl().contains(urlParameter+"=")) {
+                    continue;
+                }
+                params.add(new BasicNameValuePair(paramEntry.getKey(), paramEntry.getValue()));
+            }
+            if (params.size() > 0) {
+                // Pagination cursors already carry a query string; extend it rather than starting a second one.
+                paramString = (httpQuery.getUrl().indexOf('?') < 0 ? "?" : "&") + URLEncodedUtils.format(params, "utf-8");
+            }
+        }
+        return httpQuery.getUrl() + paramString;
+    }
+
+    static Map<String, String> readHeaders(final HttpResponse response) {
+        // Header names are case-insensitive on the wire; look-ups such as "Retry-After" must be too. A repeated header
+        // keeps its first value, as getFirstHeader would, and as OkHttpTransport does.
+        final Map<String, String> responseHeader = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (final Header header : response.getAllHeaders()) {
+            responseHeader.putIfAbsent(header.getName(), header.getValue());
+        }
+        return responseHeader;
+    }
+
+    static HTTPResult readResult(final HttpResponse response, final BodyDecoder bodyDecoder, final String url) throws IOException {
+        final byte[] bodyBytes;
+        try (final InputStream body = bodyDecoder.openBody(url, response.getEntity())) {
+            bodyBytes = ByteStreams.toByteArray(body);
+        }
+
+        final Map<String, String> headers = readHeaders(response);
+        return new HTTPResult(response.getStatusLine().getStatusCode(), headers, bodyBytes, readCharset(headers.get("Content-Type")));
+    }
+
+    /**
+     * Buffers an already decoded body into an {@link HTTPResult}; usable as an {@link HTTPResponseReader}.
+     */
+    static HTTPResult readResult(final int statusCode, final Map<String, String> headers, final InputStream body) throws IOException {
+        return new HTTPResult(statusCode, headers, ByteStreams.toByteArray(body), readCharset(headers.get("Content-Type")));
+    }
+
+    /**
+     * The charset declared in a Content-Type header, or UTF-8 (the JSON default) when none or an unknown one is given.
+     */
+    static Charset readCharset(final String contentTypeHeader) {
+        if (contentTypeHeader == null) {
+            return StandardCharsets.UTF_8;
+        }
+
+        try {
+            final ContentType contentType = ContentType.parse(contentTypeHeader);
+            if (contentType.getCharset() != null) {
+                return contentType.getCharset();
+            }
+        } catch (final ParseException | UnsupportedCharsetException e) {
+            log.debug("Ignoring unusable Content-Type {}", contentTypeHeader, e);
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+}
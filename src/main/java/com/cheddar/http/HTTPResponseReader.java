@@ -0,0 +1,16 @@
+package com.cheddar.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Consumes a response body straight off the connection, so large responses can be decoded without first being
+ * buffered into memory. The stream is only valid for the duration of the call.
+ */
+@FunctionalInterface
+public interface HTTPResponseReader<T> {
+
+    T read(final int statusCode, final Map<String, String> headers, final InputStream body) throws IOException;
+
+}
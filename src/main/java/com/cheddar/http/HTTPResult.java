@@ -1,18 +1,98 @@
 package com.cheddar.http;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
+/**
+ * A response with its body kept as the bytes received. Decoders should read {@link #openBody()} or
+ * {@link #getBodyBuffer()} directly; {@link #getBody()} decodes the text with the response's declared charset on first
+ * use, for the few callers that really need a String.
+ */
 @Data
-@AllArgsConstructor
 public class HTTPResult {
+    private static final int BODY_EXCERPT_CHARS = 200;
+
     private final int statusCode;
     private final Map<String, String> headers;
-    private final String body;
+    private final byte[] bodyBytes;
+    private final Charset charset;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile String decodedBody;
+
+    public HTTPResult(final int statusCode, final Map<String, String> headers, final byte[] bodyBytes, final Charset charset) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.bodyBytes = bodyBytes;
+        this.charset = charset;
+    }
+
+    public HTTPResult(final int statusCode, final Map<String, String> headers, final String body) {
+        this(statusCode, headers, body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        this.decodedBody = body;
+    }
+
+    public String getBody() {
+        String body = decodedBody;
+        if (body == null) {
+            body = new String(bodyBytes, charset);
+            decodedBody = body;
+        }
+        return body;
+    }
+
+    public InputStream openBody() {
+        return new ByteArrayInputStream(bodyBytes);
+    }
+
+    public ByteBuffer getBodyBuffer() {
+        return ByteBuffer.wrap(bodyBytes).asReadOnlyBuffer();
+    }
+
+    public int getBodyLength() {
+        return bodyBytes.length;
+    }
 
     public boolean isOk() {
         return statusCode == 200;
     }
+
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    public boolean isClientError() {
+        return statusCode >= 400 && statusCode < 500;
+    }
+
+    public boolean isServerError() {
+        return statusCode >= 500;
+    }
+
+    /**
+     * At most the first {@value #BODY_EXCERPT_CHARS} characters of the body, for logs and exception messages, which
+     * should carry neither a whole error page nor whole account data.
+     */
+    public String getBodyExcerpt() {
+        final String body = getBody();
+        if (body.length() <= BODY_EXCERPT_CHARS) {
+            return body;
+        }
+        return body.substring(0, BODY_EXCERPT_CHARS) + "... (" + (body.length() - BODY_EXCERPT_CHARS) + " more chars)";
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HTTPResult(statusCode=%d, bodyLength=%d, body=%s)", statusCode, bodyBytes.length, getBodyExcerpt());
+    }
 }
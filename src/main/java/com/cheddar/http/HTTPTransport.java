@@ -0,0 +1,29 @@
+package com.cheddar.http;
+
+import com.cheddar.metrics.MetricsRecorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Sends one request and hands the raw response to a reader. Transports do no retrying, rate limiting or
+ * decompression; {@link HTTPClient} layers those on top, so they behave the same whichever transport is plugged in.
+ *
+ * The header map given to the reader must be case-insensitive, and the body is passed as received, still
+ * content-encoded. The transport releases the response (draining or discarding what the reader left) once the reader
+ * returns.
+ */
+public interface HTTPTransport extends Closeable {
+
+    <T> T execute(final String method, final HTTPQuery httpQuery, final HTTPResponseReader<T> reader) throws IOException;
+
+    /**
+     * Reports current connection usage, if the transport can tell.
+     */
+    default void reportConnectionPool(final MetricsRecorder recorder) {
+    }
+
+    @Override
+    void close();
+
+}
@@ -0,0 +1,30 @@
+package com.cheddar.http;
+
+/**
+ * The {@link HTTPTransport} implementations {@link HTTPClient} can be configured with.
+ */
+public enum HTTPTransportType {
+
+    /**
+     * Apache HttpClient, HTTP/1.1 over a pool of keep-alive connections.
+     */
+    APACHE_HTTP_1_1 {
+        @Override
+        public HTTPTransport create(final HTTPClientConfig config) {
+            return new ApacheHTTPTransport(config);
+        }
+    },
+
+    /**
+     * OkHttp, multiplexing requests over one HTTP/2 connection per host when the server supports it.
+     */
+    OKHTTP_HTTP_2 {
+        @Override
+        public HTTPTransport create(final HTTPClientConfig config) {
+            return new OkHttpTransport(config);
+        }
+    };
+
+    public abstract HTTPTransport create(final HTTPClientConfig config);
+
+}
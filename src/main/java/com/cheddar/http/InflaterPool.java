@@ -0,0 +1,63 @@
+package com.cheddar.http;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps decompression state between responses. An {@link Inflater} owns native memory and a 32 KB window, so
+ * creating one per response (as {@link java.util.zip.GZIPInputStream} does) is wasteful on a busy client.
+ */
+class InflaterPool {
+
+    static final int INPUT_BUFFER_SIZE = 16 * 1024;
+
+    private final Queue<Buffers> idleBuffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int maxIdle;
+
+    InflaterPool(final int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    Buffers acquire() {
+        final Buffers buffers = idleBuffers.poll();
+        if (buffers == null) {
+            return new Buffers();
+        }
+        idleCount.decrementAndGet();
+        return buffers;
+    }
+
+    void release(final Buffers buffers) {
+        buffers.reset();
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idleBuffers.offer(buffers);
+        } else {
+            idleCount.decrementAndGet();
+            buffers.end();
+        }
+    }
+
+    static class Buffers {
+        final Inflater zlibInflater = new Inflater(false);
+        final Inflater rawInflater = new Inflater(true);
+        final byte[] input = new byte[INPUT_BUFFER_SIZE];
+        final byte[] single = new byte[1];
+        final CRC32 crc = new CRC32();
+
+        private void reset() {
+            zlibInflater.reset();
+            rawInflater.reset();
+            crc.reset();
+        }
+
+        private void end() {
+            zlibInflater.end();
+            rawInflater.end();
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.cheddar.http;
+
+import com.cheddar.metrics.Metrics;
+import com.cheddar.metrics.MetricsRecorder;
+import okhttp3.ConnectionPool;
+import okhttp3.FormBody;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/2 where the server negotiates it over ALPN, falling back to HTTP/1.1 otherwise. With HTTP/2 concurrent requests
+ * to one host share a single multiplexed connection instead of each holding a pooled socket. ALPN needs Java 8u252 or
+ * later; on older runtimes every connection silently ends up HTTP/1.1.
+ */
+public class OkHttpTransport implements HTTPTransport {
+
+    private static final MediaType FORM_MEDIA_TYPE = MediaType.get("application/x-www-form-urlencoded");
+
+    private final OkHttpClient httpClient;
+
+    public OkHttpTransport(final HTTPClientConfig config) {
+        this.httpClient = new OkHttpClient.Builder()
+                .protocols(config.isHttp2PriorKnowledge() ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE)
+                                                          : Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(config.getMaxConnectionsPerRoute(), config.getMaxIdleMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(config.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getSocketTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getSocketTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+    }
+
+    @Override
+    public <T> T execute(final String method, final HTTPQuery httpQuery, final HTTPResponseReader<T> reader) throws IOException {
+        final Request.Builder requestBuilder = new Request.Builder();
+        if ("POST".equals(method) && httpQuery.getFormBody() != null) {
+            Metrics.getRecorder().recordBytesOut(EndpointFamily.forURL(httpQuery.getUrl()), httpQuery.getFormBody().length);
+            requestBuilder.url(httpQuery.getUrl()).post(RequestBody.create(FORM_MEDIA_TYPE, httpQuery.getFormBody()));
+        } else if ("POST".equals(method)) {
+            final FormBody.Builder formBuilder = new FormBody.Builder();
+            httpQuery.getParameters().forEach(formBuilder::add);
+            final FormBody formBody = formBuilder.build();
+            Metrics.getRecorder().recordBytesOut(EndpointFamily.forURL(httpQuery.getUrl()), formBody.contentLength());
+            requestBuilder.url(httpQuery.getUrl()).post(formBody);
+        } else {
+            requestBuilder.url(HTTPRequests.createGetURL(httpQuery));
+        }
+        httpQuery.getHeaders().forEach(requestBuilder::header);
+
+        // Setting Accept-Encoding ourselves stops OkHttp from transparently gunzipping, leaving that to BodyDecoder.
+        if (!httpQuery.getHeaders().containsKey("Accept-Encoding")) {
+            requestBuilder.header("Accept-Encoding", "identity");
+        }
+
+        try (final Response response = httpClient.newCall(requestBuilder.build()).execute()) {
+            final ResponseBody responseBody = response.body();
+            final InputStream body = responseBody == null ? new ByteArrayInputStream(new byte[0]) : responseBody.byteStream();
+            return reader.read(response.code(), readHeaders(response.headers()), body);
+        }
+    }
+
+    /**
+     * A repeated header keeps its first value, matching {@link HTTPRequests#readHeaders} for the Apache transports.
+     */
+    static Map<String, String> readHeaders(final Headers headers) {
+        final Map<String, String> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < headers.size(); ++i) {
+            responseHeaders.putIfAbsent(headers.name(i), headers.value(i));
+        }
+        return responseHeaders;
+    }
+
+    /**
+     * OkHttp has no pending-request queue or fixed connection limit to report; with HTTP/2 several requests may share
+     * one leased connection.
+     */
+    @Override
+    public void reportConnectionPool(final MetricsRecorder recorder) {
+        final ConnectionPool connectionPool = httpClient.connectionPool();
+        final int idle = connectionPool.idleConnectionCount();
+        recorder.recordConnectionPool(connectionPool.connectionCount() - idle, 0, idle, 0);
+    }
+
+    @Override
+    public void close() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.cheddar.http;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side token buckets, one per {@link EndpointFamily}. A caller reserves a token before sending and is told how
+ * long to wait for it; callers that must wait queue up behind each other instead of all retrying at once.
+ *
+ * The rate adapts: a 429 or a {@code Retry-After} halves the family's rate and closes it until the server's delay
+ * has passed, and each successful response wins a little of the rate back.
+ */
+@Slf4j
+public class RateLimiter {
+
+    private final RateLimiterConfig config;
+    private final Map<EndpointFamily, TokenBucket> buckets = new EnumMap<>(EndpointFamily.class);
+
+    public RateLimiter() {
+        this(new RateLimiterConfig());
+    }
+
+    public RateLimiter(final RateLimiterConfig config) {
+        this.config = config;
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            buckets.put(family, new TokenBucket(config.getRequestsPerSecond().getOrDefault(family, 10.0)));
+        }
+    }
+
+    /**
+     * Takes a token for a request to {@code url}, returning how many nanoseconds the caller must wait before sending.
+     */
+    public long reserve(final String url) {
+        return reserve(url, System.nanoTime());
+    }
+
+    long reserve(final String url, final long nowNanos) {
+        return buckets.get(EndpointFamily.forURL(url)).reserve(nowNanos);
+    }
+
+    public void onResponse(final String url, final int statusCode, final String retryAfter) {
+        onResponse(url, statusCode, retryAfter, System.nanoTime());
+    }
+
+    void onResponse(final String url, final int statusCode, final String retryAfter, final long nowNanos) {
+        final EndpointFamily family = EndpointFamily.forURL(url);
+        final long retryAfterSeconds = RetryAfter.toSeconds(retryAfter);
+
+        if (statusCode == 429 || retryAfterSeconds > 0) {
+            final long pauseNanos = retryAfterSeconds > 0 ? TimeUnit.SECONDS.toNanos(retryAfterSeconds)
+                                                          : TimeUnit.MILLISECONDS.toNanos(config.getDefaultRetryAfterMillis());
+            final double rate = buckets.get(family).throttle(pauseNanos, nowNanos);
+            log.info("Throttled on {}, pausing {} ms and slowing to {} requests/second.",
+                     family, TimeUnit.NANOSECONDS.toMillis(pauseNanos), String.format("%.2f", rate));
+        } else if (statusCode < 500) {
+            buckets.get(family).recover(nowNanos);
+        }
+    }
+
+    public double getRequestsPerSecond(final EndpointFamily family) {
+        return buckets.get(family).getRate();
+    }
+
+    private class TokenBucket {
+        private final double configuredRate;
+
+        private double rate;
+        private double tokens;
+        private long lastRefillNanos;
+        private long closedUntilNanos;
+
+        private TokenBucket(final double configuredRate) {
+            this.configuredRate = configuredRate;
+            this.rate = configuredRate;
+            this.tokens = capacity();
+            this.lastRefillNanos = System.nanoTime();
+            this.closedUntilNanos = lastRefillNanos;
+        }
+
+        private double capacity() {
+            return Math.max(1.0, rate * config.getBurstSeconds());
+        }
+
+        private void refill(final long nowNanos) {
+            final long elapsedNanos = nowNanos - lastRefillNanos;
+            if (elapsedNanos > 0) {
+                tokens = Math.min(capacity(), tokens + elapsedNanos * rate / TimeUnit.SECONDS.toNanos(1));
+                lastRefillNanos = nowNanos;
+            }
+        }
+
+        private synchronized long reserve(final long nowNanos) {
+            refill(nowNanos);
+            tokens -= 1;
+
+            // A negative balance is the queue of callers already waiting; this one waits until its token has accrued.
+            final long tokenWaitNanos = tokens >= 0 ? 0 : (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / rate);
+            return Math.max(tokenWaitNanos, closedUntilNanos - nowNanos);
+        }
+
+        private synchronized double throttle(final long pauseNanos, final long nowNanos) {
+            refill(nowNanos);
+            rate = Math.max(configuredRate * config.getMinimumRateFraction(), rate * config.getThrottleBackoffFactor());
+            tokens = Math.min(tokens, 0);
+            closedUntilNanos = Math.max(closedUntilNanos, nowNanos + pauseNanos);
+            return rate;
+        }
+
+        private synchronized void recover(final long nowNanos) {
+            if (rate < configuredRate) {
+                refill(nowNanos);
+                rate = Math.min(configuredRate, rate + configuredRate * config.getRecoveryPerSuccess());
+            }
+        }
+
+        private synchronized double getRate() {
+            return rate;
+        }
+    }
+
+}
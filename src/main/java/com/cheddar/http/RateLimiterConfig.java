@@ -0,0 +1,39 @@
+package com.cheddar.http;
+
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for {@link RateLimiter}. Rates are the ceilings each family recovers to after being throttled.
+ */
+@Data
+public class RateLimiterConfig {
+    private Map<EndpointFamily, Double> requestsPerSecond = defaultRequestsPerSecond();
+
+    /** Bucket capacity, expressed as seconds' worth of requests at the current rate. */
+    private double burstSeconds = 1.0;
+
+    /** Multiplier applied to a family's rate each time it is throttled. */
+    private double throttleBackoffFactor = 0.5;
+
+    /** Floor for a throttled family's rate, as a fraction of its configured rate. */
+    private double minimumRateFraction = 0.1;
+
+    /** Rate regained per successful response, as a fraction of the configured rate. */
+    private double recoveryPerSuccess = 0.02;
+
+    /** Pause applied on a 429 that carries no usable Retry-After. */
+    private long defaultRetryAfterMillis = 1000;
+
+    private static Map<EndpointFamily, Double> defaultRequestsPerSecond() {
+        final Map<EndpointFamily, Double> requestsPerSecond = new EnumMap<>(EndpointFamily.class);
+        requestsPerSecond.put(EndpointFamily.QUOTES, 20.0);
+        requestsPerSecond.put(EndpointFamily.ORDERS, 5.0);
+        requestsPerSecond.put(EndpointFamily.INSTRUMENTS, 20.0);
+        requestsPerSecond.put(EndpointFamily.ACCOUNT, 10.0);
+        requestsPerSecond.put(EndpointFamily.OTHER, 10.0);
+        return requestsPerSecond;
+    }
+}
@@ -0,0 +1,145 @@
+package com.cheddar.http;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-flight deduplication of identical requests. While a call for an {@link HTTPQuery} is in flight, concurrent
+ * callers with an equal query wait for it and share its result (or its exception) instead of issuing their own
+ * request. Optionally a successful result is kept for a short TTL so near-simultaneous bursts are also absorbed.
+ *
+ * Shared results are the same object for every caller, so callers must treat them as read-only.
+ */
+public class RequestCoalescer {
+
+    @FunctionalInterface
+    public interface Call<V, E extends Exception> {
+        V call() throws E;
+    }
+
+    private static final int SWEEP_INTERVAL = 256;
+
+    private final Map<HTTPQuery, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicInteger callsSinceSweep = new AtomicInteger();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private volatile long resultTtlNanos;
+
+    public RequestCoalescer() {
+        this(0, TimeUnit.MILLISECONDS);
+    }
+
+    public RequestCoalescer(final long resultTtl, final TimeUnit timeUnit) {
+        this.resultTtlNanos = timeUnit.toNanos(resultTtl);
+    }
+
+    public void setResultTtl(final long resultTtl, final TimeUnit timeUnit) {
+        this.resultTtlNanos = timeUnit.toNanos(resultTtl);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V, E extends Exception> V execute(final HTTPQuery httpQuery, final Call<V, E> call) throws E {
+        if (callsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            callsSinceSweep.set(0);
+            sweepExpired();
+        }
+
+        while (true) {
+            final Flight existing = flights.get(httpQuery);
+
+            if (existing != null && existing.isUsable(resultTtlNanos)) {
+                coalesced.incrementAndGet();
+                return (V) existing.<E>await();
+            }
+
+            final Flight flight = new Flight();
+            final boolean claimed = existing == null ? flights.putIfAbsent(httpQuery, flight) == null
+                                                     : flights.replace(httpQuery, existing, flight);
+            if (!claimed) {
+                continue;
+            }
+
+            executed.incrementAndGet();
+            try {
+                final V value = call.call();
+                flight.succeed(value);
+                return value;
+            } catch (final Exception | Error e) {
+                flight.fail(e);
+                throw e;
+            } finally {
+                if (resultTtlNanos <= 0 || !flight.succeeded) {
+                    flights.remove(httpQuery, flight);
+                }
+            }
+        }
+    }
+
+    private void sweepExpired() {
+        final long ttlNanos = resultTtlNanos;
+        final Iterator<Flight> iterator = flights.values().iterator();
+        while (iterator.hasNext()) {
+            final Flight flight = iterator.next();
+            if (flight.result.isDone() && !flight.isUsable(ttlNanos)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public long getExecutedCalls() {
+        return executed.get();
+    }
+
+    public long getCoalescedCalls() {
+        return coalesced.get();
+    }
+
+    private static class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAtNanos;
+        private volatile boolean succeeded;
+
+        private void succeed(final Object value) {
+            completedAtNanos = System.nanoTime();
+            succeeded = true;
+            result.complete(value);
+        }
+
+        private void fail(final Throwable throwable) {
+            completedAtNanos = System.nanoTime();
+            result.completeExceptionally(throwable);
+        }
+
+        private boolean isUsable(final long ttlNanos) {
+            if (!result.isDone()) {
+                return true;
+            }
+            return succeeded && System.nanoTime() - completedAtNanos < ttlNanos;
+        }
+
+        private <E extends Exception> Object await() throws E {
+            try {
+                return result.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a coalesced request.");
+            } catch (final ExecutionException e) {
+                return rethrow(e.getCause());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E extends Exception> Object rethrow(final Throwable cause) throws E {
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.cheddar.http;
+
+import com.google.common.collect.ImmutableSet;
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings for {@link ResiliencePolicy}. Families without their own retry policy use {@code defaultRetryPolicy}.
+ */
+@Data
+public class ResilienceConfig {
+    private RetryPolicy defaultRetryPolicy = new RetryPolicy();
+    private Map<EndpointFamily, RetryPolicy> retryPolicies = new EnumMap<>(EndpointFamily.class);
+
+    /** Statuses worth another attempt. 429 is also paced by {@link RateLimiter}, so the retry waits out Retry-After. */
+    private Set<Integer> retryableStatusCodes = ImmutableSet.of(429, 500, 502, 503, 504);
+
+    private int circuitFailureThreshold = 5;
+    private long circuitOpenMillis = 30 * 1000;
+}
@@ -0,0 +1,91 @@
+package com.cheddar.http;
+
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Decides whether a failed attempt is retried and after how long, and keeps a {@link CircuitBreaker} per
+ * {@link EndpointFamily} so calls to a degraded part of the API fail fast instead of tying up threads.
+ *
+ * GETs are retried on I/O errors and retryable statuses. POSTs are not idempotent, so they are only retried when the
+ * connection was never established and the server cannot have seen them, and POSTs to orders are never retried.
+ */
+public class ResiliencePolicy {
+
+    public static final long NO_RETRY = -1;
+
+    private final ResilienceConfig config;
+    private final Map<EndpointFamily, CircuitBreaker> circuitBreakers = new EnumMap<>(EndpointFamily.class);
+
+    public ResiliencePolicy() {
+        this(new ResilienceConfig());
+    }
+
+    public ResiliencePolicy(final ResilienceConfig config) {
+        this.config = config;
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            circuitBreakers.put(family, new CircuitBreaker(family.name(), config.getCircuitFailureThreshold(), config.getCircuitOpenMillis()));
+        }
+    }
+
+    public boolean allowRequest(final String url) {
+        return getCircuitBreaker(EndpointFamily.forURL(url)).allowRequest();
+    }
+
+    /**
+     * Records a response and returns how long to wait before retrying it, or {@link #NO_RETRY} if it is final.
+     */
+    public long onResponse(final String method, final String url, final int statusCode, final int attempt) {
+        final EndpointFamily family = EndpointFamily.forURL(url);
+
+        if (statusCode >= 500) {
+            getCircuitBreaker(family).onFailure();
+        } else {
+            getCircuitBreaker(family).onSuccess();
+        }
+
+        if (!config.getRetryableStatusCodes().contains(statusCode) || !"GET".equals(method)) {
+            return NO_RETRY;
+        }
+        return backoffMillis(family, attempt);
+    }
+
+    /**
+     * Records a request that got no response and returns how long to wait before retrying it, or {@link #NO_RETRY}.
+     */
+    public long onFailure(final String method, final String url, final IOException failure, final int attempt) {
+        final EndpointFamily family = EndpointFamily.forURL(url);
+
+        getCircuitBreaker(family).onFailure();
+
+        final boolean retryable = "GET".equals(method) || (family != EndpointFamily.ORDERS && isUnsent(failure));
+        if (!retryable) {
+            return NO_RETRY;
+        }
+        return backoffMillis(family, attempt);
+    }
+
+    private static boolean isUnsent(final IOException failure) {
+        return failure instanceof ConnectException || failure instanceof ConnectTimeoutException ||
+               failure instanceof ConnectionPoolTimeoutException || failure instanceof UnknownHostException;
+    }
+
+    private long backoffMillis(final EndpointFamily family, final int attempt) {
+        final RetryPolicy retryPolicy = config.getRetryPolicies().getOrDefault(family, config.getDefaultRetryPolicy());
+        if (attempt >= retryPolicy.getMaxAttempts()) {
+            return NO_RETRY;
+        }
+        return retryPolicy.backoffMillis(attempt);
+    }
+
+    public CircuitBreaker getCircuitBreaker(final EndpointFamily family) {
+        return circuitBreakers.get(family);
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.cheddar.http;
+
+import org.apache.commons.lang.math.NumberUtils;
+
+import java.time.DateTimeException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a {@code Retry-After} header, which is either a number of seconds or an HTTP-date.
+ */
+public class RetryAfter {
+
+    private RetryAfter() {
+    }
+
+    /**
+     * Seconds to wait, rounded up; 0 for a missing or unparseable value or a date already past.
+     */
+    public static long toSeconds(final String retryAfter) {
+        return toSeconds(retryAfter, System.currentTimeMillis());
+    }
+
+    static long toSeconds(final String retryAfter, final long nowMillis) {
+        if (retryAfter == null) {
+            return 0;
+        }
+
+        final String value = retryAfter.trim();
+        if (NumberUtils.isDigits(value)) {
+            return NumberUtils.toLong(value, 0);
+        }
+
+        try {
+            final long untilMillis = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, (untilMillis - nowMillis + TimeUnit.SECONDS.toMillis(1) - 1) / TimeUnit.SECONDS.toMillis(1));
+        } catch (final DateTimeException e) {
+            return 0;
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.cheddar.http;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the n-th retry waits a random time between zero and
+ * {@code min(maxBackoffMillis, initialBackoffMillis * multiplier^(n-1))}, which spreads out clients that failed together.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryPolicy {
+    private int maxAttempts = 3;
+    private long initialBackoffMillis = 200;
+    private long maxBackoffMillis = 5000;
+    private double multiplier = 2.0;
+
+    public long backoffMillis(final int failedAttempts) {
+        final double ceiling = Math.min(maxBackoffMillis, initialBackoffMillis * Math.pow(multiplier, failedAttempts - 1));
+        return (long) (ThreadLocalRandom.current().nextDouble() * ceiling);
+    }
+}
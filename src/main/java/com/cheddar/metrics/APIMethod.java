@@ -0,0 +1,23 @@
+package com.cheddar.metrics;
+
+/**
+ * The {@link com.cheddar.robinhood.RobinhoodAPI} calls timed by {@link MetricsRecorder#recordCall}, plus the login
+ * that any of them may trigger.
+ */
+public enum APIMethod {
+    LOGIN,
+    GET_PORTFOLIO,
+    GET_ALL_INSTRUMENTS,
+    GET_INSTRUMENT_FROM_URL,
+    GET_INSTRUMENT_FOR_SYMBOL,
+    GET_MARGIN_BALANCES,
+    GET_POSITIONS,
+    GET_ORDERS_AFTER_DATE,
+    GET_HISTORICAL_VALUES,
+    GET_QUOTES,
+    GET_QUOTE,
+    BUY_SHARES,
+    SELL_SHARES,
+    GET_ORDER_FROM_URL,
+    GET_MARKET_STATE_FOR_DATE
+}
@@ -0,0 +1,175 @@
+package com.cheddar.metrics;
+
+import com.cheddar.http.EndpointFamily;
+
+import java.lang.reflect.Type;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-memory {@link MetricsRecorder}: latency histograms per {@link APIMethod}, per {@link EndpointFamily} and per
+ * parsed type, with status-code, retry and byte counters per family and the latest connection pool sample. Read it
+ * directly or export it to a monitoring system on a timer.
+ */
+public class HistogramMetricsRecorder implements MetricsRecorder {
+
+    private static final int MAX_STATUS_CODE = 600;
+
+    private final Map<APIMethod, LatencyHistogram> callLatencies = new EnumMap<>(APIMethod.class);
+    private final Map<APIMethod, LongAdder> callFailures = new EnumMap<>(APIMethod.class);
+    private final Map<EndpointFamily, FamilyMetrics> familyMetrics = new EnumMap<>(EndpointFamily.class);
+    private final ConcurrentMap<Type, LatencyHistogram> parseLatencies = new ConcurrentHashMap<>();
+
+    private volatile int poolLeased;
+    private volatile int poolPending;
+    private volatile int poolAvailable;
+    private volatile int poolMax;
+
+    public HistogramMetricsRecorder() {
+        for (final APIMethod method : APIMethod.values()) {
+            callLatencies.put(method, new LatencyHistogram());
+            callFailures.put(method, new LongAdder());
+        }
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            familyMetrics.put(family, new FamilyMetrics());
+        }
+    }
+
+    @Override
+    public void recordCall(final APIMethod method, final long nanos, final boolean succeeded) {
+        callLatencies.get(method).record(nanos);
+        if (!succeeded) {
+            callFailures.get(method).increment();
+        }
+    }
+
+    @Override
+    public void recordRequest(final EndpointFamily family, final int statusCode, final long nanos) {
+        final FamilyMetrics metrics = familyMetrics.get(family);
+        metrics.latencies.record(nanos);
+        metrics.statusCounts.incrementAndGet(statusCode >= 0 && statusCode < MAX_STATUS_CODE ? statusCode : 0);
+    }
+
+    @Override
+    public void recordRetry(final EndpointFamily family) {
+        familyMetrics.get(family).retries.increment();
+    }
+
+    @Override
+    public void recordBytesOut(final EndpointFamily family, final long bytes) {
+        familyMetrics.get(family).bytesOut.add(bytes);
+    }
+
+    @Override
+    public void recordBytesIn(final EndpointFamily family, final long bytes) {
+        familyMetrics.get(family).bytesIn.add(bytes);
+    }
+
+    @Override
+    public void recordConnectionPool(final int leased, final int pending, final int available, final int max) {
+        poolLeased = leased;
+        poolPending = pending;
+        poolAvailable = available;
+        poolMax = max;
+    }
+
+    @Override
+    public void recordParse(final Type type, final long nanos) {
+        LatencyHistogram histogram = parseLatencies.get(type);
+        if (histogram == null) {
+            histogram = parseLatencies.computeIfAbsent(type, key -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    public LatencyHistogram getCallLatencies(final APIMethod method) {
+        return callLatencies.get(method);
+    }
+
+    public long getCallFailures(final APIMethod method) {
+        return callFailures.get(method).sum();
+    }
+
+    public LatencyHistogram getRequestLatencies(final EndpointFamily family) {
+        return familyMetrics.get(family).latencies;
+    }
+
+    /**
+     * Responses with {@code statusCode} from {@code family}; status 0 counts requests that got no response.
+     */
+    public long getStatusCount(final EndpointFamily family, final int statusCode) {
+        return familyMetrics.get(family).statusCounts.get(statusCode);
+    }
+
+    public long getRetries(final EndpointFamily family) {
+        return familyMetrics.get(family).retries.sum();
+    }
+
+    public long getBytesOut(final EndpointFamily family) {
+        return familyMetrics.get(family).bytesOut.sum();
+    }
+
+    public long getBytesIn(final EndpointFamily family) {
+        return familyMetrics.get(family).bytesIn.sum();
+    }
+
+    public Map<Type, LatencyHistogram> getParseLatencies() {
+        return parseLatencies;
+    }
+
+    public int getPoolLeased() {
+        return poolLeased;
+    }
+
+    public int getPoolPending() {
+        return poolPending;
+    }
+
+    public int getPoolAvailable() {
+        return poolAvailable;
+    }
+
+    public int getPoolMax() {
+        return poolMax;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder("HistogramMetricsRecorder(");
+        for (final APIMethod method : APIMethod.values()) {
+            final LatencyHistogram histogram = callLatencies.get(method);
+            if (histogram.getCount() > 0) {
+                stringBuilder.append(String.format("%s: %d calls, %d failed, p50 %.1f ms, p99 %.1f ms; ", method, histogram.getCount(),
+                                                   getCallFailures(method), toMillis(histogram.getPercentileNanos(0.5)),
+                                                   toMillis(histogram.getPercentileNanos(0.99))));
+            }
+        }
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            final LatencyHistogram histogram = getRequestLatencies(family);
+            if (histogram.getCount() > 0) {
+                stringBuilder.append(String.format("%s: %d requests, %d retries, %d/%d bytes out/in, p50 %.1f ms, p99 %.1f ms; ", family,
+                                                   histogram.getCount(), getRetries(family), getBytesOut(family), getBytesIn(family),
+                                                   toMillis(histogram.getPercentileNanos(0.5)), toMillis(histogram.getPercentileNanos(0.99))));
+            }
+        }
+        return stringBuilder.append(String.format("pool %d/%d leased, %d pending)", poolLeased, poolMax, poolPending)).toString();
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static class FamilyMetrics {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS_CODE);
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+    }
+
+}
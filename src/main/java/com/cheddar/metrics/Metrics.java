@@ -0,0 +1,41 @@
+package com.cheddar.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the process-wide {@link MetricsRecorder}: the first one found through {@link ServiceLoader}, else
+ * {@link MetricsRecorder#NOOP}, until replaced with {@link #setRecorder}.
+ */
+@Slf4j
+public final class Metrics {
+
+    private static volatile MetricsRecorder recorder = loadRecorder();
+
+    private Metrics() {
+    }
+
+    private static MetricsRecorder loadRecorder() {
+        try {
+            final Iterator<MetricsRecorder> recorders = ServiceLoader.load(MetricsRecorder.class).iterator();
+            if (recorders.hasNext()) {
+                return recorders.next();
+            }
+        } catch (final ServiceConfigurationError e) {
+            log.warn("Unable to load a MetricsRecorder, metrics are disabled.", e);
+        }
+        return MetricsRecorder.NOOP;
+    }
+
+    public static MetricsRecorder getRecorder() {
+        return recorder;
+    }
+
+    public static void setRecorder(final MetricsRecorder newRecorder) {
+        recorder = newRecorder == null ? MetricsRecorder.NOOP : newRecorder;
+    }
+
+}
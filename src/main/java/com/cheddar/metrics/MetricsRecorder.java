@@ -0,0 +1,58 @@
+package com.cheddar.metrics;
+
+import com.cheddar.http.EndpointFamily;
+
+import java.lang.reflect.Type;
+
+/**
+ * Receives measurements from the clients. Every method defaults to doing nothing, so implementations override only
+ * what they collect. The hooks are called on request threads with primitives and enums only, and implementations
+ * must likewise avoid allocating or blocking in them.
+ *
+ * Install one with {@link Metrics#setRecorder}, or list it in {@code META-INF/services/com.cheddar.metrics.MetricsRecorder}.
+ */
+public interface MetricsRecorder {
+
+    MetricsRecorder NOOP = new MetricsRecorder() {};
+
+    /**
+     * One {@link com.cheddar.robinhood.RobinhoodAPI} call end to end, including any login, retries and parsing.
+     */
+    default void recordCall(final APIMethod method, final long nanos, final boolean succeeded) {
+    }
+
+    /**
+     * One HTTP attempt, from sending the request to finishing the body. {@code statusCode} is 0 when no response was
+     * received.
+     */
+    default void recordRequest(final EndpointFamily family, final int statusCode, final long nanos) {
+    }
+
+    default void recordRetry(final EndpointFamily family) {
+    }
+
+    /**
+     * Request body bytes sent.
+     */
+    default void recordBytesOut(final EndpointFamily family, final long bytes) {
+    }
+
+    /**
+     * Response body bytes received, as they came over the wire before decompression.
+     */
+    default void recordBytesIn(final EndpointFamily family, final long bytes) {
+    }
+
+    /**
+     * A periodic sample of the blocking client's connection pool. {@code max} is 0 when the transport has no fixed limit.
+     */
+    default void recordConnectionPool(final int leased, final int pending, final int available, final int max) {
+    }
+
+    /**
+     * Time spent binding JSON to {@code type}.
+     */
+    default void recordParse(final Type type, final long nanos) {
+    }
+
+}
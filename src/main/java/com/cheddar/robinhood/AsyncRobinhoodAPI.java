@@ -0,0 +1,44 @@
+package com.cheddar.robinhood;
+
+import com.cheddar.robinhood.data.*;
+import org.joda.time.DateTime;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking mirror of {@link RobinhoodAPI}. Failures that the blocking API reports with a
+ * {@link com.cheddar.robinhood.exception.RobinhoodException} complete the returned future exceptionally with the
+ * same exception.
+ */
+public interface AsyncRobinhoodAPI {
+
+    CompletableFuture<Portfolio> getPortfolio();
+
+    CompletableFuture<Set<Instrument>> getAllInstruments();
+
+    CompletableFuture<Optional<Instrument>> getInstrumentFromURL(final String instrumentURL);
+
+    CompletableFuture<Optional<Instrument>> getInstrumentForSymbol(final String symbol);
+
+    CompletableFuture<MarginBalances> getMarginBalances();
+
+    CompletableFuture<List<Position>> getPositions();
+
+    CompletableFuture<Collection<Order>> getOrdersAfterDate(final Date date);
+
+    CompletableFuture<List<EquityHistorical>> getHistoricalValues(final String span, final String interval, final String bounds);
+
+    CompletableFuture<List<Quote>> getQuotes(final Collection<String> symbols);
+
+    CompletableFuture<Quote> getQuote(final String symbol);
+
+    CompletableFuture<Order> buyShares(final String symbol, final int shares, final double limit);
+
+    CompletableFuture<Order> sellShares(final String symbol, final int shares, final double limit);
+
+    CompletableFuture<Optional<Order>> getOrderFromURL(final String orderURL);
+
+    CompletableFuture<MarketState> getMarketStateForDate(final DateTime dateTime);
+
+}
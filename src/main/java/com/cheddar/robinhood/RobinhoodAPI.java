@@ -10,7 +10,7 @@ public interface RobinhoodAPI {
 
     Portfolio getPortfolio() throws RobinhoodException;
 
-    Set<Instrument> getAllInstruments();
+    Set<Instrument> getAllInstruments() throws RobinhoodException;
 
     Optional<Instrument> getInstrumentFromURL(final String instrumentURL);
 
@@ -36,4 +36,10 @@ public interface RobinhoodAPI {
 
     MarketState getMarketStateForDate(final DateTime dateTime) throws RobinhoodException;
 
+    /**
+     * As {@link #getMarketStateForDate}, but never answered from a cache; for callers that keep their own copy and
+     * refresh it on a schedule.
+     */
+    MarketState fetchMarketStateForDate(final DateTime dateTime) throws RobinhoodException;
+
 }
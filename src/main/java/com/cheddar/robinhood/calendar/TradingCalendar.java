@@ -0,0 +1,230 @@
+package com.cheddar.robinhood.calendar;
+
+import com.cheddar.robinhood.RobinhoodAPI;
+import com.cheddar.robinhood.client.MarketStateCache;
+import com.cheddar.robinhood.data.MarketState;
+import com.cheddar.robinhood.exception.RobinhoodException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Market hours for a rolling window of days around today, held in memory so that "is the market open at T", "when is
+ * the next open" and "when was the previous close" never wait on the network. The window is fetched concurrently
+ * through {@link RobinhoodAPI#getMarketStateForDate}, extended at both ends by following the edge days'
+ * {@code previous_open_hours} and {@code next_open_hours} links, refreshed periodically and optionally persisted to a
+ * {@link TradingCalendarStore}.
+ *
+ * Questions about times outside the window have no answer rather than a guess.
+ */
+@Slf4j
+public class TradingCalendar implements Closeable {
+
+    public static final DateTimeZone MARKET_ZONE = DateTimeZone.forID("America/New_York");
+
+    private final RobinhoodAPI robinhoodAPI;
+    private final TradingCalendarConfig config;
+    private final Optional<TradingCalendarStore> store;
+    private final Clock clock;
+
+    /**
+     * Market days by {@code yyyy-MM-dd} date, which sorts chronologically.
+     */
+    private final ConcurrentNavigableMap<String, MarketState> days = new ConcurrentSkipListMap<>();
+
+    private final ScheduledExecutorService refreshScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("robinhood-calendar-refresh-%d").build());
+    private final ExecutorService fetchExecutor;
+
+    public TradingCalendar(final RobinhoodAPI robinhoodAPI) {
+        this(robinhoodAPI, new TradingCalendarConfig(), null, Clock.systemUTC());
+    }
+
+    /**
+     * @param store where to persist the window, or null to keep it in memory only
+     */
+    public TradingCalendar(final RobinhoodAPI robinhoodAPI, final TradingCalendarConfig config, final TradingCalendarStore store,
+                           final Clock clock) {
+        this.robinhoodAPI = robinhoodAPI;
+        this.config = config;
+        this.store = Optional.ofNullable(store);
+        this.clock = clock;
+        this.fetchExecutor = Executors.newFixedThreadPool(config.getFetchParallelism(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("robinhood-calendar-fetch-%d").build());
+    }
+
+    /**
+     * Loads any persisted window, then refreshes now and every {@code refreshMillis} in the background.
+     */
+    public void start() {
+        store.ifPresent(calendarStore -> calendarStore.load().forEach((date, robinhoodDay) -> days.put(date, new MarketState(robinhoodDay, clock))));
+        refreshScheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, config.getRefreshMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (final RuntimeException e) {
+            log.warn("Unable to refresh trading calendar because {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fetches the window around today plus the open days linked from its edges, and drops days that fell out of it.
+     * A day that fails to fetch keeps its previous value. Returns the number of days fetched.
+     */
+    public int refresh() {
+        final LocalDate today = new LocalDate(clock.millis(), MARKET_ZONE);
+        final String windowStart = today.minusDays(config.getDaysBack()).toString();
+        final String windowEnd = today.plusDays(config.getDaysAhead()).toString();
+
+        final Map<String, CompletableFuture<Optional<MarketState>>> windowFetches = new TreeMap<>();
+        for (int offset = -config.getDaysBack(); offset <= config.getDaysAhead(); ++offset) {
+            final LocalDate date = today.plusDays(offset);
+            windowFetches.put(date.toString(), fetch(date));
+        }
+        final NavigableMap<String, MarketState> fetched = join(windowFetches);
+
+        // The edge days link to the nearest open days beyond the window, which may be further out than daysAhead. An
+        // edge day that failed to fetch still has its links in its previous value.
+        final Optional<LocalDate> previousOpen = edgeDay(fetched, windowStart).flatMap(day -> linkedDate(day, "previous_open_hours"));
+        final Optional<LocalDate> nextOpen = edgeDay(fetched, windowEnd).flatMap(day -> linkedDate(day, "next_open_hours"));
+
+        final Map<String, CompletableFuture<Optional<MarketState>>> edgeFetches = new TreeMap<>();
+        previousOpen.ifPresent(date -> edgeFetches.put(date.toString(), fetch(date)));
+        nextOpen.ifPresent(date -> edgeFetches.put(date.toString(), fetch(date)));
+        edgeFetches.keySet().removeAll(windowFetches.keySet());
+        fetched.putAll(join(edgeFetches));
+
+        if (fetched.isEmpty()) {
+            return 0;
+        }
+
+        days.putAll(fetched);
+
+        // Trim to the intended window, not to whatever happened to fetch, so failed edge days keep their old values.
+        final String firstKept = previousOpen.map(LocalDate::toString).filter(date -> date.compareTo(windowStart) < 0).orElse(windowStart);
+        final String lastKept = nextOpen.map(LocalDate::toString).filter(date -> date.compareTo(windowEnd) > 0).orElse(windowEnd);
+        days.headMap(firstKept).clear();
+        days.tailMap(lastKept, false).clear();
+
+        store.ifPresent(this::save);
+        return fetched.size();
+    }
+
+    private Optional<MarketState> edgeDay(final Map<String, MarketState> fetched, final String date) {
+        final MarketState fetchedDay = fetched.get(date);
+        return Optional.ofNullable(fetchedDay != null ? fetchedDay : days.get(date));
+    }
+
+    /**
+     * Bypasses any cache in {@code robinhoodAPI}, whose entries could otherwise outlive {@code refreshMillis}.
+     */
+    private CompletableFuture<Optional<MarketState>> fetch(final LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return Optional.of(robinhoodAPI.fetchMarketStateForDate(date.toDateTimeAtStartOfDay(MARKET_ZONE)));
+            } catch (final RobinhoodException | RuntimeException e) {
+                log.warn("Unable to get market hours for {} because {}", date, e.getMessage());
+                return Optional.empty();
+            }
+        }, fetchExecutor);
+    }
+
+    private static NavigableMap<String, MarketState> join(final Map<String, CompletableFuture<Optional<MarketState>>> fetches) {
+        final NavigableMap<String, MarketState> fetched = new TreeMap<>();
+        fetches.forEach((date, fetch) -> fetch.join().ifPresent(marketState -> fetched.put(date, marketState)));
+        return fetched;
+    }
+
+    /**
+     * The date at the end of a {@code .../markets/XNAS/hours/yyyy-MM-dd/} link.
+     */
+    static Optional<LocalDate> linkedDate(final MarketState marketState, final String linkField) {
+        final String link = marketState.getRobinhoodDay().get(linkField);
+        if (link == null) {
+            return Optional.empty();
+        }
+
+        final String[] segments = link.split("/");
+        try {
+            return Optional.of(LocalDate.parse(segments[segments.length - 1]));
+        } catch (final IllegalArgumentException e) {
+            log.warn("Ignoring unrecognised {} link {}", linkField, link);
+            return Optional.empty();
+        }
+    }
+
+    private void save(final TradingCalendarStore calendarStore) {
+        final Map<String, Map<String, String>> rawDays = new TreeMap<>();
+        days.forEach((date, marketState) -> rawDays.put(date, marketState.getRobinhoodDay()));
+        try {
+            calendarStore.save(rawDays);
+        } catch (final IOException e) {
+            log.warn("Unable to save trading calendar to {} because {}", calendarStore.getCalendarPath(), e.getMessage(), e);
+        }
+    }
+
+    private static String dateOf(final long epochMillis) {
+        return MarketStateCache.toDateString(new DateTime(epochMillis, MARKET_ZONE));
+    }
+
+    public Optional<MarketState> getMarketState(final long epochMillis) {
+        return Optional.ofNullable(days.get(dateOf(epochMillis)));
+    }
+
+    /**
+     * Whether {@code epochMillis} falls in the extended session of a known day; false if the day is not in the window.
+     */
+    public boolean isOpenAt(final long epochMillis) {
+        final MarketState marketState = days.get(dateOf(epochMillis));
+        return marketState != null && marketState.isOpenAt(epochMillis);
+    }
+
+    public boolean isOpenNow() {
+        return isOpenAt(clock.millis());
+    }
+
+    /**
+     * The first regular-session open after {@code epochMillis}, if the window reaches that far.
+     */
+    public OptionalLong getNextOpenMillis(final long epochMillis) {
+        for (final MarketState marketState : days.tailMap(dateOf(epochMillis), true).values()) {
+            if (marketState.getOpensAtMillis() != MarketState.NO_TIME && marketState.getOpensAtMillis() > epochMillis) {
+                return OptionalLong.of(marketState.getOpensAtMillis());
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * The last regular-session close before {@code epochMillis}, if the window reaches that far back.
+     */
+    public OptionalLong getPreviousCloseMillis(final long epochMillis) {
+        for (final MarketState marketState : days.headMap(dateOf(epochMillis), true).descendingMap().values()) {
+            if (marketState.getClosesAtMillis() != MarketState.NO_TIME && marketState.getClosesAtMillis() < epochMillis) {
+                return OptionalLong.of(marketState.getClosesAtMillis());
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    public int size() {
+        return days.size();
+    }
+
+    @Override
+    public void close() {
+        refreshScheduler.shutdownNow();
+        fetchExecutor.shutdownNow();
+    }
+
+}
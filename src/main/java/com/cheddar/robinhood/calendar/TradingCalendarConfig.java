@@ -0,0 +1,14 @@
+package com.cheddar.robinhood.calendar;
+
+import lombok.Data;
+
+/**
+ * The rolling window of market days kept by {@link TradingCalendar}, relative to the current market date.
+ */
+@Data
+public class TradingCalendarConfig {
+    private int daysBack = 7;
+    private int daysAhead = 30;
+    private int fetchParallelism = 4;
+    private long refreshMillis = 6 * 60 * 60 * 1000;
+}
@@ -0,0 +1,90 @@
+package com.cheddar.robinhood.calendar;
+
+import com.cheddar.util.SnapshotFileUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persists the raw market hours of a {@link TradingCalendar} window, keyed by {@code yyyy-MM-dd} date, so a restart
+ * can answer calendar questions before the first refresh completes.
+ *
+ * Layout: magic, format version, creation time, day count, then per day its date and its field/value pairs.
+ */
+@Slf4j
+public class TradingCalendarStore {
+
+    private static final int MAGIC = 0x52485443; // "RHTC"
+    static final int FORMAT_VERSION = 1;
+
+    @Getter
+    private final Path calendarPath;
+
+    public TradingCalendarStore(final Path calendarPath) {
+        this.calendarPath = calendarPath;
+    }
+
+    /**
+     * The stored days by date, or an empty map if there is no usable file.
+     */
+    public Map<String, Map<String, String>> load() {
+        final Map<String, Map<String, String>> days = new TreeMap<>();
+        if (!Files.isReadable(calendarPath)) {
+            return days;
+        }
+
+        try (final DataInputStream in = SnapshotFileUtil.openSnapshot(calendarPath)) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                log.warn("Ignoring trading calendar {} with unknown format or version.", calendarPath);
+                return days;
+            }
+
+            in.readLong();
+            final int dayCount = in.readInt();
+            for (int i = 0; i < dayCount; ++i) {
+                final String date = in.readUTF();
+                final int fieldCount = in.readInt();
+
+                final Map<String, String> robinhoodDay = new HashMap<>();
+                for (int j = 0; j < fieldCount; ++j) {
+                    robinhoodDay.put(in.readUTF(), SnapshotFileUtil.readNullableString(in));
+                }
+                days.put(date, robinhoodDay);
+            }
+
+            log.info("Loaded {} market days from {}.", days.size(), calendarPath);
+        } catch (final IOException e) {
+            log.warn("Unable to read trading calendar {} because {}", calendarPath, e.getMessage(), e);
+            days.clear();
+        }
+        return days;
+    }
+
+    /**
+     * Replaces the stored days in one step, so readers never see a partially written file.
+     */
+    public void save(final Map<String, Map<String, String>> days) throws IOException {
+        SnapshotFileUtil.saveSnapshot(calendarPath, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(days.size());
+
+            for (final Map.Entry<String, Map<String, String>> day : days.entrySet()) {
+                out.writeUTF(day.getKey());
+                out.writeInt(day.getValue().size());
+                for (final Map.Entry<String, String> field : day.getValue().entrySet()) {
+                    out.writeUTF(field.getKey());
+                    SnapshotFileUtil.writeNullableString(out, field.getValue());
+                }
+            }
+        });
+    }
+
+}
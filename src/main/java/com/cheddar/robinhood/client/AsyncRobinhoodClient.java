@@ -0,0 +1,332 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.http.AsyncHTTPClient;
+import com.cheddar.http.HTTPClientConfig;
+import com.cheddar.http.HTTPQuery;
+import com.cheddar.http.HTTPResult;
+import com.cheddar.robinhood.AsyncRobinhoodAPI;
+import com.cheddar.robinhood.data.*;
+import com.cheddar.robinhood.exception.RobinhoodException;
+import com.cheddar.util.TimeUtil;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.joda.time.DateTime;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link AsyncRobinhoodAPI} backed by the non-blocking {@link AsyncHTTPClient}. Login and session state are shared
+ * with the given {@link RobinhoodClient}; responses are decoded on the caller-supplied executor so the I/O reactor
+ * threads are never used for parsing.
+ */
+@Slf4j
+public class AsyncRobinhoodClient implements AsyncRobinhoodAPI, Closeable {
+
+    private final RobinhoodClient robinhoodClient;
+    private final AsyncHTTPClient httpClient;
+    private final Executor executor;
+
+    public AsyncRobinhoodClient(final RobinhoodClient robinhoodClient, final Executor executor) {
+        this(robinhoodClient, new AsyncHTTPClient(new HTTPClientConfig(),
+                                                  robinhoodClient.getHttpClient().getRateLimiter(),
+                                                  robinhoodClient.getHttpClient().getResiliencePolicy()), executor);
+    }
+
+    public AsyncRobinhoodClient(final RobinhoodClient robinhoodClient, final AsyncHTTPClient httpClient, final Executor executor) {
+        this.robinhoodClient = robinhoodClient;
+        this.httpClient = httpClient;
+        this.executor = executor;
+    }
+
+    private String endpoint(final String name) {
+        return robinhoodClient.getSession().getEndpoint(name);
+    }
+
+    private HTTPQuery query(final String url, final Map<String, String> params) {
+        return new HTTPQuery(url, params, robinhoodClient.getSession().getHeaders());
+    }
+
+    private CompletableFuture<Void> verifyLoginStatus() {
+        if (robinhoodClient.isLoggedIn()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                robinhoodClient.verifyLoginStatus();
+            } catch (final RobinhoodException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private <T> CompletableFuture<T> afterLogin(final Supplier<CompletableFuture<T>> call) {
+        return verifyLoginStatus().thenCompose(ignored -> call.get());
+    }
+
+    /**
+     * Decodes a response to a request made with the current session. If Robinhood rejected the session's token, the
+     * session is dropped so that the next call logs in again, as in {@link RobinhoodClient#parseWithSession}.
+     */
+    private <T> CompletableFuture<T> decode(final CompletableFuture<HTTPResult> response, final ResponseParser.Parser<T> parser) {
+        return decode(robinhoodClient.getSession(), response, parser);
+    }
+
+    private <T> CompletableFuture<T> decode(final RobinhoodSession requestSession, final CompletableFuture<HTTPResult> response,
+                                            final ResponseParser.Parser<T> parser) {
+        return response.handleAsync((httpResult, throwable) -> {
+            if (throwable != null) {
+                throw new CompletionException(new RobinhoodException("Bad response from Robinhood.", throwable));
+            }
+            try {
+                return robinhoodClient.parseWithSession(requestSession, httpResult, parser);
+            } catch (final RobinhoodException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private <T> CompletableFuture<Optional<T>> decodeOptional(final CompletableFuture<HTTPResult> response,
+                                                              final Function<HTTPResult, Optional<T>> parser) {
+        return response.handleAsync((httpResult, throwable) -> {
+            if (throwable != null) {
+                return Optional.<T>empty();
+            }
+            return parser.apply(httpResult);
+        }, executor);
+    }
+
+    /**
+     * Collects every page on the non-blocking client, requesting the next page once the current one is decoded on
+     * {@code executor}; no thread is held while a page is in flight. A throttled page is asked for again, and the
+     * shared rate limiter holds it back for its {@code Retry-After} delay. A page that fails completes the future
+     * exceptionally with the typed exception for its status rather than with the records read so far.
+     */
+    private <T> CompletableFuture<List<T>> scrapePaginatedAPI(final String url, final Map<String, String> parameters,
+                                                              final Class<T> valueType) {
+        final RobinhoodSession session = robinhoodClient.getSession();
+        final List<T> records = new ArrayList<>();
+
+        return scrapePage(session, url, parameters, valueType, records).thenApply(ignored -> records);
+    }
+
+    // Pages are decoded one after another, so only one stage touches records at a time.
+    private <T> CompletableFuture<Void> scrapePage(final RobinhoodSession session, final String url, final Map<String, String> parameters,
+                                                   final Class<T> valueType, final List<T> records) {
+        final CompletableFuture<HTTPResult> response = httpClient.executeHTTPGetRequest(new HTTPQuery(url, parameters, session.getHeaders()));
+        // A throttled page decodes to null: it is asked for again rather than failed.
+        return decode(session, response, httpResult -> httpResult.getStatusCode() == 429 ? null : ResponseParser.parseResultsPage(httpResult, valueType))
+                .thenCompose(page -> {
+                    if (page == null) {
+                        log.info("Throttled while scraping {}, asking again once the rate limiter allows.", url);
+                        return scrapePage(session, url, parameters, valueType, records);
+                    }
+
+                    records.addAll(page.getResults());
+                    if (page.getNext() == null || "null".equalsIgnoreCase(page.getNext())) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return scrapePage(session, page.getNext(), parameters, valueType, records);
+                });
+    }
+
+    private CompletableFuture<Order> placeLimitOrder(final String symbol, final int shares, final OrderSide side, final double limit) {
+        final RobinhoodSession session = robinhoodClient.getSession();
+        final Optional<OrderTemplate> cached = robinhoodClient.getOrderTemplateIfPresent(session, symbol);
+        if (cached.isPresent()) {
+            return submitLimitOrder(cached.get(), shares, side, limit);
+        }
+
+        return getInstrumentForSymbol(symbol).thenCompose(instrumentOptional -> {
+            if (!instrumentOptional.isPresent()) {
+                final CompletableFuture<Order> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new RobinhoodException(String.format("Unable to determine instrument for symbol %s", symbol)));
+                return failed;
+            }
+
+            return submitLimitOrder(robinhoodClient.cacheOrderTemplate(session, instrumentOptional.get(), symbol), shares, side, limit);
+        });
+    }
+
+    private CompletableFuture<Order> submitLimitOrder(final OrderTemplate template, final int shares, final OrderSide side, final double limit) {
+        final byte[] formBody;
+        try {
+            formBody = RobinhoodClient.encodeOrder(template, side, shares, limit);
+        } catch (final RobinhoodException e) {
+            final CompletableFuture<Order> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+
+        final HTTPQuery httpQuery = HTTPQuery.withFormBody(endpoint("orders"), formBody, robinhoodClient.getSession().getHeaders());
+        return decode(httpClient.executeHTTPPostRequest(httpQuery),
+                      httpResult -> ResponseParser.parsePlacedOrder(httpResult, template.getSymbol(), side));
+    }
+
+    @Override
+    public CompletableFuture<Portfolio> getPortfolio() {
+        return afterLogin(() -> decode(httpClient.executeHTTPGetRequest(query(endpoint("portfolio"), ImmutableMap.of())),
+                                       ResponseParser::parsePortfolio));
+    }
+
+    @Override
+    public CompletableFuture<Set<Instrument>> getAllInstruments() {
+        return scrapePaginatedAPI(endpoint("instruments"), ImmutableMap.of(), Instrument.class)
+                .thenApply(instruments -> {
+                    robinhoodClient.getInstrumentCache().putAll(instruments);
+                    return new HashSet<>(instruments);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Instrument>> getInstrumentFromURL(final String instrumentURL) {
+        final InstrumentCache instrumentCache = robinhoodClient.getInstrumentCache();
+
+        final Optional<Instrument> cached = instrumentCache.getIfPresentForURL(instrumentURL);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return decodeOptional(httpClient.executeHTTPGetRequest(query(instrumentURL, ImmutableMap.of())),
+                              ResponseParser::parseInstrument).thenApply(instrument -> {
+                                  instrument.ifPresent(instrumentCache::put);
+                                  return instrument;
+                              });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Instrument>> getInstrumentForSymbol(final String symbol) {
+        final InstrumentCache instrumentCache = robinhoodClient.getInstrumentCache();
+
+        final Optional<Instrument> cached = instrumentCache.getIfPresentForSymbol(symbol);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return decodeOptional(httpClient.executeHTTPGetRequest(query(endpoint("instruments"), ImmutableMap.of("symbol", symbol))),
+                              ResponseParser::parseFirstInstrument).thenApply(instrument -> {
+                                  instrument.ifPresent(instrumentCache::put);
+                                  return instrument;
+                              });
+    }
+
+    @Override
+    public CompletableFuture<MarginBalances> getMarginBalances() {
+        return afterLogin(() -> decode(httpClient.executeHTTPGetRequest(query(endpoint("account"), ImmutableMap.of())),
+                                       ResponseParser::parseMarginBalances));
+    }
+
+    @Override
+    public CompletableFuture<List<Position>> getPositions() {
+        return afterLogin(() -> scrapePaginatedAPI(endpoint("positions"), ImmutableMap.of(), Position.class))
+                .thenApply(positions -> {
+                    positions.removeIf(position -> !ResponseParser.isOpenPosition(position));
+                    return positions;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Collection<Order>> getOrdersAfterDate(final Date date) {
+        final String dateStr = TimeUtil.createUTCStrFromDate(date, "yyyy-MM-dd'T'HH:mm:ss.000000'Z'");
+
+        return afterLogin(() -> scrapePaginatedAPI(endpoint("orders"), ImmutableMap.of("updated_at[gte]", dateStr), Order.class))
+                .thenApply(HashSet::new);
+    }
+
+    @Override
+    public CompletableFuture<List<EquityHistorical>> getHistoricalValues(final String span, final String interval, final String bounds) {
+        final Map<String, String> params = ImmutableMap.of("span", span, "interval", interval, "bounds", bounds);
+
+        return afterLogin(() -> decode(httpClient.executeHTTPGetRequest(query(endpoint("portfolios_historicals"), params)),
+                                       ResponseParser::parseHistoricalValues));
+    }
+
+    @Override
+    public CompletableFuture<List<Quote>> getQuotes(final Collection<String> symbols) {
+        if (CollectionUtils.isEmpty(symbols)) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        return getQuoteBatch(symbols).thenApply(quoteBatch -> {
+            if (quoteBatch.getFailedChunks() == quoteBatch.getTotalChunks()) {
+                throw new CompletionException(new RobinhoodException("Bad response from Robinhood."));
+            }
+            return quoteBatch.getQuotes();
+        });
+    }
+
+    /**
+     * Asynchronous counterpart of {@link RobinhoodClient#getQuoteBatch(Collection)}. All chunks are in flight at once;
+     * the connection pool bounds how many reach the network concurrently.
+     */
+    public CompletableFuture<QuoteBatch> getQuoteBatch(final Collection<String> symbols) {
+        final QuoteBatchAccumulator accumulator = new QuoteBatchAccumulator(symbols, robinhoodClient.getQuoteChunkSize());
+
+        final CompletableFuture<?>[] chunkFutures = accumulator.getChunks().stream().map(chunk -> {
+            final Map<String, String> params = ImmutableMap.of("symbols", Joiner.on(',').join(chunk));
+
+            return decode(httpClient.executeHTTPGetRequest(query(endpoint("quotes"), params)), ResponseParser::parseQuotes)
+                    .handle((quotes, throwable) -> {
+                        if (throwable != null) {
+                            accumulator.addFailure(chunk);
+                        } else {
+                            accumulator.addQuotes(chunk, quotes);
+                        }
+                        return null;
+                    });
+        }).toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(chunkFutures).thenApply(ignored -> accumulator.toQuoteBatch());
+    }
+
+    @Override
+    public CompletableFuture<Quote> getQuote(final String symbol) {
+        return decode(httpClient.executeHTTPGetRequest(query(endpoint("quotes"), ImmutableMap.of("symbols", symbol))),
+                      ResponseParser::parseQuote);
+    }
+
+    @Override
+    public CompletableFuture<Order> buyShares(final String symbol, final int shares, final double limit) {
+        return afterLogin(() -> placeLimitOrder(symbol, shares, OrderSide.BUY, limit));
+    }
+
+    @Override
+    public CompletableFuture<Order> sellShares(final String symbol, final int shares, final double limit) {
+        return afterLogin(() -> placeLimitOrder(symbol, shares, OrderSide.SELL, limit));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Order>> getOrderFromURL(final String orderURL) {
+        return decodeOptional(httpClient.executeHTTPGetRequest(query(orderURL, ImmutableMap.of())), ResponseParser::parseOrder);
+    }
+
+    @Override
+    public CompletableFuture<MarketState> getMarketStateForDate(final DateTime dateTime) {
+        final String dateString = MarketStateCache.toDateString(dateTime);
+        final MarketStateCache marketStateCache = robinhoodClient.getMarketStateCache();
+        final Optional<MarketState> cachedMarketState = marketStateCache.get(dateString);
+        if (cachedMarketState.isPresent()) {
+            return CompletableFuture.completedFuture(cachedMarketState.get());
+        }
+
+        final String url = String.format("%s%s%s", endpoint("markets"), "XNAS/hours/", dateString);
+
+        return decode(httpClient.executeHTTPGetRequest(query(url, ImmutableMap.of())), ResponseParser::parseMarketState)
+                .thenApply(marketState -> {
+                    marketStateCache.put(dateString, marketState);
+                    return marketState;
+                });
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Instrument;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Instruments indexed both by symbol and by URL. Instruments rarely change, so entries live for a long TTL and the
+ * cache can be warmed in bulk from {@link RobinhoodClient#getAllInstruments()}.
+ */
+public class InstrumentCache {
+
+    private final Cache<String, Instrument> instrumentsBySymbol;
+    private final Cache<String, Instrument> instrumentsByURL;
+
+    public InstrumentCache() {
+        this(12, TimeUnit.HOURS, 50000);
+    }
+
+    public InstrumentCache(final long timeToLive, final TimeUnit timeUnit, final long maximumSize) {
+        this.instrumentsBySymbol = CacheBuilder.newBuilder()
+                                               .expireAfterWrite(timeToLive, timeUnit)
+                                               .maximumSize(maximumSize)
+                                               .recordStats()
+                                               .build();
+        this.instrumentsByURL = CacheBuilder.newBuilder()
+                                            .expireAfterWrite(timeToLive, timeUnit)
+                                            .maximumSize(maximumSize)
+                                            .recordStats()
+                                            .build();
+    }
+
+    /**
+     * Symbols are case-insensitive; every per-symbol cache in the client keys on this form.
+     */
+    static String symbolKey(final String symbol) {
+        return symbol.toUpperCase(Locale.ENGLISH);
+    }
+
+    public Optional<Instrument> getForSymbol(final String symbol, final Function<String, Optional<Instrument>> loader) {
+        final Instrument cached = instrumentsBySymbol.getIfPresent(symbolKey(symbol));
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        final Optional<Instrument> loaded = loader.apply(symbol);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    public Optional<Instrument> getForURL(final String instrumentURL, final Function<String, Optional<Instrument>> loader) {
+        final Instrument cached = instrumentsByURL.getIfPresent(instrumentURL);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        final Optional<Instrument> loaded = loader.apply(instrumentURL);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    public Optional<Instrument> getIfPresentForSymbol(final String symbol) {
+        return Optional.ofNullable(instrumentsBySymbol.getIfPresent(symbolKey(symbol)));
+    }
+
+    public Optional<Instrument> getIfPresentForURL(final String instrumentURL) {
+        return Optional.ofNullable(instrumentsByURL.getIfPresent(instrumentURL));
+    }
+
+    public void put(final Instrument instrument) {
+        if (!StringUtils.isEmpty(instrument.getSymbol())) {
+            instrumentsBySymbol.put(symbolKey(instrument.getSymbol()), instrument);
+        }
+        if (!StringUtils.isEmpty(instrument.getUrl())) {
+            instrumentsByURL.put(instrument.getUrl(), instrument);
+        }
+    }
+
+    public void putAll(final Collection<Instrument> instruments) {
+        instruments.forEach(this::put);
+    }
+
+    public void invalidateAll() {
+        instrumentsBySymbol.invalidateAll();
+        instrumentsByURL.invalidateAll();
+    }
+
+    public long size() {
+        return instrumentsByURL.size();
+    }
+
+    public CacheStats getSymbolStats() {
+        return instrumentsBySymbol.stats();
+    }
+
+    public CacheStats getURLStats() {
+        return instrumentsByURL.stats();
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Instrument;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The instrument universe as of {@code createdAtMillis}, as read back from an {@link InstrumentSnapshotStore}.
+ */
+@Data
+@AllArgsConstructor
+public class InstrumentSnapshot {
+    private final int version;
+    private final long createdAtMillis;
+    private final List<Instrument> instruments;
+
+    public long getAgeMillis() {
+        return System.currentTimeMillis() - createdAtMillis;
+    }
+}
@@ -0,0 +1,131 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Instrument;
+import com.cheddar.util.SnapshotFileUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persists instruments to a compact, versioned binary file so a cold start can warm the {@link InstrumentCache}
+ * without scraping the whole universe over HTTP.
+ *
+ * Layout: magic, format version, creation time, record count, then one length-prefixed record per instrument. A record
+ * whose fields do not exactly fill its length is corrupt and fails the whole load. Files with an unknown magic or
+ * version are ignored rather than misread.
+ */
+@Slf4j
+public class InstrumentSnapshotStore {
+
+    private static final int MAGIC = 0x52484953; // "RHIS"
+    // Version 1 wrote records without their length.
+    static final int FORMAT_VERSION = 2;
+
+    @Getter
+    private final Path snapshotPath;
+
+    public InstrumentSnapshotStore(final Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    public Optional<InstrumentSnapshot> load() {
+        if (!Files.isReadable(snapshotPath)) {
+            return Optional.empty();
+        }
+
+        try (final DataInputStream in = SnapshotFileUtil.openSnapshot(snapshotPath)) {
+            if (in.readInt() != MAGIC) {
+                log.warn("Ignoring instrument snapshot {} with unknown format.", snapshotPath);
+                return Optional.empty();
+            }
+
+            final int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                log.warn("Ignoring instrument snapshot {} with unsupported version {}.", snapshotPath, version);
+                return Optional.empty();
+            }
+
+            final long createdAtMillis = in.readLong();
+            final int count = in.readInt();
+
+            final List<Instrument> instruments = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                instruments.add(readRecord(in));
+            }
+
+            log.info("Loaded {} instruments from snapshot {}.", instruments.size(), snapshotPath);
+
+            return Optional.of(new InstrumentSnapshot(version, createdAtMillis, instruments));
+        } catch (final IOException e) {
+            log.warn("Unable to read instrument snapshot {} because {}", snapshotPath, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replaces the snapshot in one step, so readers never see a partially written one.
+     */
+    public void save(final Collection<Instrument> instruments) throws IOException {
+        SnapshotFileUtil.saveSnapshot(snapshotPath, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(instruments.size());
+
+            final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+            final DataOutputStream recordOut = new DataOutputStream(record);
+            for (final Instrument instrument : instruments) {
+                record.reset();
+                writeInstrument(recordOut, instrument);
+                out.writeInt(record.size());
+                record.writeTo(out);
+            }
+        });
+
+        log.info("Saved {} instruments to snapshot {}.", instruments.size(), snapshotPath);
+    }
+
+    private static Instrument readRecord(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt instrument record length " + length);
+        }
+
+        final byte[] record = new byte[length];
+        in.readFully(record);
+
+        final ByteArrayInputStream recordBytes = new ByteArrayInputStream(record);
+        final Instrument instrument = readInstrument(new DataInputStream(recordBytes));
+        if (recordBytes.available() != 0) {
+            throw new IOException(String.format("Corrupt instrument record: %d of %d bytes unread", recordBytes.available(), length));
+        }
+        return instrument;
+    }
+
+    private static void writeInstrument(final DataOutputStream out, final Instrument instrument) throws IOException {
+        SnapshotFileUtil.writeNullableString(out, instrument.getUrl());
+        SnapshotFileUtil.writeNullableString(out, instrument.getSymbol());
+        SnapshotFileUtil.writeNullableString(out, instrument.getName());
+        out.writeFloat(instrument.getDay_trade_ratio());
+        out.writeBoolean(instrument.isTradeable());
+        out.writeFloat(instrument.getMin_tick_size());
+    }
+
+    private static Instrument readInstrument(final DataInputStream in) throws IOException {
+        final String url = SnapshotFileUtil.readNullableString(in);
+        final String symbol = SnapshotFileUtil.readNullableString(in);
+        final String name = SnapshotFileUtil.readNullableString(in);
+        final float dayTradeRatio = in.readFloat();
+        final boolean tradeable = in.readBoolean();
+        final float minTickSize = in.readFloat();
+        return new Instrument(url, symbol, name, dayTradeRatio, tradeable, minTickSize);
+    }
+
+}
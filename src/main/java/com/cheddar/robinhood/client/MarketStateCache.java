@@ -0,0 +1,56 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.MarketState;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Market hours by trading date ({@code yyyy-MM-dd}), so repeated lookups for a day need no request. Hours for a date
+ * are fixed well in advance, but entries still expire so that a rare schedule change is eventually picked up.
+ */
+public class MarketStateCache {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormat.forPattern("yyyy-MM-dd");
+
+    private final Cache<String, MarketState> marketStatesByDate;
+
+    public MarketStateCache() {
+        this(12, TimeUnit.HOURS, 1000);
+    }
+
+    public MarketStateCache(final long timeToLive, final TimeUnit timeUnit, final long maximumSize) {
+        this.marketStatesByDate = CacheBuilder.newBuilder()
+                                              .expireAfterWrite(timeToLive, timeUnit)
+                                              .maximumSize(maximumSize)
+                                              .recordStats()
+                                              .build();
+    }
+
+    public static String toDateString(final DateTime dateTime) {
+        return DATE_FORMATTER.print(dateTime);
+    }
+
+    public Optional<MarketState> get(final String date) {
+        return Optional.ofNullable(marketStatesByDate.getIfPresent(date));
+    }
+
+    public void put(final String date, final MarketState marketState) {
+        marketStatesByDate.put(date, marketState);
+    }
+
+    public void invalidateAll() {
+        marketStatesByDate.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return marketStatesByDate.stats();
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.cheddar.robinhood.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Where a paginated scrape goes after one page: the {@code next} URL (null on the last page), or a
+ * {@code Retry-After} delay when the page was throttled and its body was left unread.
+ */
+@Data
+@AllArgsConstructor
+class PageCursor {
+    private final String next;
+    private final int retryAfterSeconds;
+}
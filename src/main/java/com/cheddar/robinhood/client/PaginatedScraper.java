@@ -0,0 +1,265 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.http.HTTPClient;
+import com.cheddar.http.HTTPQuery;
+import com.cheddar.http.RetryAfter;
+import com.cheddar.util.JSONUtil;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a paginated Robinhood listing and hands records to the caller as each page is decoded.
+ *
+ * Pages are fetched on a background pool. The request for the next page is issued as soon as its cursor has been read,
+ * so its network round trip overlaps with decoding of the current page. Decoded records pass through a bounded queue,
+ * so a slow consumer holds back decoding instead of letting pages pile up in memory. Page requests go through the
+ * {@link HTTPClient}'s rate limiter, so throttled pages are rescheduled after their {@code Retry-After} delay without
+ * holding a thread.
+ */
+@Slf4j
+public class PaginatedScraper implements Closeable {
+
+    private static final Object END_OF_PAGES = new Object();
+    private static final long OFFER_POLL_MILLIS = 100;
+
+    private final HTTPClient httpClient;
+    private final int bufferedRecords;
+    private final Consumer<ScrapeProgress> progressListener;
+
+    private final ExecutorService pageExecutor =
+            Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("robinhood-scraper-%d").build());
+
+    public PaginatedScraper(final HTTPClient httpClient) {
+        this(httpClient, 1024, progress -> log.info("Scraping {}", progress));
+    }
+
+    public PaginatedScraper(final HTTPClient httpClient, final int bufferedRecords, final Consumer<ScrapeProgress> progressListener) {
+        this.httpClient = httpClient;
+        this.bufferedRecords = bufferedRecords;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Scrapes every page starting at {@code url}, calling {@code consumer} on the calling thread for each record.
+     * Returns once the last page has been consumed, or a page could not be fetched; check
+     * {@link ScrapeProgress#isFailed()} before treating what was consumed as the whole listing.
+     */
+    public <T> ScrapeProgress scrape(final String url, final Map<String, String> parameters, final Map<String, String> headers,
+                                     final Class<T> valueType, final Consumer<T> consumer) {
+        final ScrapeJob<T> job = start(url, parameters, headers, valueType);
+
+        Object record;
+        while ((record = job.take()) != END_OF_PAGES) {
+            consumer.accept(valueType.cast(record));
+        }
+
+        return job.progress;
+    }
+
+    /**
+     * Lazily scrapes every page starting at {@code url}. Closing the stream before it is exhausted stops the scrape.
+     */
+    public <T> Stream<T> stream(final String url, final Map<String, String> parameters, final Map<String, String> headers,
+                                final Class<T> valueType) {
+        final ScrapeJob<T> job = start(url, parameters, headers, valueType);
+
+        final Spliterator<T> spliterator =
+                new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                    private boolean exhausted = false;
+
+                    @Override
+                    public boolean tryAdvance(final Consumer<? super T> action) {
+                        if (exhausted) {
+                            return false;
+                        }
+                        final Object record = job.take();
+                        if (record == END_OF_PAGES) {
+                            exhausted = true;
+                            return false;
+                        }
+                        action.accept(valueType.cast(record));
+                        return true;
+                    }
+                };
+
+        return StreamSupport.stream(spliterator, false).onClose(job::cancel);
+    }
+
+    private <T> ScrapeJob<T> start(final String url, final Map<String, String> parameters, final Map<String, String> headers,
+                                   final Class<T> valueType) {
+        final ScrapeJob<T> job = new ScrapeJob<>(url, parameters, headers, valueType);
+        fetchPage(job, url, CompletableFuture.completedFuture(null));
+        return job;
+    }
+
+    private <T> void fetchPage(final ScrapeJob<T> job, final String url, final CompletableFuture<Void> previousPageDecoded) {
+        final CompletableFuture<Void> pageDecoded = new CompletableFuture<>();
+        final AtomicBoolean nextPageStarted = new AtomicBoolean(false);
+
+        final CompletableFuture<Optional<PageCursor>> pageFetched =
+                httpClient.submitHTTPGetRequest(new HTTPQuery(url, job.parameters, job.headers), (statusCode, responseHeaders, body) -> {
+                    final long retryAfterSeconds = RetryAfter.toSeconds(responseHeaders.get("Retry-After"));
+                    if (retryAfterSeconds > 0 || statusCode == 429) {
+                        return new PageCursor(null, (int) Math.min(Math.max(retryAfterSeconds, 1), Integer.MAX_VALUE));
+                    }
+                    if (statusCode < 200 || statusCode >= 300) {
+                        log.warn("Got status {} while scraping {}", statusCode, url);
+                        job.progress.pageRejected(statusCode);
+                        return null;
+                    }
+
+                    // Hand records over strictly in page order. The response stays unread on the socket
+                    // until then, which also keeps memory bounded to the page currently being decoded.
+                    previousPageDecoded.join();
+                    if (job.isDone()) {
+                        return null;
+                    }
+
+                    final String[] next = {null};
+                    JSONUtil.streamArrayField(body, "results", job.valueType, record -> {
+                        if (job.offer(record)) {
+                            job.progress.recordDecoded();
+                        }
+                    }, (fieldName, value) -> {
+                        if ("next".equals(fieldName)) {
+                            next[0] = value;
+                            if (hasNextPage(value) && nextPageStarted.compareAndSet(false, true)) {
+                                fetchPage(job, value, pageDecoded);
+                            }
+                        }
+                    });
+                    return new PageCursor(next[0], 0);
+                }, pageExecutor);
+
+        pageFetched.whenComplete((pageCursor, throwable) -> {
+            try {
+                if (throwable != null) {
+                    log.warn("Unable to scrape page {} because {}", url, throwable.getMessage(), throwable);
+                    job.finish(true);
+                    return;
+                }
+
+                if (!pageCursor.isPresent()) {
+                    job.finish(true);
+                    return;
+                }
+
+                final int retryAfterSeconds = pageCursor.get().getRetryAfterSeconds();
+                if (retryAfterSeconds > 0) {
+                    job.progress.throttled();
+                    log.info("Throttled while scraping {}, retrying in {} seconds.", url, retryAfterSeconds);
+                    // The rate limiter has already closed this endpoint for the Retry-After delay, so asking again
+                    // right away simply queues the page behind it.
+                    fetchPage(job, url, previousPageDecoded);
+                    return;
+                }
+
+                job.progress.pageDecoded();
+                progressListener.accept(job.progress);
+
+                final String next = pageCursor.get().getNext();
+                if (!hasNextPage(next)) {
+                    job.finish(false);
+                } else if (nextPageStarted.compareAndSet(false, true)) {
+                    fetchPage(job, next, pageDecoded);
+                }
+            } catch (final RuntimeException e) {
+                log.warn("Unable to scrape page {} because {}", url, e.getMessage(), e);
+                job.finish(true);
+            } finally {
+                pageDecoded.complete(null);
+            }
+        });
+    }
+
+    private static boolean hasNextPage(final String next) {
+        return next != null && !"null".equalsIgnoreCase(next);
+    }
+
+    @Override
+    public void close() {
+        pageExecutor.shutdownNow();
+    }
+
+    private class ScrapeJob<T> {
+        private final Map<String, String> parameters;
+        private final Map<String, String> headers;
+        private final Class<T> valueType;
+        private final ScrapeProgress progress;
+
+        private final BlockingQueue<Object> records = new LinkedBlockingQueue<>(bufferedRecords);
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private volatile boolean cancelled = false;
+
+        private ScrapeJob(final String url, final Map<String, String> parameters, final Map<String, String> headers,
+                          final Class<T> valueType) {
+            this.parameters = parameters;
+            this.headers = headers;
+            this.valueType = valueType;
+            this.progress = new ScrapeProgress(url);
+        }
+
+        private boolean isDone() {
+            return finished.get() || cancelled;
+        }
+
+        private boolean offer(final Object record) {
+            if (isDone()) {
+                return false;
+            }
+            return put(record);
+        }
+
+        private boolean put(final Object record) {
+            try {
+                while (!cancelled) {
+                    if (records.offer(record, OFFER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+            }
+            return false;
+        }
+
+        private void finish(final boolean failed) {
+            if (finished.compareAndSet(false, true)) {
+                progress.finished(failed);
+                progressListener.accept(progress);
+                put(END_OF_PAGES);
+            }
+        }
+
+        private Object take() {
+            try {
+                return records.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                return END_OF_PAGES;
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            if (finished.compareAndSet(false, true)) {
+                progress.finished(true);
+            }
+            records.clear();
+        }
+    }
+
+}
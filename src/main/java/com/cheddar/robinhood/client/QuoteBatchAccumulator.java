@@ -0,0 +1,71 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Quote;
+import com.cheddar.robinhood.data.QuoteBatch;
+import com.google.common.collect.Lists;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits a symbol set into quote-sized chunks and merges the per-chunk results, which may arrive concurrently and in
+ * any order, back into the caller's order.
+ */
+class QuoteBatchAccumulator {
+
+    private final Collection<String> requestedSymbols;
+    private final List<List<String>> chunks;
+
+    private final Map<String, Quote> quotesBySymbol = new ConcurrentHashMap<>();
+    private final Set<String> failedSymbols = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger failedChunks = new AtomicInteger();
+
+    QuoteBatchAccumulator(final Collection<String> requestedSymbols, final int chunkSize) {
+        final Set<String> distinctSymbols = new LinkedHashSet<>();
+        for (final String symbol : requestedSymbols) {
+            distinctSymbols.add(symbolKey(symbol));
+        }
+
+        this.requestedSymbols = requestedSymbols;
+        this.chunks = Lists.partition(new ArrayList<>(distinctSymbols), Math.max(1, chunkSize));
+    }
+
+    private static String symbolKey(final String symbol) {
+        return symbol.toUpperCase(Locale.ENGLISH);
+    }
+
+    List<List<String>> getChunks() {
+        return chunks;
+    }
+
+    void addQuotes(final List<String> chunk, final List<Quote> quotes) {
+        for (final Quote quote : quotes) {
+            if (quote != null && quote.getSymbol() != null) {
+                quotesBySymbol.put(symbolKey(quote.getSymbol()), quote);
+            }
+        }
+        for (final String symbol : chunk) {
+            if (!quotesBySymbol.containsKey(symbol)) {
+                failedSymbols.add(symbol);
+            }
+        }
+    }
+
+    void addFailure(final List<String> chunk) {
+        failedChunks.incrementAndGet();
+        failedSymbols.addAll(chunk);
+    }
+
+    QuoteBatch toQuoteBatch() {
+        final List<Quote> quotes = new ArrayList<>(requestedSymbols.size());
+        for (final String symbol : requestedSymbols) {
+            final Quote quote = quotesBySymbol.get(symbolKey(symbol));
+            if (quote != null) {
+                quotes.add(quote);
+            }
+        }
+        return new QuoteBatch(quotes, new TreeSet<>(failedSymbols), failedChunks.get(), chunks.size());
+    }
+
+}
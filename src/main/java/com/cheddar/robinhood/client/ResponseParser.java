@@ -0,0 +1,277 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.http.HTTPResult;
+import com.cheddar.http.RetryAfter;
+import com.cheddar.robinhood.data.*;
+import com.cheddar.robinhood.exception.*;
+import com.cheddar.util.JSONUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Turns Robinhood responses into data objects. Shared by the blocking and asynchronous clients so both decode
+ * (and reject) responses identically.
+ */
+@Slf4j
+class ResponseParser {
+
+    @FunctionalInterface
+    interface Parser<T> {
+        T parse(final HTTPResult httpResult) throws RobinhoodException;
+    }
+
+    /**
+     * Rejects error responses before they reach a JSON parser, mapping the status to a typed exception.
+     */
+    static HTTPResult checkStatus(final HTTPResult httpResult) throws RobinhoodException {
+        if (httpResult.isSuccess()) {
+            return httpResult;
+        }
+
+        final int statusCode = httpResult.getStatusCode();
+        final String message = String.format("Robinhood responded with status %d [%s]", statusCode, httpResult.getBodyExcerpt());
+        throw statusException(statusCode, message, httpResult.getHeaders().get("Retry-After"));
+    }
+
+    /**
+     * The typed exception for an error status.
+     */
+    static RobinhoodException statusException(final int statusCode, final String message, final String retryAfter) {
+        if (statusCode == 401 || statusCode == 403) {
+            return new RobinhoodAuthenticationException(statusCode, message);
+        }
+        if (statusCode == 404) {
+            return new RobinhoodNotFoundException(statusCode, message);
+        }
+        if (statusCode == 429) {
+            return new RobinhoodRateLimitException(statusCode, message, (int) Math.min(RetryAfter.toSeconds(retryAfter), Integer.MAX_VALUE));
+        }
+        if (statusCode >= 500) {
+            return new RobinhoodServerException(statusCode, message);
+        }
+        return new RobinhoodHTTPException(statusCode, message);
+    }
+
+    /**
+     * Why a paginated scrape stopped early: the typed exception for the status of the page that was refused, or a
+     * plain {@link RobinhoodException} if the page got no usable response at all.
+     */
+    static RobinhoodException scrapeFailure(final ScrapeProgress progress) {
+        final String message = String.format("Scrape of %s stopped after %d pages and %d records", progress.getUrl(),
+                                             progress.getPages(), progress.getRecords());
+        final int statusCode = progress.getFailureStatusCode();
+        if (statusCode == 0) {
+            return new RobinhoodException(message);
+        }
+        return statusException(statusCode, String.format("%s: Robinhood responded with status %d", message, statusCode), null);
+    }
+
+    private static boolean isUsable(final HTTPResult httpResult) {
+        if (!httpResult.isSuccess()) {
+            log.warn("Ignoring response with status {}", httpResult.getStatusCode());
+            return false;
+        }
+        return true;
+    }
+
+    static String parseAuthToken(final HTTPResult httpResult) throws RobinhoodException {
+        Optional<Map<String, String>> responseMap =
+                JSONUtil.deserializeStream(checkStatus(httpResult).openBody(), new TypeReference<Map<String, String>>() {});
+
+        if (!responseMap.isPresent()) {
+            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", httpResult));
+        }
+
+        return responseMap.get().get("token");
+    }
+
+    static Map<String, String> parseAccountEndpoints(final HTTPResult httpResult, final String baseURL) throws RobinhoodException {
+        Optional<Map<String, List<Map<String, Object>>>> callResults =
+                JSONUtil.deserializeStream(checkStatus(httpResult).openBody(), new TypeReference<Map<String, List<Map<String, Object>>>>() {});
+
+        if (!callResults.isPresent()) {
+            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", httpResult));
+        }
+
+        Map<String, List<Map<String, Object>>> accountsMap = callResults.get();
+
+        final String positionsUrlStr = (String) accountsMap.get("results").get(0).get("positions");
+        final String portfolioUrlStr = (String) accountsMap.get("results").get(0).get("portfolio");
+        final String accountUrlStr = (String) accountsMap.get("results").get(0).get("url");
+
+        final String accountNumber = (String) accountsMap.get("results").get(0).get("account_number");
+        final String portfolioHistoricals = baseURL + "portfolios/historicals/" + accountNumber;
+
+        final Map<String, String> accountEndpoints = new HashMap<>();
+        accountEndpoints.put("positions", positionsUrlStr);
+        accountEndpoints.put("portfolio", portfolioUrlStr);
+        accountEndpoints.put("portfolios_historicals", portfolioHistoricals);
+        accountEndpoints.put("account", accountUrlStr);
+        return accountEndpoints;
+    }
+
+    /**
+     * Reads the order response once, into a tree: the error fields are checked there and the order is bound from the
+     * same tree, so the body is neither decoded to a String nor parsed twice.
+     */
+    static Order parsePlacedOrder(final HTTPResult httpResult, final String symbol, final OrderSide side) throws RobinhoodException {
+        final Optional<JsonNode> response = JSONUtil.readTree(checkStatus(httpResult).openBody());
+
+        if (!response.isPresent() || !response.get().isObject()) {
+            throw new RobinhoodException(String.format("Got unexpected response from Robinhood [%s]", httpResult.getBodyExcerpt()));
+        }
+
+        final JsonNode jsonNode = response.get();
+
+        if (jsonNode.has("non_field_errors")) {
+            log.warn("Got error when placing {} order for {}: {}", side, symbol, jsonNode.get("non_field_errors"));
+            throw new RobinhoodException("Bad response from Robinhood.");
+        }
+
+        final JsonNode rejectReason = jsonNode.get("reject_reason");
+        if (jsonNode.has("detail") || (rejectReason != null && !rejectReason.isNull())) {
+            throw new RobinhoodException(String.format("Got unexpected response from Robinhood [%s]", jsonNode));
+        }
+
+        final Optional<Order> placedOrder = JSONUtil.treeToValue(jsonNode, Order.class);
+
+        if (!placedOrder.isPresent() || StringUtils.isEmpty(placedOrder.get().getId())) {
+            log.warn("No order ID found! {}", jsonNode);
+            throw new RobinhoodException(String.format("Got unexpected response from Robinhood [%s]", jsonNode));
+        }
+
+        log.debug("Placed order {}", placedOrder.get().getId());
+
+        return placedOrder.get();
+    }
+
+    static Optional<Order> parseOrder(final HTTPResult httpResult) {
+        if (!isUsable(httpResult)) {
+            return Optional.empty();
+        }
+        return JSONUtil.deserializeStream(httpResult.openBody(), Order.class);
+    }
+
+    static List<EquityHistorical> parseHistoricalValues(final HTTPResult httpResult) throws RobinhoodException {
+        final List<EquityHistorical> historicalValues = new ArrayList<>();
+
+        try {
+            JSONUtil.streamArrayField(checkStatus(httpResult).openBody(), "equity_historicals", EquityHistorical.class, historicalValues::add);
+        } catch (final IOException e) {
+            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", httpResult), e);
+        }
+
+        return historicalValues;
+    }
+
+    static List<Quote> parseQuotes(final HTTPResult httpResult) throws RobinhoodException {
+        final Optional<Map<String, List<Quote>>> mapResult =
+                JSONUtil.deserializeStream(checkStatus(httpResult).openBody(), new TypeReference<Map<String, List<Quote>>>() {});
+
+        if (!mapResult.isPresent()) {
+            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", httpResult));
+        }
+
+        final List<Quote> quotes = mapResult.get().get("results");
+
+        quotes.removeIf(Objects::isNull);
+
+        return quotes;
+    }
+
+    static Quote parseQuote(final HTTPResult httpResult) throws RobinhoodException {
+        final Optional<Map<String, List<Quote>>> mapResult =
+                JSONUtil.deserializeStream(checkStatus(httpResult).openBody(), new TypeReference<Map<String, List<Quote>>>() {});
+
+        if (!mapResult.isPresent()) {
+            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", httpResult));
+        }
+
+        return mapResult.get().get("results").get(0);
+    }
+
+    static Optional<Instrument> parseInstrument(final HTTPResult httpResult) {
+        if (!isUsable(httpResult)) {
+            return Optional.empty();
+        }
+        return JSONUtil.deserializeStream(httpResult.openBody(), Instrument.class);
+    }
+
+    static Optional<Instrument> parseFirstInstrument(final HTTPResult httpResult) {
+        if (!isUsable(httpResult)) {
+            return Optional.empty();
+        }
+
+        final List<Instrument> instruments = new ArrayList<>(1);
+
+        try {
+            JSONUtil.streamArrayField(httpResult.openBody(), "results", Instrument.class, instruments::add);
+        } catch (final IOException e) {
+            log.warn(e.getMessage(), e);
+        }
+
+        return instruments.stream().findFirst();
+    }
+
+    static Portfolio parsePortfolio(final HTTPResult httpResult) throws RobinhoodException {
+        final Optional<Portfolio> portfolioOptional = JSONUtil.deserializeStream(checkStatus(httpResult).openBody(), Portfolio.class);
+
+        if (!portfolioOptional.isPresent()) {
+            throw new RobinhoodException("Bad response from Robinhood.");
+        }
+
+        return portfolioOptional.get();
+    }
+
+    static MarginBalances parseMarginBalances(final HTTPResult httpResult) throws RobinhoodException {
+        final JSONObject jsonObj = new JSONObject(checkStatus(httpResult).getBody());
+
+        Optional<MarginBalances> marginBalancesOptional = Optional.empty();
+
+        if (!jsonObj.isNull("margin_balances")) {
+            final JSONObject marginBalancesObj = jsonObj.getJSONObject("margin_balances");
+            marginBalancesOptional = JSONUtil.deserializeObject(marginBalancesObj.toString(), MarginBalances.class);
+        }
+
+        if (!marginBalancesOptional.isPresent()) {
+            throw new RobinhoodException("Bad response from Robinhood.");
+        }
+
+        log.info("Got buying power of {}", marginBalancesOptional.get());
+
+        return marginBalancesOptional.get();
+    }
+
+    static MarketState parseMarketState(final HTTPResult httpResult) throws RobinhoodException {
+        final Optional<Map<String, String>> responseObject =
+                JSONUtil.deserializeStream(checkStatus(httpResult).openBody(), new TypeReference<Map<String, String>>() {});
+
+        if (!responseObject.isPresent()) {
+            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", httpResult));
+        }
+
+        return new MarketState(responseObject.get());
+    }
+
+    static <T> ResultPage<T> parseResultsPage(final HTTPResult httpResult, final Class<T> valueType) throws RobinhoodException {
+        final List<T> results = new ArrayList<>();
+
+        try {
+            final Map<String, String> pageFields = JSONUtil.streamArrayField(checkStatus(httpResult).openBody(), "results", valueType, results::add);
+            return new ResultPage<>(results, pageFields.get("next"));
+        } catch (final IOException e) {
+            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", httpResult), e);
+        }
+    }
+
+    static boolean isOpenPosition(final Position position) {
+        return !Double.valueOf(position.getQuantity()).equals(0d);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.cheddar.robinhood.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One decoded page of a paginated Robinhood listing. {@code next} is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+class ResultPage<T> {
+    private final List<T> results;
+    private final String next;
+}
@@ -1,601 +1,776 @@
 package com.cheddar.robinhood.client;
 
+import com.cheddar.http.CompressionMetrics;
 import com.cheddar.http.HTTPClient;
+import com.cheddar.http.HTTPClientConfig;
 import com.cheddar.http.HTTPQuery;
 import com.cheddar.http.HTTPResult;
+import com.cheddar.http.RequestCoalescer;
+import com.cheddar.metrics.APIMethod;
+import com.cheddar.metrics.Metrics;
 import com.cheddar.robinhood.RobinhoodAPI;
 import com.cheddar.robinhood.data.*;
+import com.cheddar.robinhood.exception.RobinhoodAuthenticationException;
 import com.cheddar.robinhood.exception.RobinhoodException;
-import com.cheddar.util.JSONUtil;
 import com.cheddar.util.TimeUtil;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.base.Joiner;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang.StringUtils;
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 @Data
 @Slf4j
-public class RobinhoodClient implements RobinhoodAPI {
-
-    private final HashMap<String, String> headers = new HashMap<String, String>() {{
-        put("Accept", "*/*");
-        put("Accept-Encoding", "gzip, deflate");
-        put("Accept-Language", "en;q=1, fr;q=0.9, de;q=0.8, ja;q=0.7, nl;q=0.6, it;q=0.5");
-        put("Content-Type", "application/x-www-form-urlencoded; charset=utf-8");
-        put("X-Robinhood-API-Version", "1.70.0");
-        put("Connection", "keep-alive");
-        put("User-Agent", "Robinhood/823 (iPhone; iOS 7.1.2; Scale/2.00)");
-    }};
-
-    private final HashMap<String, String> endpoints = new HashMap<String, String>() {{
-        put("login", "https://api.robinhood.com/api-token-auth/");
-        put("investment_profile", "https://api.robinhood.com/user/investment_profile/");
-        put("accounts", "https://api.robinhood.com/accounts/");
-        put("ach_iav_auth", "https://api.robinhood.com/ach/iav/auth/");
-        put("ach_relationships", "https://api.robinhood.com/ach/relationships/");
-        put("ach_transfers", "https://api.robinhood.com/ach/transfers/");
-        put("applications", "https://api.robinhood.com/applications/");
-        put("dividends", "https://api.robinhood.com/dividends/");
-        put("edocuments", "https://api.robinhood.com/documents/");
-        put("instruments", "https://api.robinhood.com/instruments/");
-        put("margin_upgrades", "https://api.robinhood.com/margin/upgrades/");
-        put("markets", "https://api.robinhood.com/markets/");
-        put("notifications", "https://api.robinhood.com/notifications/");
-        put("orders", "https://api.robinhood.com/orders/");
-        put("password_reset", "https://api.robinhood.com/password_reset/request/");
-        put("quotes", "https://api.robinhood.com/quotes/");
-        put("document_requests", "https://api.robinhood.com/upload/document_requests/");
-        put("user", "https://api.robinhood.com/user/");
-        put("user/additional_info", "https://api.robinhood.com/user/additional_info/");
-        put("user/basic_info", "https://api.robinhood.com/user/basic_info/");
-        put("user/employment", "https://api.robinhood.com/user/employment/");
-        put("user/investment_profile", "https://api.robinhood.com/user/investment_profile/");
-        put("watchlists", "https://api.robinhood.com/watchlists/");
-    }};
-
-    private static final List<String> REQUIRED_ENDPOINT_KEYS = ImmutableList.of("positions", "portfolio", "account");
-
-    private final HTTPClient httpClient = new HTTPClient();
+@ToString(exclude = {"session", "password"})
+public class RobinhoodClient implements RobinhoodAPI, Closeable {
+
+    public static final String DEFAULT_BASE_URL = "https://api.robinhood.com/";
+
+    private static final Map<String, String> DEFAULT_HEADERS = ImmutableMap.<String, String>builder()
+            .put("Accept", "*/*")
+            .put("Accept-Encoding", "gzip, deflate")
+            .put("Accept-Language", "en;q=1, fr;q=0.9, de;q=0.8, ja;q=0.7, nl;q=0.6, it;q=0.5")
+            .put("Content-Type", "application/x-www-form-urlencoded; charset=utf-8")
+            .put("X-Robinhood-API-Version", "1.70.0")
+            .put("Connection", "keep-alive")
+            .put("User-Agent", "Robinhood/823 (iPhone; iOS 7.1.2; Scale/2.00)")
+            .build();
+
+    private static final Map<String, String> ENDPOINT_PATHS = ImmutableMap.<String, String>builder()
+            .put("login", "api-token-auth/")
+            .put("investment_profile", "user/investment_profile/")
+            .put("accounts", "accounts/")
+            .put("ach_iav_auth", "ach/iav/auth/")
+            .put("ach_relationships", "ach/relationships/")
+            .put("ach_transfers", "ach/transfers/")
+            .put("applications", "applications/")
+            .put("dividends", "dividends/")
+            .put("edocuments", "documents/")
+            .put("instruments", "instruments/")
+            .put("margin_upgrades", "margin/upgrades/")
+            .put("markets", "markets/")
+            .put("notifications", "notifications/")
+            .put("orders", "orders/")
+            .put("password_reset", "password_reset/request/")
+            .put("quotes", "quotes/")
+            .put("document_requests", "upload/document_requests/")
+            .put("user", "user/")
+            .put("user/additional_info", "user/additional_info/")
+            .put("user/basic_info", "user/basic_info/")
+            .put("user/employment", "user/employment/")
+            .put("user/investment_profile", "user/investment_profile/")
+            .put("watchlists", "watchlists/")
+            .build();
+
+    /**
+     * The current session. Replaced wholesale on login and never mutated, so any number of threads can read it
+     * without locking; {@link #loginLock} only serializes the (rare) logins themselves.
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<RobinhoodSession> session;
+
+    @Getter(AccessLevel.NONE)
+    private final Object loginLock = new Object();
+
+    /**
+     * Root every endpoint hangs off, with a trailing slash. Point it at a local server to run the client offline.
+     */
+    private final String baseURL;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, String> anonymousEndpoints;
+
+    private final HTTPClient httpClient;
+    private final PaginatedScraper paginatedScraper;
+    private final InstrumentCache instrumentCache = new InstrumentCache();
+    private final MarketStateCache marketStateCache = new MarketStateCache();
+
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentMap<String, OrderTemplate> orderTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Deduplicates identical concurrent reads (portfolio, margin balances, quotes, orders, market hours). Results are
+     * shared between the callers of one flight; set a result TTL to also absorb near-simultaneous bursts.
+     */
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    private final ExecutorService fanOutExecutor =
+            Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("robinhood-fan-out-%d").build());
+
+    private int quoteChunkSize = 100;
+    private int quoteParallelism = 8;
 
     private String username;
     private String password;
 
+    @FunctionalInterface
+    private interface APICall<T, E extends Exception> {
+        T call() throws E;
+    }
+
     public RobinhoodClient(final String username, final String password) {
+        this(username, password, new HTTPClient());
+    }
+
+    /**
+     * Set {@link HTTPClientConfig#setTransportType} to choose between HTTP/1.1 and multiplexed HTTP/2.
+     */
+    public RobinhoodClient(final String username, final String password, final HTTPClientConfig httpClientConfig) {
+        this(username, password, new HTTPClient(httpClientConfig));
+    }
+
+    public RobinhoodClient(final String username, final String password, final HTTPClient httpClient) {
+        this(username, password, httpClient, DEFAULT_BASE_URL);
+    }
+
+    public RobinhoodClient(final String username, final String password, final HTTPClient httpClient, final String baseURL) {
         this.username = username;
         this.password = password;
+        this.httpClient = httpClient;
+        this.paginatedScraper = new PaginatedScraper(httpClient);
+        this.baseURL = baseURL.endsWith("/") ? baseURL : baseURL + "/";
+        this.anonymousEndpoints = createEndpoints(this.baseURL);
+        this.session = new AtomicReference<>(anonymousSession());
     }
 
-    private boolean isLoggedIn() {
-        if (!headers.containsKey("Authorization")) {
-            return false;
-        }
+    private static Map<String, String> createEndpoints(final String baseURL) {
+        final Map<String, String> endpoints = new HashMap<>();
+        ENDPOINT_PATHS.forEach((name, path) -> endpoints.put(name, baseURL + path));
+        return endpoints;
+    }
+
+    @Override
+    public void close() {
+        this.fanOutExecutor.shutdownNow();
+        this.paginatedScraper.close();
+        this.httpClient.close();
+    }
 
-        for (final String key : REQUIRED_ENDPOINT_KEYS) {
-            if (!endpoints.containsKey(key)) {
-                return false;
+    private RobinhoodSession anonymousSession() {
+        return new RobinhoodSession(DEFAULT_HEADERS, anonymousEndpoints);
+    }
+
+    public RobinhoodSession getSession() {
+        return session.get();
+    }
+
+    public Map<String, String> getHeaders() {
+        return session.get().getHeaders();
+    }
+
+    public Map<String, String> getEndpoints() {
+        return session.get().getEndpoints();
+    }
+
+    public CompressionMetrics getCompressionMetrics() {
+        return httpClient.getCompressionMetrics();
+    }
+
+    boolean isLoggedIn() {
+        return session.get().isLoggedIn();
+    }
+
+    /**
+     * Drops {@code staleSession} (e.g. after its token was rejected) so the next call logs in again. Does nothing if
+     * another thread has already replaced it.
+     */
+    public boolean invalidateSession(final RobinhoodSession staleSession) {
+        return session.compareAndSet(staleSession, anonymousSession());
+    }
+
+    private Optional<RobinhoodSession> doLoginRoutine(final RobinhoodSession anonymousSession) {
+        return timed(APIMethod.LOGIN, () -> {
+            try {
+                final RobinhoodSession loggedInSession = this.acquireAccountInfo(this.doLogin(anonymousSession));
+                log.info("Robinhood logged in.");
+                return Optional.of(loggedInSession);
+            } catch (final Exception e) {
+                log.warn("Unable to log into Robinhood because " + e.getMessage(), e);
+                return Optional.empty();
             }
-        }
-        return true;
+        });
     }
 
-    private void doLoginRoutine() {
+    /**
+     * Runs one API call and reports its latency to the {@link com.cheddar.metrics.MetricsRecorder}. A call fails if it
+     * throws or comes back with an empty {@link Optional}.
+     */
+    private static <T, E extends Exception> T timed(final APIMethod method, final APICall<T, E> call) throws E {
+        final long startNanos = System.nanoTime();
+        boolean succeeded = false;
         try {
-            this.doLogin();
-            this.acquireAccountInfo();
-            log.info("Robinhood logged in.");
-        } catch (final Exception e) {
-            log.warn("Unable to log into Robinhood because " + e.getMessage(), e);
+            final T result = call.call();
+            succeeded = !(result instanceof Optional) || ((Optional<?>) result).isPresent();
+            return result;
+        } finally {
+            Metrics.getRecorder().recordCall(method, System.nanoTime() - startNanos, succeeded);
         }
     }
 
-    private void verifyLoginStatus() throws RobinhoodException {
-        if (!isLoggedIn()) {
-            doLoginRoutine();
+    RobinhoodSession verifyLoginStatus() throws RobinhoodException {
+        final RobinhoodSession currentSession = session.get();
+        if (currentSession.isLoggedIn()) {
+            return currentSession;
         }
-        if (!isLoggedIn()) {
-            throw new RobinhoodException("Login failed!");
+
+        synchronized (loginLock) {
+            final RobinhoodSession latestSession = session.get();
+            if (latestSession.isLoggedIn()) {
+                return latestSession;
+            }
+
+            final Optional<RobinhoodSession> loggedInSession = doLoginRoutine(latestSession);
+            if (!loggedInSession.isPresent() || !loggedInSession.get().isLoggedIn()) {
+                throw new RobinhoodException("Login failed!");
+            }
+
+            session.set(loggedInSession.get());
+            return loggedInSession.get();
         }
     }
 
-    private void doLogin() throws RobinhoodException {
+    private RobinhoodSession doLogin(final RobinhoodSession anonymousSession) throws RobinhoodException {
         log.info("Logging in to Robinhood.");
 
         Optional<HTTPResult> httpResult =
-                this.httpClient.executeHTTPPostRequest(new HTTPQuery(endpoints.get("login"), ImmutableMap.of("username", username, "password", password), headers));
+                this.httpClient.executeHTTPPostRequest(new HTTPQuery(anonymousSession.getEndpoint("login"), ImmutableMap.of("username", username, "password", password), anonymousSession.getHeaders()));
 
         if (!httpResult.isPresent()) {
             throw new RobinhoodException("Bad response from Robinhood.");
         }
 
-        final String jsonData = httpResult.get().getBody();
-
-        Optional<Map<String, String>> responseMap =
-                JSONUtil.deserializeString(jsonData, new TypeReference<Map<String, String>>() {});
-
-        if (!responseMap.isPresent()) {
-            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", httpResult));
-        }
-
-        headers.put("Authorization", "Token " + responseMap.get().get("token"));
+        return anonymousSession.withAuthToken(ResponseParser.parseAuthToken(httpResult.get()));
     }
 
-    private void acquireAccountInfo() throws RobinhoodException {
+    private RobinhoodSession acquireAccountInfo(final RobinhoodSession authenticatedSession) throws RobinhoodException {
         log.info("Acquiring account info.");
 
-        final Optional<HTTPResult> getResponse = this.httpClient.executeHTTPGetRequest(new HTTPQuery(endpoints.get("accounts"), ImmutableMap.of(), headers));
+        final Optional<HTTPResult> getResponse = this.httpClient.executeHTTPGetRequest(new HTTPQuery(authenticatedSession.getEndpoint("accounts"), ImmutableMap.of(), authenticatedSession.getHeaders()));
 
         if (!getResponse.isPresent()) {
             throw new RobinhoodException("Bad response from Robinhood.");
         }
 
-        Optional<Map<String, List<Map<String, Object>>>> callResults =
-                JSONUtil.deserializeString(getResponse.get().getBody(), new TypeReference<Map<String, List<Map<String, Object>>>>() {});
+        return authenticatedSession.withEndpoints(ResponseParser.parseAccountEndpoints(getResponse.get(), baseURL));
+    }
 
-        if (!callResults.isPresent()) {
-            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", getResponse));
+    /**
+     * Parses a response to a request made with {@code requestSession}. If Robinhood rejected the session's token, the
+     * session is dropped so that the next call logs in again.
+     */
+    <T> T parseWithSession(final RobinhoodSession requestSession, final HTTPResult httpResult,
+                           final ResponseParser.Parser<T> parser) throws RobinhoodException {
+        try {
+            return parser.parse(httpResult);
+        } catch (final RobinhoodAuthenticationException e) {
+            if (invalidateSession(requestSession)) {
+                log.warn("Robinhood rejected the session, logging in again on the next call.");
+            }
+            throw e;
         }
+    }
 
-        Map<String, List<Map<String, Object>>> accountsMap = callResults.get();
-
-        final String positionsUrlStr = (String) accountsMap.get("results").get(0).get("positions");
-        final String portfolioUrlStr = (String) accountsMap.get("results").get(0).get("portfolio");
-        final String accountUrlStr = (String) accountsMap.get("results").get(0).get("url");
-
-        final String accountNumber = (String) accountsMap.get("results").get(0).get("account_number");
-        final String portfolioHistoricals = "https://api.robinhood.com/portfolios/historicals/" + accountNumber;
+    /**
+     * Throws if {@code progress} ended on a failed page, so that callers never mistake a truncated listing for the
+     * whole of it. A refused session is invalidated as in {@link #parseWithSession}.
+     */
+    void requireComplete(final RobinhoodSession requestSession, final ScrapeProgress progress) throws RobinhoodException {
+        if (!progress.isFailed()) {
+            return;
+        }
 
-        endpoints.put("positions", positionsUrlStr);
-        endpoints.put("portfolio", portfolioUrlStr);
-        endpoints.put("portfolios_historicals", portfolioHistoricals);
-        endpoints.put("account", accountUrlStr);
+        final RobinhoodException failure = ResponseParser.scrapeFailure(progress);
+        if (failure instanceof RobinhoodAuthenticationException && invalidateSession(requestSession)) {
+            log.warn("Robinhood rejected the session, logging in again on the next call.");
+        }
+        throw failure;
     }
 
-    private Order placeLimitOrder(final String symbol, final int shares, final String side, final double limit) throws RobinhoodException {
+    /**
+     * The order template for {@code symbol} on the account of {@code currentSession}, resolving the instrument only the
+     * first time the symbol is traded (or after {@link #prepareOrders}, never on the submission path).
+     */
+    OrderTemplate getOrderTemplate(final RobinhoodSession currentSession, final String symbol) throws RobinhoodException {
+        final OrderTemplate cached = orderTemplates.get(InstrumentCache.symbolKey(symbol));
+        if (cached != null && cached.isFor(currentSession)) {
+            return cached;
+        }
+
         final Optional<Instrument> instrumentOptional = getInstrumentForSymbol(symbol);
 
         if (!instrumentOptional.isPresent()) {
             throw new RobinhoodException(String.format("Unable to determine instrument for symbol %s", symbol));
         }
 
-        final Instrument instrument = instrumentOptional.get();
-
-        final String maxPriceStr = String.format("%.2f", limit);
-
-        log.info("Placing limit order of {} with a limit of {}", side, maxPriceStr);
-
-        final Map<String, String> params =
-                ImmutableMap.<String, String>builder().put("account", endpoints.get("account"))
-                                                      .put("extended_hours", "true")
-                                                      .put("override_dtbp_checks", "false")
-                                                      .put("instrument", instrument.getUrl())
-                                                      .put("side", side)
-                                                      .put("quantity", String.valueOf(shares))
-                                                      .put("symbol", symbol)
-                                                      .put("time_in_force", "gfd")
-                                                      .put("trigger", "immediate")
-                                                      .put("price", maxPriceStr)
-                                                      .put("type", "limit")
-                                                      .build();
+        return cacheOrderTemplate(currentSession, instrumentOptional.get(), symbol);
+    }
 
-        log.info("Placing order {} {} {}", endpoints.get("orders"), params, headers);
+    Optional<OrderTemplate> getOrderTemplateIfPresent(final RobinhoodSession currentSession, final String symbol) {
+        final OrderTemplate cached = orderTemplates.get(InstrumentCache.symbolKey(symbol));
+        return cached != null && cached.isFor(currentSession) ? Optional.of(cached) : Optional.empty();
+    }
 
-        final Optional<HTTPResult> httpResult =
-                this.httpClient.executeHTTPPostRequest(new HTTPQuery(endpoints.get("orders"), params, headers));
+    OrderTemplate cacheOrderTemplate(final RobinhoodSession currentSession, final Instrument instrument, final String symbol) {
+        final OrderTemplate template = new OrderTemplate(currentSession.getEndpoint("account"), instrument, symbol);
+        orderTemplates.put(InstrumentCache.symbolKey(symbol), template);
+        return template;
+    }
 
-        if (!httpResult.isPresent()) {
-            throw new RobinhoodException("Bad response from Robinhood.");
+    /**
+     * Logs in and resolves the order templates of {@code symbols} ahead of time, so the first order on each pays for
+     * neither the login nor the instrument lookup.
+     */
+    public void prepareOrders(final Collection<String> symbols) throws RobinhoodException {
+        final RobinhoodSession currentSession = verifyLoginStatus();
+        for (final String symbol : symbols) {
+            getOrderTemplate(currentSession, symbol);
         }
+    }
 
-        final String jsonData = httpResult.get().getBody();
-
-        log.info("From order got response {}", jsonData);
-
-        JSONObject jsonObj = new JSONObject(jsonData);
-
-        if (jsonObj.has("non_field_errors")) {
-            log.warn("Got error when executing tradeCommand {} : {}",
-                     jsonObj.get("non_field_errors"), side + " -> " + symbol);
-            throw new RobinhoodException("Bad response from Robinhood.");
-        }
+    /**
+     * Opens (or refreshes) a pooled connection to Robinhood with a small authenticated read, so that an order placed
+     * shortly afterwards does not pay for a TCP and TLS handshake. Optional: call it ahead of a time-critical order,
+     * for example after a quiet period long enough for idle connections to have been closed.
+     */
+    public boolean warmUpConnection() throws RobinhoodException {
+        final RobinhoodSession currentSession = verifyLoginStatus();
+        final Optional<HTTPResult> httpResult =
+                this.httpClient.executeHTTPGetRequest(new HTTPQuery(currentSession.getEndpoint("account"), ImmutableMap.of(), currentSession.getHeaders()));
 
-        if (jsonObj.has("detail")) {
-            throw new RobinhoodException(String.format("Got unexpected response from Robinhood [%s]", jsonObj));
-        }
+        return httpResult.isPresent() && httpResult.get().isSuccess();
+    }
 
-        if (!jsonObj.isNull("reject_reason")) {
-            throw new RobinhoodException(String.format("Got unexpected response from Robinhood [%s]", jsonObj));
+    /**
+     * {@link OrderTemplate#encode}, reporting an unusable quantity or limit as a {@link RobinhoodException} like any
+     * other failure to place the order.
+     */
+    static byte[] encodeOrder(final OrderTemplate template, final OrderSide side, final int shares, final double limit) throws RobinhoodException {
+        try {
+            return template.encode(side, shares, limit);
+        } catch (final IllegalArgumentException e) {
+            throw new RobinhoodException(String.format("Unable to place %s order for %s: %s", side, template.getSymbol(), e.getMessage()), e);
         }
+    }
 
-        final Optional<Order> placedOrder = JSONUtil.deserializeObject(jsonData, Order.class);
+    private Order placeLimitOrder(final RobinhoodSession currentSession, final String symbol, final int shares, final OrderSide side, final double limit) throws RobinhoodException {
+        final byte[] formBody = encodeOrder(getOrderTemplate(currentSession, symbol), side, shares, limit);
 
-        if (!placedOrder.isPresent()) {
-            log.warn("Could not create Order object from JSON response! {}", jsonData);
-            throw new RobinhoodException(String.format("Got unexpected response from Robinhood [%s]", jsonObj));
-        }
+        // Never log the session headers: they carry the auth token.
+        log.debug("Placing {} order for {} shares of {} at {}", side, shares, symbol, limit);
 
-        final Order order = placedOrder.get();
+        final Optional<HTTPResult> httpResult =
+                this.httpClient.executeHTTPPostRequest(HTTPQuery.withFormBody(currentSession.getEndpoint("orders"), formBody, currentSession.getHeaders()));
 
-        if (StringUtils.isEmpty(order.getId())) {
-            log.warn("No order ID found! {}", jsonData);
-            throw new RobinhoodException(String.format("Got unexpected response from Robinhood [%s]", jsonObj));
+        if (!httpResult.isPresent()) {
+            throw new RobinhoodException("Bad response from Robinhood.");
         }
 
-        return order;
+        return parseWithSession(currentSession, httpResult.get(), result -> ResponseParser.parsePlacedOrder(result, symbol, side));
     }
 
     @Override
     public Order buyShares(final String symbol, final int shares, final double limit) throws RobinhoodException {
-        verifyLoginStatus();
-        return placeLimitOrder(symbol, shares, "buy", limit);
+        return timed(APIMethod.BUY_SHARES, () -> placeLimitOrder(verifyLoginStatus(), symbol, shares, OrderSide.BUY, limit));
     }
 
     @Override
     public Order sellShares(final String symbol, final int shares, final double limit) throws RobinhoodException {
-        verifyLoginStatus();
-        return placeLimitOrder(symbol, shares, "sell", limit);
+        return timed(APIMethod.SELL_SHARES, () -> placeLimitOrder(verifyLoginStatus(), symbol, shares, OrderSide.SELL, limit));
     }
 
     @Override
     public Optional<Order> getOrderFromURL(final String orderURL) throws RobinhoodException {
-        final Optional<HTTPResult> httpResult = this.httpClient.executeHTTPGetRequest(new HTTPQuery(orderURL, ImmutableMap.of(), headers));
+        return timed(APIMethod.GET_ORDER_FROM_URL, () -> fetchOrderFromURL(orderURL));
+    }
 
+    private Optional<Order> fetchOrderFromURL(final String orderURL) throws RobinhoodException {
+        final RobinhoodSession currentSession = session.get();
+        final HTTPQuery httpQuery = new HTTPQuery(orderURL, ImmutableMap.of(), currentSession.getHeaders());
 
-        if (!httpResult.isPresent()) {
-            return Optional.empty();
-        }
+        return requestCoalescer.execute(httpQuery, () -> {
+            final Optional<HTTPResult> httpResult = this.httpClient.executeHTTPGetRequest(httpQuery);
 
-        Optional<Order> orderOptional = JSONUtil.deserializeObject(httpResult.get().getBody(), Order.class);
+            if (!httpResult.isPresent()) {
+                return Optional.<Order>empty();
+            }
 
-        return orderOptional;
+            return ResponseParser.parseOrder(httpResult.get());
+        });
     }
 
     @Override
     public List<EquityHistorical> getHistoricalValues(final String span, final String interval, final String bounds) throws RobinhoodException {
-        verifyLoginStatus();
+        return timed(APIMethod.GET_HISTORICAL_VALUES, () -> fetchHistoricalValues(span, interval, bounds));
+    }
 
-        final List<EquityHistorical> historicalValues = new ArrayList<>();
+    private List<EquityHistorical> fetchHistoricalValues(final String span, final String interval, final String bounds) throws RobinhoodException {
+        final RobinhoodSession currentSession = verifyLoginStatus();
 
         Optional<HTTPResult> httpResult =
-                this.httpClient.executeHTTPGetRequest(new HTTPQuery(endpoints.get("portfolios_historicals"),
+                this.httpClient.executeHTTPGetRequest(new HTTPQuery(currentSession.getEndpoint("portfolios_historicals"),
                                                                     ImmutableMap.of("span", span,
                                                                                     "interval", interval,
-                                                                                    "bounds", bounds), headers));
-
-        final JSONObject jsonObj = new JSONObject(httpResult.get().getBody());
+                                                                                    "bounds", bounds), currentSession.getHeaders()));
 
-        final JSONArray equitiesListObj = jsonObj.getJSONArray("equity_historicals");
-
-        for (final Object historicalObj : equitiesListObj) {
-            if (!(historicalObj instanceof JSONObject)) {
-                continue;
-            }
-
-            final Optional<EquityHistorical> equityOptional = JSONUtil.deserializeObject(historicalObj.toString(), EquityHistorical.class);
-
-            if (!equityOptional.isPresent()) {
-                continue;
-            }
-
-            historicalValues.add(equityOptional.get());
+        if (!httpResult.isPresent()) {
+            throw new RobinhoodException("Bad response from Robinhood.");
         }
 
-        return historicalValues;
+        return parseWithSession(currentSession, httpResult.get(), ResponseParser::parseHistoricalValues);
     }
 
     @Override
     public List<Quote> getQuotes(final Collection<String> symbols) throws RobinhoodException {
+        return timed(APIMethod.GET_QUOTES, () -> fetchQuotes(symbols));
+    }
+
+    private List<Quote> fetchQuotes(final Collection<String> symbols) throws RobinhoodException {
         if (CollectionUtils.isEmpty(symbols)) {
             return Collections.emptyList();
         }
 
-        Map<String, String> params = ImmutableMap.of("symbols", Joiner.on(',').join(symbols));
-        Optional<HTTPResult> httpResult = this.httpClient.executeHTTPGetRequest(new HTTPQuery(endpoints.get("quotes"), params, headers));
+        final QuoteBatch quoteBatch = getQuoteBatch(symbols);
 
-        if (!httpResult.isPresent()) {
+        if (quoteBatch.getFailedChunks() == quoteBatch.getTotalChunks()) {
             throw new RobinhoodException("Bad response from Robinhood.");
         }
 
-        final String jsonData = httpResult.get().getBody();
+        if (quoteBatch.getFailedChunks() > 0) {
+            log.warn("Unable to get quotes for {} of {} chunks, missing symbols {}",
+                     quoteBatch.getFailedChunks(), quoteBatch.getTotalChunks(), quoteBatch.getFailedSymbols());
+        }
+
+        return quoteBatch.getQuotes();
+    }
 
-        final Optional<Map<String, List<Quote>>> mapResult =
-                JSONUtil.deserializeString(jsonData, new TypeReference<Map<String, List<Quote>>>() {});
+    /**
+     * Quotes {@code symbols} in chunks of at most {@code quoteChunkSize}, fetching up to {@code quoteParallelism}
+     * chunks at a time. A failed chunk does not discard the others; its symbols are reported in the result instead.
+     */
+    public QuoteBatch getQuoteBatch(final Collection<String> symbols) {
+        final QuoteBatchAccumulator accumulator = new QuoteBatchAccumulator(symbols, quoteChunkSize);
+        final List<List<String>> chunks = accumulator.getChunks();
+
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final Runnable chunkWorker = () -> {
+            int chunkIndex;
+            while ((chunkIndex = nextChunk.getAndIncrement()) < chunks.size()) {
+                fetchQuoteChunk(chunks.get(chunkIndex), accumulator);
+            }
+        };
 
-        if (!mapResult.isPresent()) {
-            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", jsonData));
+        final List<Future<?>> workers = new ArrayList<>();
+        for (int i = 1; i < Math.min(quoteParallelism, chunks.size()); ++i) {
+            workers.add(fanOutExecutor.submit(chunkWorker));
         }
 
-        final List<Quote> quotes = mapResult.get().get("results");
+        chunkWorker.run();
 
-        quotes.removeIf(Objects::isNull);
+        for (final Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (final ExecutionException e) {
+                log.warn(e.getMessage(), e);
+            }
+        }
 
-        return quotes;
+        return accumulator.toQuoteBatch();
     }
 
-    @Override
-    public Quote getQuote(final String symbol) throws RobinhoodException {
-        final Optional<HTTPResult> httpResult =
-                this.httpClient.executeHTTPGetRequest(new HTTPQuery(endpoints.get("quotes"), ImmutableMap.of("symbols", symbol), headers));
+    private void fetchQuoteChunk(final List<String> chunk, final QuoteBatchAccumulator accumulator) {
+        final RobinhoodSession currentSession = session.get();
+        final Map<String, String> params = ImmutableMap.of("symbols", Joiner.on(',').join(chunk));
+        final HTTPQuery httpQuery = new HTTPQuery(currentSession.getEndpoint("quotes"), params, currentSession.getHeaders());
 
-        if (!httpResult.isPresent()) {
-            throw new RobinhoodException("Bad response when getting quotes!");
-        }
+        try {
+            final Optional<List<Quote>> quotes = requestCoalescer.execute(httpQuery, () -> {
+                final Optional<HTTPResult> httpResult = this.httpClient.executeHTTPGetRequest(httpQuery);
+
+                if (!httpResult.isPresent()) {
+                    return Optional.<List<Quote>>empty();
+                }
 
-        final String jsonData = httpResult.get().getBody();
+                return Optional.of(ResponseParser.parseQuotes(httpResult.get()));
+            });
 
-        final Optional<Map<String, List<Quote>>> mapResult =
-                JSONUtil.deserializeString(jsonData, new TypeReference<Map<String, List<Quote>>>() {});
+            if (!quotes.isPresent()) {
+                accumulator.addFailure(chunk);
+                return;
+            }
 
-        if (!mapResult.isPresent()) {
-            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", jsonData));
+            accumulator.addQuotes(chunk, quotes.get());
+        } catch (final RobinhoodException | RuntimeException e) {
+            log.warn("Unable to get quotes for {} because {}", chunk, e.getMessage(), e);
+            accumulator.addFailure(chunk);
         }
+    }
+
+    @Override
+    public Quote getQuote(final String symbol) throws RobinhoodException {
+        return timed(APIMethod.GET_QUOTE, () -> fetchQuote(symbol));
+    }
+
+    private Quote fetchQuote(final String symbol) throws RobinhoodException {
+        final RobinhoodSession currentSession = session.get();
+        final HTTPQuery httpQuery = new HTTPQuery(currentSession.getEndpoint("quotes"), ImmutableMap.of("symbols", symbol), currentSession.getHeaders());
+
+        return requestCoalescer.execute(httpQuery, () -> {
+            final Optional<HTTPResult> httpResult = this.httpClient.executeHTTPGetRequest(httpQuery);
+
+            if (!httpResult.isPresent()) {
+                throw new RobinhoodException("Bad response when getting quotes!");
+            }
 
-        return mapResult.get().get("results").get(0);
+            return ResponseParser.parseQuote(httpResult.get());
+        });
     }
 
     @Override
     public Optional<Instrument> getInstrumentFromURL(final String instrumentURL) {
+        return timed(APIMethod.GET_INSTRUMENT_FROM_URL, () -> instrumentCache.getForURL(instrumentURL, this::fetchInstrumentFromURL));
+    }
+
+    private Optional<Instrument> fetchInstrumentFromURL(final String instrumentURL) {
+        final RobinhoodSession currentSession = session.get();
         final Optional<HTTPResult> httpResult =
-                this.httpClient.executeHTTPGetRequest(new HTTPQuery(instrumentURL, ImmutableMap.of(), headers));
+                this.httpClient.executeHTTPGetRequest(new HTTPQuery(instrumentURL, ImmutableMap.of(), currentSession.getHeaders()));
 
         if (!httpResult.isPresent()) {
             return Optional.empty();
         }
 
-        Optional<Instrument> instrumentOptional = JSONUtil.deserializeObject(httpResult.get().getBody(), Instrument.class);
-
-        return instrumentOptional;
+        return ResponseParser.parseInstrument(httpResult.get());
     }
 
     @Override
     public Portfolio getPortfolio() throws RobinhoodException {
-        verifyLoginStatus();
+        return timed(APIMethod.GET_PORTFOLIO, this::fetchPortfolio);
+    }
 
-        final Optional<HTTPResult> httpResult =
-                this.httpClient.executeHTTPGetRequest(new HTTPQuery(endpoints.get("portfolio"), ImmutableMap.of(), headers));
+    private Portfolio fetchPortfolio() throws RobinhoodException {
+        final RobinhoodSession currentSession = verifyLoginStatus();
 
-        if (!httpResult.isPresent()) {
-            throw new RobinhoodException("Bad response from Robinhood.");
-        }
+        final HTTPQuery httpQuery = new HTTPQuery(currentSession.getEndpoint("portfolio"), ImmutableMap.of(), currentSession.getHeaders());
 
-        final Optional<Portfolio> portfolioOptional = JSONUtil.deserializeObject(httpResult.get().getBody(), Portfolio.class);
+        return requestCoalescer.execute(httpQuery, () -> {
+            final Optional<HTTPResult> httpResult = this.httpClient.executeHTTPGetRequest(httpQuery);
 
-        if (!portfolioOptional.isPresent()) {
-            throw new RobinhoodException("Bad response from Robinhood.");
-        }
+            if (!httpResult.isPresent()) {
+                throw new RobinhoodException("Bad response from Robinhood.");
+            }
 
-        return portfolioOptional.get();
+            return parseWithSession(currentSession, httpResult.get(), ResponseParser::parsePortfolio);
+        });
     }
 
     @Override
     public Optional<Instrument> getInstrumentForSymbol(final String symbol) {
+        return timed(APIMethod.GET_INSTRUMENT_FOR_SYMBOL, () -> instrumentCache.getForSymbol(symbol, this::fetchInstrumentForSymbol));
+    }
+
+    private Optional<Instrument> fetchInstrumentForSymbol(final String symbol) {
+        final RobinhoodSession currentSession = session.get();
         final Optional<HTTPResult> httpResult =
-                this.httpClient.executeHTTPGetRequest(new HTTPQuery(endpoints.get("instruments"), ImmutableMap.of("symbol", symbol), headers));
+                this.httpClient.executeHTTPGetRequest(new HTTPQuery(currentSession.getEndpoint("instruments"), ImmutableMap.of("symbol", symbol), currentSession.getHeaders()));
 
         if (!httpResult.isPresent()) {
             return Optional.empty();
         }
 
-        final JSONObject jsonObj = new JSONObject(httpResult.get().getBody());
-
-        final JSONArray jsonArray = jsonObj.getJSONArray("results");
-
-        if (jsonArray.length() <= 0) {
-            return Optional.empty();
-        }
-
-        final JSONObject jsonInstrumentObj = jsonArray.getJSONObject(0);
-
-        final Optional<Instrument> instrumentOptional = JSONUtil.deserializeObject(jsonInstrumentObj.toString(), Instrument.class);
-
-        return instrumentOptional;
+        return ResponseParser.parseFirstInstrument(httpResult.get());
     }
 
     @Override
     public MarginBalances getMarginBalances() throws RobinhoodException {
-        verifyLoginStatus();
-
-        final Optional<HTTPResult> httpResult =
-                this.httpClient.executeHTTPGetRequest(new HTTPQuery(endpoints.get("account"), ImmutableMap.of(), headers));
-
-        if (!httpResult.isPresent()) {
-            throw new RobinhoodException("Bad response from Robinhood.");
-        }
-
-        final JSONObject jsonObj = new JSONObject(httpResult.get().getBody());
+        return timed(APIMethod.GET_MARGIN_BALANCES, this::fetchMarginBalances);
+    }
 
-        Optional<MarginBalances> marginBalancesOptional = Optional.empty();
+    private MarginBalances fetchMarginBalances() throws RobinhoodException {
+        final RobinhoodSession currentSession = verifyLoginStatus();
 
-        if (!jsonObj.isNull("margin_balances")) {
-            final JSONObject marginBalancesObj = jsonObj.getJSONObject("margin_balances");
-            marginBalancesOptional = JSONUtil.deserializeObject(marginBalancesObj.toString(), MarginBalances.class);
-        }
+        final HTTPQuery httpQuery = new HTTPQuery(currentSession.getEndpoint("account"), ImmutableMap.of(), currentSession.getHeaders());
 
-        if (!marginBalancesOptional.isPresent()) {
-            throw new RobinhoodException("Bad response from Robinhood.");
-        }
+        return requestCoalescer.execute(httpQuery, () -> {
+            final Optional<HTTPResult> httpResult = this.httpClient.executeHTTPGetRequest(httpQuery);
 
-        log.info("Got buying power of {}", marginBalancesOptional.get());
+            if (!httpResult.isPresent()) {
+                throw new RobinhoodException("Bad response from Robinhood.");
+            }
 
-        return marginBalancesOptional.get();
+            return parseWithSession(currentSession, httpResult.get(), ResponseParser::parseMarginBalances);
+        });
     }
 
     @Override
-    public Set<Instrument> getAllInstruments() {
-
-        String instrumentsURL = endpoints.get("instruments");
-
-        final Set<Instrument> allInstruments = new HashSet<>();
-
-        final Collection<HTTPResult> httpResults = scrapePaginatedAPI(instrumentsURL, ImmutableMap.of(), headers);
+    public Set<Instrument> getAllInstruments() throws RobinhoodException {
+        return timed(APIMethod.GET_ALL_INSTRUMENTS, this::fetchAllInstruments);
+    }
 
-        for (final HTTPResult httpResult : httpResults) {
-            final JSONObject callResult = new JSONObject(httpResult.getBody());
+    private Set<Instrument> fetchAllInstruments() throws RobinhoodException {
+        final RobinhoodSession currentSession = session.get();
 
-            final JSONArray instrumentsListObj = callResult.getJSONArray("results");
+        String instrumentsURL = currentSession.getEndpoint("instruments");
 
-            for (final Object instrumentObj : instrumentsListObj) {
-                if (!(instrumentObj instanceof JSONObject)) {
-                    continue;
-                }
+        final Set<Instrument> allInstruments = new HashSet<>();
 
-                Optional<Instrument> instrumentOptional = JSONUtil.deserializeObject(instrumentObj.toString(), Instrument.class);
+        final ScrapeProgress progress =
+                paginatedScraper.scrape(instrumentsURL, ImmutableMap.of(), currentSession.getHeaders(), Instrument.class, allInstruments::add);
 
-                if (!instrumentOptional.isPresent()) {
-                    log.warn("Could not deserialize instrument {}", instrumentObj);
-                    continue;
-                }
+        // Whatever did arrive is still worth caching.
+        instrumentCache.putAll(allInstruments);
 
-                allInstruments.add(instrumentOptional.get());
-            }
-        }
+        requireComplete(currentSession, progress);
 
         return allInstruments;
     }
 
-    private Collection<HTTPResult> scrapePaginatedAPI(final String url, final Map<String, String> parameters, final Map<String, String> headers) {
-        final Set<HTTPResult> httpResults = new HashSet<>();
+    /**
+     * Warms the instrument cache from a local snapshot, then, unless the snapshot is younger than
+     * {@code maxSnapshotAgeMillis}, re-scrapes the universe on {@code executor}. The refresh updates the cache page by
+     * page as records arrive and replaces the snapshot once the scrape completes.
+     */
+    public CompletableFuture<Void> warmInstrumentCache(final InstrumentSnapshotStore snapshotStore,
+                                                       final long maxSnapshotAgeMillis,
+                                                       final Executor executor) {
+        final Optional<InstrumentSnapshot> snapshot = snapshotStore.load();
 
-        String urlToQuery = url;
+        snapshot.ifPresent(instrumentSnapshot -> instrumentCache.putAll(instrumentSnapshot.getInstruments()));
 
-        while (urlToQuery != null && !"null".equalsIgnoreCase(urlToQuery)) {
-            log.info("Scraping paginated URL {} all instruments, have {} results so far.", urlToQuery, httpResults.size());
-
-            final Optional<HTTPResult> getResult = this.httpClient.executeHTTPGetRequest(new HTTPQuery(urlToQuery, parameters, headers));
-
-            if (!getResult.isPresent()) {
-                break;
-            }
+        if (snapshot.isPresent() && snapshot.get().getAgeMillis() < maxSnapshotAgeMillis) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-            final JSONObject callResult = new JSONObject(getResult.get().getBody());
+        return CompletableFuture.runAsync(() -> {
+            final RobinhoodSession currentSession = session.get();
+            final List<Instrument> instruments = new ArrayList<>();
 
-            final int sleepSeconds = Integer.valueOf(getResult.get().getHeaders().getOrDefault("Retry-After", "0"));
+            final ScrapeProgress progress =
+                    paginatedScraper.scrape(currentSession.getEndpoint("instruments"), ImmutableMap.of(), currentSession.getHeaders(), Instrument.class, instrument -> {
+                        instrumentCache.put(instrument);
+                        instruments.add(instrument);
+                    });
 
-            if (sleepSeconds > 0) {
-                try {
-                    Thread.sleep(sleepSeconds * 1000);
-                } catch (final InterruptedException e) {
-                    log.warn(e.getMessage(), e);
-                }
-                continue;
+            if (progress.isFailed()) {
+                log.warn("Not replacing instrument snapshot after incomplete scrape {}", progress);
+                return;
             }
 
-            httpResults.add(getResult.get());
-
-            urlToQuery = String.valueOf(callResult.get("next"));
-        }
+            try {
+                snapshotStore.save(instruments);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
 
-        return httpResults;
+    /**
+     * Streams the instrument universe page by page instead of collecting it. Close the stream to stop early.
+     */
+    public Stream<Instrument> streamAllInstruments() {
+        final RobinhoodSession currentSession = session.get();
+        return paginatedScraper.stream(currentSession.getEndpoint("instruments"), ImmutableMap.of(), currentSession.getHeaders(), Instrument.class);
     }
 
     @Override
     public List<Position> getPositions() throws RobinhoodException {
-        verifyLoginStatus();
+        return timed(APIMethod.GET_POSITIONS, this::fetchPositions);
+    }
+
+    private List<Position> fetchPositions() throws RobinhoodException {
+        final RobinhoodSession currentSession = verifyLoginStatus();
 
         log.info("Getting owned assets.");
 
         final List<Position> positions = new ArrayList<>();
 
-        final Collection<HTTPResult> httpResults = scrapePaginatedAPI(endpoints.get("positions"), ImmutableMap.of(), headers);
-
-        for (final HTTPResult httpResult : httpResults) {
-            final JSONObject jsonResult = new JSONObject(httpResult.getBody());
-
-            final JSONArray instrumentsListObj = jsonResult.getJSONArray("results");
-
-
-            for (final Object positionObj : instrumentsListObj) {
-                if (!(positionObj instanceof JSONObject)) {
-                    continue;
-                }
-
-                Optional<Position> positionOptional = JSONUtil.deserializeObject(positionObj.toString(), Position.class);
-
-                if (!positionOptional.isPresent()) {
-                    log.warn("Could not deserialize position {}", positionOptional);
-                    continue;
-                }
-
-                final Position position = positionOptional.get();
+        final ScrapeProgress progress =
+                paginatedScraper.scrape(currentSession.getEndpoint("positions"), ImmutableMap.of(), currentSession.getHeaders(), Position.class, position -> {
+                    if (ResponseParser.isOpenPosition(position)) {
+                        positions.add(position);
+                    }
+                });
 
-                if (Double.valueOf(position.getQuantity()).equals(0d)) {
-                    continue;
-                }
-
-                positions.add(position);
-            }
-        }
+        requireComplete(currentSession, progress);
 
         return positions;
     }
 
     @Override
     public Collection<Order> getOrdersAfterDate(final Date date) throws RobinhoodException {
-        verifyLoginStatus();
-
-        final Collection<Order> allOrders = new HashSet<>();
-
-        final String dateStr = TimeUtil.createStrFromDate(date, "yyyy-MM-dd'T'HH:mm:ss.000000'Z'");
-
-        final Collection<HTTPResult> httpResults = scrapePaginatedAPI(endpoints.get("orders"), ImmutableMap.of("updated_at[gte]", dateStr), headers);
+        return timed(APIMethod.GET_ORDERS_AFTER_DATE, () -> fetchOrdersAfterDate(date));
+    }
 
-        for (final HTTPResult httpResult : httpResults) {
-            log.info("Getting all orders, have {} so far.", allOrders.size());
+    private Collection<Order> fetchOrdersAfterDate(final Date date) throws RobinhoodException {
+        final RobinhoodSession currentSession = verifyLoginStatus();
 
-            final JSONObject callResult = new JSONObject(httpResult.getBody());
+        final Collection<Order> allOrders = new HashSet<>();
 
-            final JSONArray ordersListObj = callResult.getJSONArray("results");
+        final String dateStr = TimeUtil.createUTCStrFromDate(date, "yyyy-MM-dd'T'HH:mm:ss.000000'Z'");
 
-            for (final Object ordersObj : ordersListObj) {
-                if (!(ordersObj instanceof JSONObject)) {
-                    continue;
-                }
+        final ScrapeProgress progress =
+                paginatedScraper.scrape(currentSession.getEndpoint("orders"), ImmutableMap.of("updated_at[gte]", dateStr), currentSession.getHeaders(), Order.class, allOrders::add);
 
-                Optional<Order> order = JSONUtil.deserializeObject(ordersObj.toString(), Order.class);
+        requireComplete(currentSession, progress);
 
-                if (!order.isPresent()) {
-                    log.warn("Could not deserialize order {}", ordersObj);
-                    continue;
-                }
-
-                allOrders.add(order.get());
-            }
-        }
+        log.info("Got {} orders.", allOrders.size());
 
         return allOrders;
     }
 
     @Override
     public MarketState getMarketStateForDate(final DateTime dateTime) throws RobinhoodException {
+        return timed(APIMethod.GET_MARKET_STATE_FOR_DATE, () -> {
+            final String dateString = MarketStateCache.toDateString(dateTime);
+            final Optional<MarketState> cachedMarketState = marketStateCache.get(dateString);
+            if (cachedMarketState.isPresent()) {
+                return cachedMarketState.get();
+            }
+            return requestMarketState(dateString);
+        });
+    }
 
-        final DateTimeFormatter formatter = DateTimeFormat.forPattern("yyyy-MM-dd");
-        final String dateString = formatter.print(dateTime);
-        final String url = String.format("%s%s%s", endpoints.get("markets"), "XNAS/hours/", dateString);
+    /**
+     * Always asks Robinhood, then replaces the cached market state for the date with the answer.
+     */
+    @Override
+    public MarketState fetchMarketStateForDate(final DateTime dateTime) throws RobinhoodException {
+        return timed(APIMethod.GET_MARKET_STATE_FOR_DATE, () -> requestMarketState(MarketStateCache.toDateString(dateTime)));
+    }
 
-        final Optional<HTTPResult> getResult = this.httpClient.executeHTTPGetRequest(new HTTPQuery(url, ImmutableMap.of(), headers));
+    private MarketState requestMarketState(final String dateString) throws RobinhoodException {
+        final RobinhoodSession currentSession = session.get();
+        final String url = String.format("%s%s%s", currentSession.getEndpoint("markets"), "XNAS/hours/", dateString);
 
-        if (!getResult.isPresent()) {
-            throw new RobinhoodException("Bad response from Robinhood.");
-        }
+        final HTTPQuery httpQuery = new HTTPQuery(url, ImmutableMap.of(), currentSession.getHeaders());
 
-        final Optional<Map<String, String>> responseObject =
-                JSONUtil.deserializeString(getResult.get().getBody(), new TypeReference<Map<String, String>>() {});
+        return requestCoalescer.execute(httpQuery, () -> {
+            final Optional<HTTPResult> getResult = this.httpClient.executeHTTPGetRequest(httpQuery);
 
-        if (!responseObject.isPresent()) {
-            throw new RobinhoodException(String.format("Unable to deserialize response of [%s]", getResult));
-        }
+            if (!getResult.isPresent()) {
+                throw new RobinhoodException("Bad response from Robinhood.");
+            }
 
-        return new MarketState(responseObject.get());
+            final MarketState marketState = ResponseParser.parseMarketState(getResult.get());
+            marketStateCache.put(dateString, marketState);
+            return marketState;
+        });
     }
 
 }
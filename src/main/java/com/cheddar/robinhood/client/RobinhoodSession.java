@@ -0,0 +1,62 @@
+package com.cheddar.robinhood.client;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import lombok.Data;
+import lombok.ToString;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the request headers (including the auth token once logged in) and the endpoints known to a
+ * {@link RobinhoodClient}. A session is never modified in place; logging in produces a new one that is published
+ * atomically, so a reader always sees either the whole logged-in state or none of it.
+ */
+@Data
+@ToString(exclude = "headers")
+public class RobinhoodSession {
+
+    private static final List<String> REQUIRED_ENDPOINT_KEYS = ImmutableList.of("positions", "portfolio", "account");
+
+    private final ImmutableMap<String, String> headers;
+    private final ImmutableMap<String, String> endpoints;
+    private final long createdAtMillis;
+
+    public RobinhoodSession(final Map<String, String> headers, final Map<String, String> endpoints) {
+        this.headers = ImmutableMap.copyOf(headers);
+        this.endpoints = ImmutableMap.copyOf(endpoints);
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    public boolean isLoggedIn() {
+        if (!headers.containsKey("Authorization")) {
+            return false;
+        }
+
+        for (final String key : REQUIRED_ENDPOINT_KEYS) {
+            if (!endpoints.containsKey(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getEndpoint(final String name) {
+        return endpoints.get(name);
+    }
+
+    public RobinhoodSession withAuthToken(final String authToken) {
+        final Map<String, String> newHeaders = new HashMap<>(headers);
+        newHeaders.put("Authorization", "Token " + authToken);
+        return new RobinhoodSession(newHeaders, endpoints);
+    }
+
+    public RobinhoodSession withEndpoints(final Map<String, String> additionalEndpoints) {
+        final Map<String, String> newEndpoints = new HashMap<>(endpoints);
+        newEndpoints.putAll(additionalEndpoints);
+        return new RobinhoodSession(headers, newEndpoints);
+    }
+
+}
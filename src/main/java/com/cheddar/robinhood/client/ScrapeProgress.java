@@ -0,0 +1,87 @@
+package com.cheddar.robinhood.client;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters for one paginated scrape. Safe to read from any thread while the scrape is running.
+ */
+public class ScrapeProgress {
+
+    @Getter
+    private final String url;
+
+    @Getter
+    private final long startedAtMillis = System.currentTimeMillis();
+
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong throttles = new AtomicLong();
+
+    private volatile long finishedAtMillis;
+    private volatile boolean failed;
+    private volatile int failureStatusCode;
+
+    ScrapeProgress(final String url) {
+        this.url = url;
+    }
+
+    void pageDecoded() {
+        pages.incrementAndGet();
+    }
+
+    void recordDecoded() {
+        records.incrementAndGet();
+    }
+
+    void throttled() {
+        throttles.incrementAndGet();
+    }
+
+    void pageRejected(final int statusCode) {
+        this.failureStatusCode = statusCode;
+    }
+
+    void finished(final boolean failed) {
+        this.failed = failed;
+        this.finishedAtMillis = System.currentTimeMillis();
+    }
+
+    public long getPages() {
+        return pages.get();
+    }
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    public long getThrottles() {
+        return throttles.get();
+    }
+
+    public boolean isFinished() {
+        return finishedAtMillis > 0;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * The status of the page that ended a failed scrape, or 0 if it failed without a response.
+     */
+    public int getFailureStatusCode() {
+        return failureStatusCode;
+    }
+
+    public long getElapsedMillis() {
+        return (isFinished() ? finishedAtMillis : System.currentTimeMillis()) - startedAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScrapeProgress(url=%s, pages=%d, records=%d, throttles=%d, elapsedMillis=%d, finished=%s, failed=%s, failureStatusCode=%d)",
+                             url, getPages(), getRecords(), getThrottles(), getElapsedMillis(), isFinished(), failed, failureStatusCode);
+    }
+}
@@ -1,5 +1,7 @@
 package com.cheddar.robinhood.data;
 
+import com.cheddar.util.TimeUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -20,4 +22,12 @@ public class EquityHistorical {
 
     private double open_market_value;
     private double close_market_value;
+
+    /**
+     * {@code begins_at} in epoch millis, or {@link TimeUtil#NO_TIME} if absent.
+     */
+    @JsonIgnore
+    public long getBeginsAtMillis() {
+        return TimeUtil.parseISO8601MillisOrNoTime(begins_at);
+    }
 }
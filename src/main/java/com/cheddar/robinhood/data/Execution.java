@@ -1,14 +1,24 @@
 package com.cheddar.robinhood.data;
 
 
+import com.cheddar.util.EpochMillisDeserializer;
+import com.cheddar.util.TimeUtil;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * One fill of an {@link Order}. Numbers are decoded from Robinhood's decimal strings and {@code timestamp} to epoch
+ * millis while the JSON is read.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Execution {
-    private String quantity;
-    private String timestamp;
+    private double quantity;
+    private double price;
+
+    @JsonDeserialize(using = EpochMillisDeserializer.class)
+    private long timestamp = TimeUtil.NO_TIME;
 }
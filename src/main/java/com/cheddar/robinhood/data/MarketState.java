@@ -1,10 +1,15 @@
 package com.cheddar.robinhood.data;
 
 import com.cheddar.util.TimeUtil;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTime;
 
+import java.time.Clock;
 import java.util.Map;
 import java.util.Optional;
 
@@ -21,101 +26,115 @@ import java.util.Optional;
    }
 **/
 
+/**
+ * One trading day. The times are parsed once, on construction, into epoch millis; the open and after-hours checks
+ * then only compare longs, so they are cheap enough for tight polling loops.
+ */
 @Data
-@AllArgsConstructor
+@EqualsAndHashCode(of = "robinhoodDay")
+@ToString(of = "robinhoodDay")
+@Slf4j
 public class MarketState {
 
-    private Map<String, String> robinhoodDay;
+    /**
+     * Millis value for a time that is missing, unparseable or irrelevant because the market is closed all day.
+     */
+    public static final long NO_TIME = TimeUtil.NO_TIME;
 
-    public boolean isOpenThisDay() {
-        return Boolean.parseBoolean(robinhoodDay.getOrDefault("is_open", "false"));
-    }
+    private final Map<String, String> robinhoodDay;
 
-    public boolean isOpenNow() {
-        if (isOpenThisDay()) {
-            final Optional<DateTime> openTime = getExtendedOpenTime();
-            final Optional<DateTime> closeTime = getExtendedCloseTime();
+    @Getter(AccessLevel.NONE)
+    private final Clock clock;
 
-            final DateTime now = new DateTime();
+    private final boolean openThisDay;
+    private final long opensAtMillis;
+    private final long closesAtMillis;
+    private final long extendedOpensAtMillis;
+    private final long extendedClosesAtMillis;
 
-            if (openTime.isPresent() && closeTime.isPresent() &&
-                now.isAfter(openTime.get()) && now.isBefore(closeTime.get())) {
-                return true;
-            }
-        }
+    public MarketState(final Map<String, String> robinhoodDay) {
+        this(robinhoodDay, Clock.systemUTC());
+    }
 
-        return false;
+    /**
+     * @param clock the source of "now" for {@link #isOpenNow()} and {@link #isAfterHoursNow()}
+     */
+    public MarketState(final Map<String, String> robinhoodDay, final Clock clock) {
+        this.robinhoodDay = robinhoodDay;
+        this.clock = clock;
+        this.openThisDay = Boolean.parseBoolean(robinhoodDay.getOrDefault("is_open", "false"));
+        this.opensAtMillis = parseMillis("opens_at");
+        this.closesAtMillis = parseMillis("closes_at");
+        this.extendedOpensAtMillis = parseMillis("extended_opens_at");
+        this.extendedClosesAtMillis = parseMillis("extended_closes_at");
     }
 
-    public boolean isAfterHoursNow() {
-        if (isOpenThisDay()) {
-            final Optional<DateTime> extendedOpenTime = getExtendedOpenTime();
-            final Optional<DateTime> extendedCloseTime = getExtendedCloseTime();
+    private long parseMillis(final String key) {
+        final String value = robinhoodDay.get(key);
+        if (!openThisDay || value == null) {
+            return NO_TIME;
+        }
 
-            final Optional<DateTime> regularOpenTime = getOpenTime();
-            final Optional<DateTime> regularCloseTime = getCloseTime();
+        try {
+            return TimeUtil.parseISO8601Millis(value);
+        } catch (final IllegalArgumentException e) {
+            log.warn(e.getMessage());
+            return NO_TIME;
+        }
+    }
 
-            if (!extendedOpenTime.isPresent() || !extendedCloseTime.isPresent() ||
-                    !regularOpenTime.isPresent() || !regularCloseTime.isPresent()) {
-                return false;
-            }
+    public boolean isOpenThisDay() {
+        return openThisDay;
+    }
 
-            final DateTime now = new DateTime();
+    public boolean isOpenNow() {
+        return isOpenAt(clock.millis());
+    }
 
-            if ( (now.isAfter(extendedOpenTime.get()) && now.isBefore(regularOpenTime.get())) ||
-                 (now.isAfter(regularCloseTime.get()) && now.isBefore(extendedCloseTime.get())) ) {
-                return true;
-            }
-        }
+    /**
+     * Whether {@code epochMillis} falls inside the day's extended session, which includes regular hours.
+     */
+    public boolean isOpenAt(final long epochMillis) {
+        return isBetween(epochMillis, extendedOpensAtMillis, extendedClosesAtMillis);
+    }
 
-        return false;
+    public boolean isAfterHoursNow() {
+        return isAfterHoursAt(clock.millis());
     }
 
-    public Optional<DateTime> getOpenTime() {
-        if (!isOpenThisDay()) {
-            return Optional.empty();
+    /**
+     * Whether {@code epochMillis} falls in the pre-market or after-hours part of the extended session.
+     */
+    public boolean isAfterHoursAt(final long epochMillis) {
+        if (opensAtMillis == NO_TIME || closesAtMillis == NO_TIME) {
+            return false;
         }
 
-        String opensAt = robinhoodDay.get("opens_at");
+        return isBetween(epochMillis, extendedOpensAtMillis, opensAtMillis) ||
+               isBetween(epochMillis, closesAtMillis, extendedClosesAtMillis);
+    }
 
-        Optional<DateTime> date = TimeUtil.createDateFromStr("yyyy-MM-dd'T'HH:mm:ssX", opensAt);
+    private static boolean isBetween(final long epochMillis, final long afterMillis, final long beforeMillis) {
+        return afterMillis != NO_TIME && beforeMillis != NO_TIME && epochMillis > afterMillis && epochMillis < beforeMillis;
+    }
 
-        return date;
+    public Optional<DateTime> getOpenTime() {
+        return toDateTime(opensAtMillis);
     }
 
     public Optional<DateTime> getCloseTime() {
-        if (!isOpenThisDay()) {
-            return Optional.empty();
-        }
-
-        String closesAt = robinhoodDay.get("closes_at");
-
-        Optional<DateTime> date = TimeUtil.createDateFromStr("yyyy-MM-dd'T'HH:mm:ssX", closesAt);
-
-        return date;
+        return toDateTime(closesAtMillis);
     }
 
     public Optional<DateTime> getExtendedOpenTime() {
-        if (!isOpenThisDay()) {
-            return Optional.empty();
-        }
-
-        String opensAt = robinhoodDay.get("extended_opens_at");
-
-        Optional<DateTime> date = TimeUtil.createDateFromStr("yyyy-MM-dd'T'HH:mm:ssX", opensAt);
-
-        return date;
+        return toDateTime(extendedOpensAtMillis);
     }
 
     public Optional<DateTime> getExtendedCloseTime() {
-        if (!isOpenThisDay()) {
-            return Optional.empty();
-        }
-
-        String closesAt = robinhoodDay.get("extended_closes_at");
-
-        Optional<DateTime> date = TimeUtil.createDateFromStr("yyyy-MM-dd'T'HH:mm:ssX", closesAt);
+        return toDateTime(extendedClosesAtMillis);
+    }
 
-        return date;
+    private static Optional<DateTime> toDateTime(final long epochMillis) {
+        return epochMillis == NO_TIME ? Optional.empty() : Optional.of(new DateTime(epochMillis));
     }
 }
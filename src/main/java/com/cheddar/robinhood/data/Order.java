@@ -1,27 +1,88 @@
 package com.cheddar.robinhood.data;
 
+import com.cheddar.util.EpochMillisDeserializer;
+import com.cheddar.util.TimeUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * An order as Robinhood reports it. Prices and quantities are decoded from decimal strings, timestamps to epoch millis
+ * ({@link TimeUtil#NO_TIME} when absent) and {@code side}/{@code state} to enums while the JSON is read, so nothing
+ * needs re-parsing afterwards. A price Robinhood leaves null, such as {@code average_price} before any fill, is 0; a
+ * null {@code side} or {@code state} is {@code UNKNOWN} and null {@code executions} an empty list.
+ */
 @Data
-@AllArgsConstructor
+// Hidden from Jackson, which would otherwise bind through it and bypass the null handling in the setters.
+@AllArgsConstructor(onConstructor = @__(@JsonIgnore))
 public class Order {
     private String id;
-    private String state;
-    private String created_at;
-    private String average_price;
-    private String price;
+    private OrderState state = OrderState.UNKNOWN;
+    private OrderSide side = OrderSide.UNKNOWN;
+
+    @JsonDeserialize(using = EpochMillisDeserializer.class)
+    private long created_at = TimeUtil.NO_TIME;
+
+    @JsonDeserialize(using = EpochMillisDeserializer.class)
+    private long updated_at = TimeUtil.NO_TIME;
+
+    private double average_price;
+    private double price;
+    private double quantity;
+    private double cumulative_quantity;
     private String url;
-    private String side;
     private String instrument;
-    private String quantity;
     private List<Execution> executions = new ArrayList<>();
 
     public Order() {
 
     }
+
+    public void setState(final OrderState state) {
+        this.state = state == null ? OrderState.UNKNOWN : state;
+    }
+
+    public void setSide(final OrderSide side) {
+        this.side = side == null ? OrderSide.UNKNOWN : side;
+    }
+
+    public void setExecutions(final List<Execution> executions) {
+        this.executions = executions == null ? new ArrayList<>() : executions;
+    }
+
+    /**
+     * Shares filled so far, summed over {@code executions}.
+     */
+    @JsonIgnore
+    public double getFilledQuantity() {
+        double filledQuantity = 0;
+        for (int i = 0; i < executions.size(); ++i) {
+            filledQuantity += executions.get(i).getQuantity();
+        }
+        return filledQuantity;
+    }
+
+    /**
+     * Volume-weighted average fill price over {@code executions}, or NaN if nothing has filled.
+     */
+    @JsonIgnore
+    public double getVolumeWeightedAveragePrice() {
+        double notional = 0;
+        double filledQuantity = 0;
+        for (int i = 0; i < executions.size(); ++i) {
+            final Execution execution = executions.get(i);
+            notional += execution.getQuantity() * execution.getPrice();
+            filledQuantity += execution.getQuantity();
+        }
+        return filledQuantity == 0 ? Double.NaN : notional / filledQuantity;
+    }
+
+    @JsonIgnore
+    public double getRemainingQuantity() {
+        return Math.max(0, quantity - getFilledQuantity());
+    }
 }
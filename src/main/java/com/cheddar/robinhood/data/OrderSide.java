@@ -0,0 +1,36 @@
+package com.cheddar.robinhood.data;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum OrderSide {
+    BUY("buy"),
+    SELL("sell"),
+    UNKNOWN("unknown");
+
+    private static final OrderSide[] SIDES = values();
+
+    private final String apiValue;
+
+    OrderSide(final String apiValue) {
+        this.apiValue = apiValue;
+    }
+
+    /**
+     * The value Robinhood uses on the wire.
+     */
+    @JsonValue
+    public String getApiValue() {
+        return apiValue;
+    }
+
+    @JsonCreator
+    public static OrderSide fromApiValue(final String apiValue) {
+        for (final OrderSide side : SIDES) {
+            if (side.apiValue.equalsIgnoreCase(apiValue)) {
+                return side;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,53 @@
+package com.cheddar.robinhood.data;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+
+/**
+ * Order lifecycle states. A state Robinhood adds later decodes as {@link #UNKNOWN} rather than failing the order.
+ */
+public enum OrderState {
+    QUEUED("queued", false),
+    UNCONFIRMED("unconfirmed", false),
+    CONFIRMED("confirmed", false),
+    PARTIALLY_FILLED("partially_filled", false),
+    FILLED("filled", true),
+    CANCELLED("cancelled", true),
+    REJECTED("rejected", true),
+    FAILED("failed", true),
+    UNKNOWN("unknown", false);
+
+    private static final OrderState[] STATES = values();
+
+    private final String apiValue;
+
+    /**
+     * Whether the order can no longer change.
+     */
+    @Getter
+    private final boolean terminal;
+
+    OrderState(final String apiValue, final boolean terminal) {
+        this.apiValue = apiValue;
+        this.terminal = terminal;
+    }
+
+    /**
+     * The value Robinhood uses on the wire.
+     */
+    @JsonValue
+    public String getApiValue() {
+        return apiValue;
+    }
+
+    @JsonCreator
+    public static OrderState fromApiValue(final String apiValue) {
+        for (final OrderState state : STATES) {
+            if (state.apiValue.equalsIgnoreCase(apiValue)) {
+                return state;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,24 @@
+package com.cheddar.robinhood.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Quotes for a batch of symbols, in the order they were requested, plus the symbols that could not be quoted
+ * (either because their chunk failed or because Robinhood returned no quote for them).
+ */
+@Data
+@AllArgsConstructor
+public class QuoteBatch {
+    private final List<Quote> quotes;
+    private final Set<String> failedSymbols;
+    private final int failedChunks;
+    private final int totalChunks;
+
+    public boolean isComplete() {
+        return failedSymbols.isEmpty();
+    }
+}
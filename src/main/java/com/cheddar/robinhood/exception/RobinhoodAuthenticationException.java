@@ -0,0 +1,15 @@
+package com.cheddar.robinhood.exception;
+
+/**
+ * The session's token was missing, expired or rejected (401/403).
+ */
+public class RobinhoodAuthenticationException extends RobinhoodHTTPException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RobinhoodAuthenticationException(final int statusCode, final String message)
+    {
+        super(statusCode, message);
+    }
+
+}
@@ -3,9 +3,16 @@ package com.cheddar.robinhood.exception;
 
 public class RobinhoodException extends Exception {
 
+    private static final long serialVersionUID = 1L;
+
     public RobinhoodException(final String message)
     {
         super(message);
     }
 
+    public RobinhoodException(final String message, final Throwable cause)
+    {
+        super(message, cause);
+    }
+
 }
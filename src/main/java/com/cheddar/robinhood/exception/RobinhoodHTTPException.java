@@ -0,0 +1,22 @@
+package com.cheddar.robinhood.exception;
+
+import lombok.Getter;
+
+/**
+ * Robinhood answered with an error status. Raised before the body is handed to any parser; the start of the body is
+ * kept in the message since Robinhood explains most rejections there.
+ */
+public class RobinhoodHTTPException extends RobinhoodException {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final int statusCode;
+
+    public RobinhoodHTTPException(final int statusCode, final String message)
+    {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+}
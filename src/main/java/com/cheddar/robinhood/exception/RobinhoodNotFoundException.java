@@ -0,0 +1,15 @@
+package com.cheddar.robinhood.exception;
+
+/**
+ * The requested resource does not exist (404).
+ */
+public class RobinhoodNotFoundException extends RobinhoodHTTPException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RobinhoodNotFoundException(final int statusCode, final String message)
+    {
+        super(statusCode, message);
+    }
+
+}
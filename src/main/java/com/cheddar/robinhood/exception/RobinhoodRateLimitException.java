@@ -0,0 +1,21 @@
+package com.cheddar.robinhood.exception;
+
+import lombok.Getter;
+
+/**
+ * Robinhood is throttling us (429). {@link #getRetryAfterSeconds()} is zero when no Retry-After was given.
+ */
+public class RobinhoodRateLimitException extends RobinhoodHTTPException {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final int retryAfterSeconds;
+
+    public RobinhoodRateLimitException(final int statusCode, final String message, final int retryAfterSeconds)
+    {
+        super(statusCode, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
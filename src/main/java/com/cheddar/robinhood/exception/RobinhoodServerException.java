@@ -0,0 +1,15 @@
+package com.cheddar.robinhood.exception;
+
+/**
+ * Robinhood failed to handle the request (5xx).
+ */
+public class RobinhoodServerException extends RobinhoodHTTPException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RobinhoodServerException(final int statusCode, final String message)
+    {
+        super(statusCode, message);
+    }
+
+}
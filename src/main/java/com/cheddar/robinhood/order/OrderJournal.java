@@ -0,0 +1,107 @@
+package com.cheddar.robinhood.order;
+
+import com.cheddar.robinhood.data.Order;
+import com.cheddar.util.JSONUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * An append-only file of order versions, one JSON document per line. Replaying it in order and keeping the newest
+ * version of each order rebuilds an {@link OrderStore}; a torn last line from a crash is skipped. {@link #rewrite}
+ * compacts the file down to the current versions.
+ */
+@Slf4j
+public class OrderJournal {
+
+    @Getter
+    private final Path journalPath;
+
+    public OrderJournal(final Path journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * Feeds every readable order version to {@code consumer}, oldest first. Returns the number of lines replayed.
+     */
+    public int replay(final Consumer<Order> consumer) throws IOException {
+        if (!Files.isReadable(journalPath)) {
+            return 0;
+        }
+
+        int replayed = 0;
+        try (final BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                final Optional<Order> order = JSONUtil.deserializeObject(line, Order.class);
+                if (order.isPresent()) {
+                    consumer.accept(order.get());
+                    ++replayed;
+                } else {
+                    log.warn("Skipping unreadable line in order journal {}", journalPath);
+                }
+            }
+        }
+        return replayed;
+    }
+
+    public void append(final Collection<Order> orders) throws IOException {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        final Path parent = journalPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                                                                   StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            write(writer, orders);
+        }
+    }
+
+    /**
+     * Replaces the journal with exactly {@code orders}, via a temporary file moved into place.
+     */
+    public void rewrite(final Collection<Order> orders) throws IOException {
+        final Path parent = journalPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        final Path tempPath = Files.createTempFile(parent, journalPath.getFileName().toString(), ".tmp");
+
+        try {
+            try (final BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+                write(writer, orders);
+            }
+
+            Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private static void write(final Writer writer, final Collection<Order> orders) throws IOException {
+        for (final Order order : orders) {
+            final Optional<String> json = JSONUtil.serializeCompact(order);
+            if (json.isPresent()) {
+                writer.write(json.get());
+                writer.write('\n');
+            }
+        }
+    }
+
+}
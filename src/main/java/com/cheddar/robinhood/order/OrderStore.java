@@ -0,0 +1,143 @@
+package com.cheddar.robinhood.order;
+
+import com.cheddar.robinhood.RobinhoodAPI;
+import com.cheddar.robinhood.data.Order;
+import com.cheddar.robinhood.exception.RobinhoodException;
+import com.cheddar.util.TimeUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Order history kept locally by id and brought up to date incrementally. Each {@link #sync} asks only for orders
+ * updated at or after the newest {@code updated_at} already held, so a pass costs O(changes) rather than O(history).
+ * Newer versions of an order replace older ones; a version that is not newer is ignored.
+ *
+ * With an {@link OrderJournal} every accepted version is appended to disk and {@link #load} rebuilds the store from
+ * it, so a restart resumes from its high-water mark instead of downloading the whole history again.
+ */
+@Slf4j
+public class OrderStore {
+
+    private final RobinhoodAPI robinhoodAPI;
+    private final Optional<OrderJournal> journal;
+
+    private final Map<String, Order> ordersById = new ConcurrentHashMap<>();
+
+    private volatile long highWaterMarkMillis = TimeUtil.NO_TIME;
+
+    public OrderStore(final RobinhoodAPI robinhoodAPI) {
+        this(robinhoodAPI, null);
+    }
+
+    /**
+     * @param journal where to persist order versions, or null to keep them in memory only
+     */
+    public OrderStore(final RobinhoodAPI robinhoodAPI, final OrderJournal journal) {
+        this.robinhoodAPI = robinhoodAPI;
+        this.journal = Optional.ofNullable(journal);
+    }
+
+    /**
+     * Replays the journal, if any. Returns the number of orders held afterwards.
+     */
+    public synchronized int load() throws IOException {
+        if (journal.isPresent()) {
+            final int replayed = journal.get().replay(this::merge);
+            log.info("Replayed {} order versions into {} orders, high-water mark {}.", replayed, ordersById.size(), highWaterMarkMillis);
+        }
+        return ordersById.size();
+    }
+
+    /**
+     * Fetches orders updated since the high-water mark (the whole history on the first sync), merges them and returns
+     * the ones that were new or changed. The mark only moves once every page has been read: a sync that fails partway
+     * merges nothing, so the next one asks for the same orders again.
+     *
+     * @throws RobinhoodException if any page could not be fetched; the store is then unchanged
+     */
+    public synchronized List<Order> sync() throws RobinhoodException {
+        final long sinceMillis = highWaterMarkMillis == TimeUtil.NO_TIME ? 0 : highWaterMarkMillis;
+
+        final Collection<Order> fetched = robinhoodAPI.getOrdersAfterDate(new Date(sinceMillis));
+
+        final List<Order> changed = new ArrayList<>();
+        long fetchedHighWaterMarkMillis = highWaterMarkMillis;
+        for (final Order order : fetched) {
+            if (put(order)) {
+                changed.add(order);
+                fetchedHighWaterMarkMillis = Math.max(fetchedHighWaterMarkMillis, order.getUpdated_at());
+            }
+        }
+        highWaterMarkMillis = fetchedHighWaterMarkMillis;
+
+        if (journal.isPresent()) {
+            try {
+                journal.get().append(changed);
+            } catch (final IOException e) {
+                log.warn("Unable to append to order journal {} because {}", journal.get().getJournalPath(), e.getMessage(), e);
+            }
+        }
+
+        log.info("Order sync since {} changed {} orders.", sinceMillis, changed.size());
+        return changed;
+    }
+
+    /**
+     * Takes {@code order} unless a version at least as new is already held. Returns whether it was taken.
+     */
+    public synchronized boolean merge(final Order order) {
+        if (!put(order)) {
+            return false;
+        }
+
+        highWaterMarkMillis = Math.max(highWaterMarkMillis, order.getUpdated_at());
+        return true;
+    }
+
+    private boolean put(final Order order) {
+        if (order.getId() == null) {
+            return false;
+        }
+
+        final Order current = ordersById.get(order.getId());
+        if (current != null && (order.getUpdated_at() < current.getUpdated_at() ||
+                                (order.getUpdated_at() == current.getUpdated_at() && order.equals(current)))) {
+            return false;
+        }
+
+        ordersById.put(order.getId(), order);
+        return true;
+    }
+
+    /**
+     * Rewrites the journal to hold only the current version of each order.
+     */
+    public synchronized void compactJournal() throws IOException {
+        if (journal.isPresent()) {
+            journal.get().rewrite(ordersById.values());
+        }
+    }
+
+    public Optional<Order> get(final String id) {
+        return Optional.ofNullable(ordersById.get(id));
+    }
+
+    public Collection<Order> getOrders() {
+        return Collections.unmodifiableCollection(ordersById.values());
+    }
+
+    public int size() {
+        return ordersById.size();
+    }
+
+    /**
+     * The newest {@code updated_at} held, or {@link TimeUtil#NO_TIME} before anything has been synced.
+     */
+    public long getHighWaterMarkMillis() {
+        return highWaterMarkMillis;
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.cheddar.robinhood.order;
+
+import com.cheddar.robinhood.RobinhoodAPI;
+import com.cheddar.robinhood.data.Order;
+import com.cheddar.robinhood.data.OrderState;
+import com.cheddar.robinhood.exception.RobinhoodException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Follows placed orders until they reach a terminal state. Every tracked order is polled through
+ * {@link RobinhoodAPI#getOrderFromURL} from one scheduler, with the requests themselves run on a small shared pool;
+ * the interval adapts to the order as set out in {@link OrderTrackerConfig}. The future returned by {@link #track}
+ * completes with the terminal version of the order, and polling of that order stops. Cancelling the future stops
+ * polling too.
+ */
+@Slf4j
+public class OrderTracker implements Closeable {
+
+    private final RobinhoodAPI robinhoodAPI;
+    private final OrderTrackerConfig config;
+
+    private final ScheduledExecutorService pollScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("robinhood-order-poll-%d").build());
+    private final ExecutorService fetchExecutor;
+
+    private final Map<String, TrackedOrder> trackedOrders = new ConcurrentHashMap<>();
+
+    public OrderTracker(final RobinhoodAPI robinhoodAPI) {
+        this(robinhoodAPI, new OrderTrackerConfig());
+    }
+
+    public OrderTracker(final RobinhoodAPI robinhoodAPI, final OrderTrackerConfig config) {
+        this.robinhoodAPI = robinhoodAPI;
+        this.config = config;
+        this.fetchExecutor = Executors.newFixedThreadPool(config.getPollParallelism(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("robinhood-order-fetch-%d").build());
+    }
+
+    /**
+     * Starts polling {@code order}, typically as returned by {@code buyShares} or {@code sellShares}. Tracking an
+     * order that is already tracked returns the same future.
+     */
+    public CompletableFuture<Order> track(final Order order) {
+        if (order.getState().isTerminal()) {
+            return CompletableFuture.completedFuture(order);
+        }
+        if (order.getUrl() == null) {
+            final CompletableFuture<Order> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalArgumentException("Order " + order.getId() + " has no URL to poll."));
+            return failed;
+        }
+
+        final TrackedOrder newlyTracked = new TrackedOrder(order, System.currentTimeMillis());
+        final TrackedOrder tracked = trackedOrders.putIfAbsent(order.getUrl(), newlyTracked);
+        if (tracked != null) {
+            return tracked.future;
+        }
+
+        schedule(newlyTracked, config.getFastPollMillis());
+        return newlyTracked.future;
+    }
+
+    private void schedule(final TrackedOrder tracked, final long delayMillis) {
+        try {
+            pollScheduler.schedule(() -> fetchExecutor.execute(() -> poll(tracked)), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            untrack(tracked);
+        }
+    }
+
+    private void poll(final TrackedOrder tracked) {
+        if (tracked.future.isDone()) {
+            untrack(tracked);
+            return;
+        }
+
+        try {
+            final Optional<Order> latest = robinhoodAPI.getOrderFromURL(tracked.url);
+            if (latest.isPresent()) {
+                tracked.order = latest.get();
+            }
+        } catch (final RobinhoodException | RuntimeException e) {
+            log.warn("Unable to poll order {} because {}", tracked.order.getId(), e.getMessage());
+        }
+
+        if (tracked.order.getState().isTerminal()) {
+            untrack(tracked);
+            tracked.future.complete(tracked.order);
+            return;
+        }
+
+        schedule(tracked, nextPollMillis(tracked));
+    }
+
+    private long nextPollMillis(final TrackedOrder tracked) {
+        final boolean fresh = System.currentTimeMillis() - tracked.trackedAtMillis < config.getFastPeriodMillis();
+        return fresh || tracked.order.getState() == OrderState.PARTIALLY_FILLED ? config.getFastPollMillis() : config.getRestingPollMillis();
+    }
+
+    private void untrack(final TrackedOrder tracked) {
+        trackedOrders.remove(tracked.url, tracked);
+    }
+
+    public int getTrackedOrderCount() {
+        return trackedOrders.size();
+    }
+
+    /**
+     * Stops polling and cancels the futures of orders still open.
+     */
+    @Override
+    public void close() {
+        pollScheduler.shutdownNow();
+        fetchExecutor.shutdownNow();
+        for (final TrackedOrder tracked : trackedOrders.values()) {
+            tracked.future.cancel(false);
+        }
+        trackedOrders.clear();
+    }
+
+    private static class TrackedOrder {
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+        private final String url;
+        private final long trackedAtMillis;
+        private volatile Order order;
+
+        private TrackedOrder(final Order order, final long trackedAtMillis) {
+            this.url = order.getUrl();
+            this.order = order;
+            this.trackedAtMillis = trackedAtMillis;
+        }
+    }
+
+}
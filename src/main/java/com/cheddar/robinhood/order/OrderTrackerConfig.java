@@ -0,0 +1,16 @@
+package com.cheddar.robinhood.order;
+
+import lombok.Data;
+
+/**
+ * Poll intervals used by {@link OrderTracker}. An order is polled every {@code fastPollMillis} for its first
+ * {@code fastPeriodMillis} of tracking and while partially filled, and every {@code restingPollMillis} otherwise. All
+ * durations are in milliseconds.
+ */
+@Data
+public class OrderTrackerConfig {
+    private long fastPollMillis = 500;
+    private long fastPeriodMillis = 10 * 1000;
+    private long restingPollMillis = 5000;
+    private int pollParallelism = 4;
+}
@@ -0,0 +1,55 @@
+package com.cheddar.robinhood.stream;
+
+import com.cheddar.robinhood.data.Quote;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * What changed for one symbol between two polls. {@code previous} is null for the first quote seen for a symbol, in
+ * which case every field counts as changed.
+ */
+@Data
+@AllArgsConstructor
+public class QuoteChange {
+    private final String symbol;
+    private final Quote previous;
+    private final Quote current;
+    private final Set<QuoteField> changedFields;
+
+    public static Optional<QuoteChange> between(final Quote previous, final Quote current) {
+        if (previous == null) {
+            return Optional.of(new QuoteChange(current.getSymbol(), null, current, EnumSet.allOf(QuoteField.class)));
+        }
+
+        final EnumSet<QuoteField> changedFields = EnumSet.noneOf(QuoteField.class);
+        for (final QuoteField field : QuoteField.values()) {
+            if (field.differs(previous, current)) {
+                changedFields.add(field);
+            }
+        }
+
+        if (changedFields.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new QuoteChange(current.getSymbol(), previous, current, changedFields));
+    }
+
+    /**
+     * Folds a later change for the same symbol into this one, as if the intermediate quote had never been seen.
+     */
+    QuoteChange mergedWith(final QuoteChange later) {
+        final EnumSet<QuoteField> mergedFields = EnumSet.noneOf(QuoteField.class);
+        mergedFields.addAll(changedFields);
+        mergedFields.addAll(later.getChangedFields());
+        return new QuoteChange(symbol, previous, later.getCurrent(), mergedFields);
+    }
+
+    public boolean hasChanged(final QuoteField field) {
+        return changedFields.contains(field);
+    }
+}
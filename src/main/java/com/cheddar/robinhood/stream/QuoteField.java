@@ -0,0 +1,33 @@
+package com.cheddar.robinhood.stream;
+
+import com.cheddar.robinhood.data.Quote;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The price and size fields of a {@link Quote} that {@link QuoteStreamer} watches for changes.
+ */
+public enum QuoteField {
+    ASK_PRICE(Quote::getAsk_price),
+    BID_PRICE(Quote::getBid_price),
+    ASK_SIZE(Quote::getAsk_size),
+    BID_SIZE(Quote::getBid_size),
+    LAST_TRADE_PRICE(Quote::getLast_trade_price),
+    LAST_EXTENDED_HOURS_TRADE_PRICE(Quote::getLast_extended_hours_trade_price),
+    PREVIOUS_CLOSE(Quote::getPrevious_close),
+    ADJUSTED_PREVIOUS_CLOSE(Quote::getAdjusted_previous_close);
+
+    private final ToDoubleFunction<Quote> accessor;
+
+    QuoteField(final ToDoubleFunction<Quote> accessor) {
+        this.accessor = accessor;
+    }
+
+    public double valueOf(final Quote quote) {
+        return accessor.applyAsDouble(quote);
+    }
+
+    public boolean differs(final Quote previous, final Quote current) {
+        return Double.compare(valueOf(previous), valueOf(current)) != 0;
+    }
+}
@@ -0,0 +1,8 @@
+package com.cheddar.robinhood.stream;
+
+@FunctionalInterface
+public interface QuoteListener {
+
+    void onQuoteChange(final QuoteChange quoteChange);
+
+}
@@ -0,0 +1,155 @@
+package com.cheddar.robinhood.stream;
+
+import com.cheddar.robinhood.RobinhoodAPI;
+import com.cheddar.robinhood.data.MarketState;
+import com.cheddar.robinhood.data.Quote;
+import com.cheddar.robinhood.exception.RobinhoodException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Polls quotes for the union of all subscribed symbols on a single scheduler and pushes only what changed to each
+ * subscriber. Overlapping subscriptions share one poll; the poll interval follows the market session
+ * ({@link MarketState#isOpenNow()} / {@link MarketState#isAfterHoursNow()}).
+ */
+@Slf4j
+public class QuoteStreamer implements Closeable {
+
+    private final RobinhoodAPI robinhoodAPI;
+    private final QuoteStreamerConfig config;
+
+    private final ScheduledExecutorService pollScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("robinhood-quote-poll-%d").build());
+    private final ExecutorService deliveryExecutor =
+            Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("robinhood-quote-delivery-%d").build());
+
+    private final List<QuoteSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Map<String, Quote> lastQuotes = new ConcurrentHashMap<>();
+
+    private volatile MarketState marketState;
+    private volatile long marketStateFetchedAtMillis;
+    private volatile boolean running = false;
+
+    public QuoteStreamer(final RobinhoodAPI robinhoodAPI) {
+        this(robinhoodAPI, new QuoteStreamerConfig());
+    }
+
+    public QuoteStreamer(final RobinhoodAPI robinhoodAPI, final QuoteStreamerConfig config) {
+        this.robinhoodAPI = robinhoodAPI;
+        this.config = config;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        pollScheduler.execute(this::poll);
+    }
+
+    public QuoteSubscription subscribe(final Collection<String> symbols, final QuoteListener listener) {
+        final Set<String> normalizedSymbols = new LinkedHashSet<>();
+        for (final String symbol : symbols) {
+            normalizedSymbols.add(symbol.toUpperCase(Locale.ENGLISH));
+        }
+
+        final QuoteSubscription subscription = new QuoteSubscription(normalizedSymbols, listener, deliveryExecutor, this);
+        subscriptions.add(subscription);
+
+        // Symbols already being polled for someone else start from the last quote seen rather than from nothing.
+        for (final String symbol : normalizedSymbols) {
+            final Quote lastQuote = lastQuotes.get(symbol);
+            if (lastQuote != null) {
+                QuoteChange.between(null, lastQuote).ifPresent(subscription::enqueue);
+            }
+        }
+
+        return subscription;
+    }
+
+    void unsubscribe(final QuoteSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    private Set<String> subscribedSymbols() {
+        final Set<String> symbols = new LinkedHashSet<>();
+        for (final QuoteSubscription subscription : subscriptions) {
+            symbols.addAll(subscription.getSymbols());
+        }
+        return symbols;
+    }
+
+    private void poll() {
+        try {
+            final Set<String> symbols = subscribedSymbols();
+
+            lastQuotes.keySet().retainAll(symbols);
+
+            if (!symbols.isEmpty()) {
+                for (final Quote quote : robinhoodAPI.getQuotes(symbols)) {
+                    publish(quote);
+                }
+            }
+        } catch (final RobinhoodException | RuntimeException e) {
+            log.warn("Unable to poll quotes because {}", e.getMessage(), e);
+        } finally {
+            if (running) {
+                pollScheduler.schedule(this::poll, currentPollMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void publish(final Quote quote) {
+        if (quote.getSymbol() == null) {
+            return;
+        }
+
+        final String symbol = quote.getSymbol().toUpperCase(Locale.ENGLISH);
+        final Optional<QuoteChange> quoteChange = QuoteChange.between(lastQuotes.put(symbol, quote), quote);
+
+        if (!quoteChange.isPresent()) {
+            return;
+        }
+
+        for (final QuoteSubscription subscription : subscriptions) {
+            if (subscription.getSymbols().contains(symbol)) {
+                subscription.enqueue(quoteChange.get());
+            }
+        }
+    }
+
+    private long currentPollMillis() {
+        final long now = System.currentTimeMillis();
+
+        if (marketState == null || now - marketStateFetchedAtMillis > config.getMarketStateRefreshMillis()) {
+            try {
+                marketState = robinhoodAPI.getMarketStateForDate(new DateTime(now));
+                marketStateFetchedAtMillis = now;
+            } catch (final RobinhoodException | RuntimeException e) {
+                log.warn("Unable to get market state because {}", e.getMessage(), e);
+                return config.getAfterHoursPollMillis();
+            }
+        }
+
+        if (marketState.isAfterHoursAt(now)) {
+            return config.getAfterHoursPollMillis();
+        }
+        if (marketState.isOpenAt(now)) {
+            return config.getOpenPollMillis();
+        }
+        return config.getClosedPollMillis();
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        pollScheduler.shutdownNow();
+        deliveryExecutor.shutdown();
+    }
+
+}
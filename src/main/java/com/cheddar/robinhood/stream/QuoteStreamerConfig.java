@@ -0,0 +1,15 @@
+package com.cheddar.robinhood.stream;
+
+import lombok.Data;
+
+/**
+ * Poll intervals used by {@link QuoteStreamer}, chosen by the current market session. All durations are in
+ * milliseconds.
+ */
+@Data
+public class QuoteStreamerConfig {
+    private long openPollMillis = 1000;
+    private long afterHoursPollMillis = 5000;
+    private long closedPollMillis = 60 * 1000;
+    private long marketStateRefreshMillis = 15 * 60 * 1000;
+}
@@ -0,0 +1,105 @@
+package com.cheddar.robinhood.stream;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One listener's interest in a set of symbols. Changes are delivered one at a time on the streamer's delivery pool.
+ * While the listener is busy, further changes for the same symbol are merged into the pending one, so a slow listener
+ * sees fewer, coarser updates rather than an ever-growing backlog.
+ */
+@Slf4j
+public class QuoteSubscription implements Closeable {
+
+    @Getter
+    private final Set<String> symbols;
+
+    private final QuoteListener listener;
+    private final Executor deliveryExecutor;
+    private final QuoteStreamer quoteStreamer;
+
+    private final Map<String, QuoteChange> pendingChanges = new LinkedHashMap<>();
+    private boolean draining = false;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+
+    QuoteSubscription(final Set<String> symbols, final QuoteListener listener,
+                      final Executor deliveryExecutor, final QuoteStreamer quoteStreamer) {
+        this.symbols = Collections.unmodifiableSet(symbols);
+        this.listener = listener;
+        this.deliveryExecutor = deliveryExecutor;
+        this.quoteStreamer = quoteStreamer;
+    }
+
+    void enqueue(final QuoteChange quoteChange) {
+        synchronized (pendingChanges) {
+            final QuoteChange pendingChange = pendingChanges.get(quoteChange.getSymbol());
+            if (pendingChange != null) {
+                pendingChanges.put(quoteChange.getSymbol(), pendingChange.mergedWith(quoteChange));
+                conflated.incrementAndGet();
+            } else {
+                pendingChanges.put(quoteChange.getSymbol(), quoteChange);
+            }
+
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+
+        try {
+            deliveryExecutor.execute(this::drain);
+        } catch (final RejectedExecutionException e) {
+            // The streamer has been closed, so nothing will ever drain these; drop them rather than stay "draining".
+            synchronized (pendingChanges) {
+                pendingChanges.clear();
+                draining = false;
+            }
+            log.debug("Dropping quote change for {}, delivery has shut down", quoteChange.getSymbol());
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            final List<QuoteChange> changes;
+            synchronized (pendingChanges) {
+                if (pendingChanges.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                changes = new ArrayList<>(pendingChanges.values());
+                pendingChanges.clear();
+            }
+
+            for (final QuoteChange change : changes) {
+                try {
+                    listener.onQuoteChange(change);
+                } catch (final RuntimeException e) {
+                    log.warn("Quote listener failed on {} because {}", change.getSymbol(), e.getMessage(), e);
+                }
+                delivered.incrementAndGet();
+            }
+        }
+    }
+
+    public long getDeliveredChanges() {
+        return delivered.get();
+    }
+
+    public long getConflatedChanges() {
+        return conflated.get();
+    }
+
+    @Override
+    public void close() {
+        quoteStreamer.unsubscribe(this);
+    }
+
+}
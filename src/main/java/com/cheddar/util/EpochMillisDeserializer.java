@@ -0,0 +1,44 @@
+package com.cheddar.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Binds an ISO-8601 timestamp string straight to epoch millis with {@link TimeUtil#parseISO8601Millis}. Numbers are
+ * taken as epoch millis already, so a model serialized by this library reads back unchanged; null becomes
+ * {@link TimeUtil#NO_TIME}.
+ */
+public class EpochMillisDeserializer extends StdScalarDeserializer<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    public EpochMillisDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return TimeUtil.parseISO8601Millis(parser.getText());
+            } catch (final IllegalArgumentException e) {
+                return (Long) context.handleWeirdStringValue(Long.class, parser.getText(), "%s", e.getMessage());
+            }
+        }
+        return (Long) context.handleUnexpectedToken(Long.class, parser);
+    }
+
+    @Override
+    public Long getNullValue(final DeserializationContext context) {
+        return TimeUtil.NO_TIME;
+    }
+
+}
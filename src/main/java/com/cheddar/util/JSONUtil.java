@@ -1,14 +1,26 @@
 package com.cheddar.util;
 
+import com.cheddar.metrics.Metrics;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Slf4j
 public class JSONUtil {
@@ -20,27 +32,173 @@ public class JSONUtil {
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
 
+    private static final ObjectWriter compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+    public static Optional<String> serializeObject(final Object value) {
+        try {
+            return Optional.of(objectMapper.writeValueAsString(value));
+        } catch (IOException e) {
+            log.warn(e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Serializes onto a single line, for line-oriented files.
+     */
+    public static Optional<String> serializeCompact(final Object value) {
+        try {
+            return Optional.of(compactWriter.writeValueAsString(value));
+        } catch (IOException e) {
+            log.warn(e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
     public static <T> Optional<T> deserializeString(final String jsonString,
                                                     final TypeReference<T> typeReference) {
         if (StringUtils.isEmpty(jsonString)) {
             return Optional.empty();
         }
 
+        final long startNanos = System.nanoTime();
         try {
             return Optional.of(objectMapper.readValue(jsonString, typeReference));
         } catch (IOException e) {
             log.warn("Could not deserialize string {} {}", jsonString, e);
+        } finally {
+            Metrics.getRecorder().recordParse(typeReference.getType(), System.nanoTime() - startNanos);
         }
 
         return Optional.empty();
     }
 
     public static <T> Optional<T> deserializeObject(final String jsonData, final Class<T> valueType) {
+        final long startNanos = System.nanoTime();
         try {
             return Optional.of(objectMapper.readValue(jsonData, valueType));
         } catch (IOException e) {
             log.warn(e.getMessage(), e);
             return Optional.empty();
+        } finally {
+            Metrics.getRecorder().recordParse(valueType, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Binds a JSON document straight from its bytes, without first decoding it to a String. The parse time recorded
+     * includes waiting on the stream.
+     */
+    public static <T> Optional<T> deserializeStream(final InputStream jsonStream, final Class<T> valueType) {
+        final long startNanos = System.nanoTime();
+        try {
+            return Optional.ofNullable(objectMapper.readValue(jsonStream, valueType));
+        } catch (IOException e) {
+            log.warn(e.getMessage(), e);
+            return Optional.empty();
+        } finally {
+            Metrics.getRecorder().recordParse(valueType, System.nanoTime() - startNanos);
+        }
+    }
+
+    public static <T> Optional<T> deserializeStream(final InputStream jsonStream, final TypeReference<T> typeReference) {
+        final long startNanos = System.nanoTime();
+        try {
+            return Optional.ofNullable(objectMapper.readValue(jsonStream, typeReference));
+        } catch (IOException e) {
+            log.warn(e.getMessage(), e);
+            return Optional.empty();
+        } finally {
+            Metrics.getRecorder().recordParse(typeReference.getType(), System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Reads a document once into a tree, for callers that must inspect some fields before deciding how to bind the
+     * rest; follow with {@link #treeToValue}, which binds from the tree without re-reading any text.
+     */
+    public static Optional<JsonNode> readTree(final InputStream jsonStream) {
+        final long startNanos = System.nanoTime();
+        try {
+            return Optional.ofNullable(objectMapper.readTree(jsonStream));
+        } catch (IOException e) {
+            log.warn(e.getMessage(), e);
+            return Optional.empty();
+        } finally {
+            Metrics.getRecorder().recordParse(JsonNode.class, System.nanoTime() - startNanos);
+        }
+    }
+
+    public static <T> Optional<T> treeToValue(final JsonNode node, final Class<T> valueType) {
+        try {
+            return Optional.ofNullable(objectMapper.treeToValue(node, valueType));
+        } catch (IOException e) {
+            log.warn(e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Streams each object in the top-level array field {@code arrayField} of a JSON document to {@code consumer},
+     * binding it straight from the token stream. Other top-level scalar fields (such as a {@code next} cursor) are
+     * returned by name; nested values outside the array are skipped without being materialized.
+     */
+    public static <T> Map<String, String> streamArrayField(final InputStream jsonStream, final String arrayField,
+                                                           final Class<T> valueType, final Consumer<T> consumer) throws IOException {
+        final Map<String, String> scalarFields = new HashMap<>();
+        streamArrayField(jsonStream, arrayField, valueType, consumer, scalarFields::put);
+        return scalarFields;
+    }
+
+    public static <T> Map<String, String> streamArrayField(final String jsonString, final String arrayField,
+                                                           final Class<T> valueType, final Consumer<T> consumer) throws IOException {
+        final Map<String, String> scalarFields = new HashMap<>();
+        try (final JsonParser parser = objectMapper.getFactory().createParser(jsonString)) {
+            streamArrayField(parser, arrayField, valueType, consumer, scalarFields::put);
+        }
+        return scalarFields;
+    }
+
+    /**
+     * As above, but reports each top-level scalar field to {@code fieldListener} the moment it is read, so a caller can
+     * act on a field that precedes the array before the array has been decoded.
+     */
+    public static <T> void streamArrayField(final InputStream jsonStream, final String arrayField, final Class<T> valueType,
+                                            final Consumer<T> consumer, final BiConsumer<String, String> fieldListener) throws IOException {
+        try (final JsonParser parser = objectMapper.getFactory().createParser(jsonStream)) {
+            streamArrayField(parser, arrayField, valueType, consumer, fieldListener);
+        }
+    }
+
+    private static <T> void streamArrayField(final JsonParser parser, final String arrayField, final Class<T> valueType,
+                                             final Consumer<T> consumer, final BiConsumer<String, String> fieldListener) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object");
+        }
+
+        final ObjectReader reader = objectMapper.readerFor(valueType);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.getCurrentName();
+            final JsonToken valueToken = parser.nextToken();
+
+            if (valueToken == JsonToken.START_ARRAY && arrayField.equals(fieldName)) {
+                JsonToken elementToken;
+                while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (elementToken == JsonToken.START_OBJECT) {
+                        final long startNanos = System.nanoTime();
+                        final T element = reader.readValue(parser);
+                        Metrics.getRecorder().recordParse(valueType, System.nanoTime() - startNanos);
+                        consumer.accept(element);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (valueToken.isScalarValue()) {
+                fieldListener.accept(fieldName, valueToken == JsonToken.VALUE_NULL ? null : parser.getText());
+            } else {
+                parser.skipChildren();
+            }
         }
     }
 }
@@ -0,0 +1,59 @@
+package com.cheddar.util;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * I/O shared by the binary snapshot stores: buffered data streams, an all-or-nothing save, and nullable strings.
+ */
+public class SnapshotFileUtil {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    @FunctionalInterface
+    public interface SnapshotWriter {
+        void write(final DataOutputStream out) throws IOException;
+    }
+
+    private SnapshotFileUtil() {
+    }
+
+    public static DataInputStream openSnapshot(final Path snapshotPath) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), BUFFER_SIZE));
+    }
+
+    /**
+     * Writes to a temporary file next to {@code snapshotPath} and moves it into place, so readers never see a partially
+     * written snapshot.
+     */
+    public static void saveSnapshot(final Path snapshotPath, final SnapshotWriter writer) throws IOException {
+        final Path parent = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        final Path tempPath = Files.createTempFile(parent, snapshotPath.getFileName().toString(), ".tmp");
+
+        try {
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath), BUFFER_SIZE))) {
+                writer.write(out);
+            }
+
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    public static void writeNullableString(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    public static String readNullableString(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+}
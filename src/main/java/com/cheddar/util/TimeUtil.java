@@ -3,52 +3,227 @@ package com.cheddar.util;
 import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTime;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Date parsing and formatting. Formatters are immutable {@link DateTimeFormatter}s built once per pattern and shared
+ * between threads. Patterns follow {@link DateTimeFormatter} syntax, which for the patterns used here matches the
+ * {@code SimpleDateFormat} syntax this class used to take. For Robinhood timestamps prefer
+ * {@link #parseISO8601Millis}, which allocates nothing.
+ */
 @Slf4j
 public class TimeUtil {
 
+    /**
+     * Epoch millis standing in for a missing timestamp.
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final ConcurrentMap<String, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
+
+    private static final DateTimeFormatter CANONICAL_YMD_FORMATTER = formatter("MM/dd/yyyy");
+
+    private static final long MILLIS_PER_SECOND = 1000;
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private static DateTimeFormatter formatter(final String format) {
+        final DateTimeFormatter formatter = formatters.get(format);
+        if (formatter != null) {
+            return formatter;
+        }
+        return formatters.computeIfAbsent(format, pattern -> DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH));
+    }
+
     public static Optional<DateTime> createDateFromStr(final String format, final String strDate) {
-        DateFormat dateFormat = new SimpleDateFormat(format, Locale.ENGLISH);
+        return createDateFromStr(format, strDate, ZoneId.systemDefault());
+    }
 
+    public static Optional<DateTime> createDateFromStr(final String format, final String strDate, final String timezone) {
+        return createDateFromStr(format, strDate, ZoneId.of(timezone));
+    }
+
+    /**
+     * Text with its own offset or zone is read in that; text without one is read in {@code zone}, and a date without
+     * a time is the start of that day in {@code zone}.
+     */
+    private static Optional<DateTime> createDateFromStr(final String format, final String strDate, final ZoneId zone) {
         try {
-            return Optional.of(new DateTime(dateFormat.parse(strDate)));
-        } catch (ParseException e) {
+            // Not withZone: on Java 8 an override zone replaces an offset parsed from the text.
+            final TemporalAccessor parsed = formatter(format).parseBest(strDate, ZonedDateTime::from, LocalDateTime::from, LocalDate::from);
+            final ZonedDateTime dateTime;
+            if (parsed instanceof ZonedDateTime) {
+                dateTime = (ZonedDateTime) parsed;
+            } else if (parsed instanceof LocalDateTime) {
+                dateTime = ((LocalDateTime) parsed).atZone(zone);
+            } else {
+                dateTime = ((LocalDate) parsed).atStartOfDay(zone);
+            }
+            return Optional.of(new DateTime(dateTime.toInstant().toEpochMilli()));
+        } catch (final DateTimeException e) {
             log.warn(e.getMessage(), e);
         }
 
         return Optional.empty();
     }
 
+    /**
+     * Formats {@code date} in the JVM's default time zone.
+     */
     public static String createStrFromDate(final Date date, final String format) {
-        final SimpleDateFormat sdf = new SimpleDateFormat(format);
-        final String dateStr = sdf.format(date);
-        return dateStr;
+        return formatter(format).withZone(ZoneId.systemDefault()).format(date.toInstant());
     }
 
-    public static Optional<DateTime> createDateFromStr(final String format, final String strDate, final String timezone) {
-        DateFormat dateFormat = new SimpleDateFormat(format, Locale.ENGLISH);
-        dateFormat.setTimeZone(TimeZone.getTimeZone(timezone));
+    /**
+     * Formats {@code date} in UTC, for patterns that label the time with a literal {@code 'Z'}.
+     */
+    public static String createUTCStrFromDate(final Date date, final String format) {
+        return formatter(format).withZone(ZoneOffset.UTC).format(date.toInstant());
+    }
 
-        try {
-            return Optional.of(new DateTime(dateFormat.parse(strDate)));
-        } catch (ParseException e) {
-            log.warn(e.getMessage(), e);
+    public static String getCanonicalYMDString(final Date forDate) {
+        return CANONICAL_YMD_FORMATTER.withZone(ZoneId.systemDefault()).format(forDate.toInstant());
+    }
+
+    /**
+     * Epoch millis of an ISO-8601 timestamp as Robinhood sends them: {@code yyyy-MM-ddTHH:mm:ss}, an optional fraction
+     * of any precision (truncated to millis), then {@code Z} or an offset such as {@code +00:00}, {@code -0500} or
+     * {@code +01}. A timestamp without an offset is taken as UTC. Parses the characters directly, without building
+     * any intermediate objects.
+     *
+     * @throws IllegalArgumentException if {@code text} is not in that form
+     */
+    public static long parseISO8601Millis(final CharSequence text) {
+        final int length = text.length();
+        if (length < 19 || text.charAt(4) != '-' || text.charAt(7) != '-' || (text.charAt(10) != 'T' && text.charAt(10) != ' ') ||
+            text.charAt(13) != ':' || text.charAt(16) != ':') {
+            throw invalidTimestamp(text);
         }
 
-        return Optional.empty();
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 2);
+        final int day = digits(text, 8, 2);
+        final int hour = digits(text, 11, 2);
+        final int minute = digits(text, 14, 2);
+        final int second = digits(text, 17, 2);
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour > 23 || minute > 59 || second > 59) {
+            throw invalidTimestamp(text);
+        }
+
+        int position = 19;
+        int millis = 0;
+        if (position < length && text.charAt(position) == '.') {
+            ++position;
+            final int fractionStart = position;
+            while (position < length && isDigit(text.charAt(position))) {
+                if (position - fractionStart < 3) {
+                    millis = millis * 10 + (text.charAt(position) - '0');
+                }
+                ++position;
+            }
+            if (position == fractionStart) {
+                throw invalidTimestamp(text);
+            }
+            for (int digit = position - fractionStart; digit < 3; ++digit) {
+                millis *= 10;
+            }
+        }
+
+        long offsetMillis = 0;
+        if (position < length) {
+            final char sign = text.charAt(position);
+            if (sign == 'Z' && position + 1 == length) {
+                position = length;
+            } else if (sign == '+' || sign == '-') {
+                final int remaining = length - position - 1;
+                final int offsetHours;
+                final int offsetMinutes;
+                if (remaining == 2) {
+                    offsetHours = digits(text, position + 1, 2);
+                    offsetMinutes = 0;
+                } else if (remaining == 4) {
+                    offsetHours = digits(text, position + 1, 2);
+                    offsetMinutes = digits(text, position + 3, 2);
+                } else if (remaining == 5 && text.charAt(position + 3) == ':') {
+                    offsetHours = digits(text, position + 1, 2);
+                    offsetMinutes = digits(text, position + 4, 2);
+                } else {
+                    throw invalidTimestamp(text);
+                }
+                offsetMillis = (sign == '-' ? -1 : 1) * (offsetHours * MILLIS_PER_HOUR + offsetMinutes * MILLIS_PER_MINUTE);
+            } else {
+                throw invalidTimestamp(text);
+            }
+        }
+
+        return epochDay(year, month, day) * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE +
+               second * MILLIS_PER_SECOND + millis - offsetMillis;
     }
 
-    public static String getCanonicalYMDString(final Date forDate) {
-        final DateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
-        final String dateStr = dateFormat.format(forDate);
-        return dateStr;
+    /**
+     * {@link #parseISO8601Millis}, or {@link #NO_TIME} for null.
+     */
+    public static long parseISO8601MillisOrNoTime(final CharSequence text) {
+        return text == null ? NO_TIME : parseISO8601Millis(text);
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date, as in {@link LocalDate#toEpochDay()}.
+     */
+    private static long epochDay(final int year, final int month, final int day) {
+        final long shiftedYear = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(shiftedYear, 400);
+        final long yearOfEra = shiftedYear - era * 400;
+        final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int digits(final CharSequence text, final int start, final int count) {
+        int value = 0;
+        for (int i = start; i < start + count; ++i) {
+            final char c = text.charAt(i);
+            if (!isDigit(c)) {
+                throw invalidTimestamp(text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalidTimestamp(final CharSequence text) {
+        return new IllegalArgumentException("Not an ISO-8601 timestamp: " + text);
     }
 
 }
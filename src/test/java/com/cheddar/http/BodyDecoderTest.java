@@ -0,0 +1,95 @@
+package com.cheddar.http;
+
+import com.google.common.io.ByteStreams;
+import org.apache.http.entity.BasicHttpEntity;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class BodyDecoderTest {
+
+    private static final String INSTRUMENTS_URL = "https://api.robinhood.com/instruments/";
+
+    private static final String BODY;
+
+    static {
+        final StringBuilder body = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < 2000; ++i) {
+            body.append(i == 0 ? "" : ",").append("{\"symbol\":\"S").append(i).append("\"}");
+        }
+        BODY = body.append("]}").toString();
+    }
+
+    private static BasicHttpEntity createEntity(final byte[] content, final String contentEncoding) {
+        final BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ByteArrayInputStream(content));
+        entity.setContentEncoding(contentEncoding);
+        return entity;
+    }
+
+    private static String decode(final BodyDecoder bodyDecoder, final byte[] content, final String contentEncoding) throws IOException {
+        try (final InputStream body = bodyDecoder.openBody(INSTRUMENTS_URL, createEntity(content, contentEncoding))) {
+            return new String(ByteStreams.toByteArray(body), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] deflate(final byte[] content, final boolean zlibWrapped) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (final DeflaterOutputStream deflaterStream =
+                     new DeflaterOutputStream(compressed, new Deflater(Deflater.DEFAULT_COMPRESSION, !zlibWrapped))) {
+            deflaterStream.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Test
+    public void testOpenBody_gzip_expectDecodedAndMetered() throws IOException {
+        final BodyDecoder bodyDecoder = new BodyDecoder();
+
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (final GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(BODY, decode(bodyDecoder, compressed.toByteArray(), "gzip"));
+
+        final CompressionMetrics metrics = bodyDecoder.getCompressionMetrics();
+        assertEquals(compressed.size(), metrics.getWireBytes(EndpointFamily.INSTRUMENTS));
+        assertEquals(BODY.length(), metrics.getDecodedBytes(EndpointFamily.INSTRUMENTS));
+        assertEquals(1, metrics.getCompressedResponses(EndpointFamily.INSTRUMENTS));
+    }
+
+    @Test
+    public void testOpenBody_zlibAndRawDeflate_expectBothDecodedWithPooledInflaters() throws IOException {
+        final BodyDecoder bodyDecoder = new BodyDecoder();
+        final byte[] content = BODY.getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(BODY, decode(bodyDecoder, deflate(content, true), "deflate"));
+            assertEquals(BODY, decode(bodyDecoder, deflate(content, false), "deflate"));
+        }
+
+        assertEquals(6, bodyDecoder.getCompressionMetrics().getResponses(EndpointFamily.INSTRUMENTS));
+    }
+
+    @Test
+    public void testOpenBody_identity_expectPassedThroughUncompressed() throws IOException {
+        final BodyDecoder bodyDecoder = new BodyDecoder();
+
+        assertEquals(BODY, decode(bodyDecoder, BODY.getBytes(StandardCharsets.UTF_8), null));
+
+        final CompressionMetrics metrics = bodyDecoder.getCompressionMetrics();
+        assertEquals(0, metrics.getCompressedResponses(EndpointFamily.INSTRUMENTS));
+        assertEquals(1.0, metrics.getCompressionRatio(EndpointFamily.INSTRUMENTS), 0.0001);
+    }
+
+}
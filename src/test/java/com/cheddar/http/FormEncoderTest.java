@@ -0,0 +1,32 @@
+package com.cheddar.http;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class FormEncoderTest {
+
+    @Test
+    public void testEncode_specialAndNonAsciiCharacters_expectSameAsURLEncoder() throws UnsupportedEncodingException {
+        final String value = "https://api.robinhood.com/a b/?x=1&y=Caf\u00e9 \uD83D\uDE00~*._-";
+
+        final byte[] encoded = FormEncoder.encode(ImmutableMap.of("url", value, "n", "1"));
+
+        assertEquals("url=" + URLEncoder.encode(value, "UTF-8") + "&n=1", new String(encoded, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testAdd_numbersAfterPrefix_expectAsciiDigits() {
+        final byte[] prefix = new FormEncoder().add("type", "limit").toByteArray();
+
+        final byte[] encoded = new FormEncoder(prefix, 0).add("quantity", 1200).add("price", -7).addCents("limit", 15005).addCents("low", 9).toByteArray();
+
+        assertEquals("type=limit&quantity=1200&price=-7&limit=150.05&low=0.09", new String(encoded, StandardCharsets.US_ASCII));
+    }
+
+}
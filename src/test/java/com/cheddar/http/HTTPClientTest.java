@@ -0,0 +1,102 @@
+package com.cheddar.http;
+
+import okhttp3.Headers;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class HTTPClientTest {
+
+    private static final String QUOTES_URL = "https://api.robinhood.com/quotes/";
+
+    private static class StubTransport implements HTTPTransport {
+        private final List<Integer> statusCodes = new ArrayList<>();
+        private final List<String> methods = new ArrayList<>();
+        private final byte[] body;
+
+        private StubTransport(final byte[] body, final Integer... statusCodes) {
+            this.body = body;
+            Collections.addAll(this.statusCodes, statusCodes);
+        }
+
+        @Override
+        public <T> T execute(final String method, final HTTPQuery httpQuery, final HTTPResponseReader<T> reader) throws IOException {
+            methods.add(method);
+
+            final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.put("content-encoding", "gzip");
+            return reader.read(statusCodes.remove(0), headers, new ByteArrayInputStream(body));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static byte[] gzip(final String content) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (final GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+
+    @Test
+    public void testExecuteHTTPGetRequest_customTransportServerErrorThenOk_expectRetriedAndDecoded() throws IOException {
+        final ResilienceConfig resilienceConfig = new ResilienceConfig();
+        resilienceConfig.setDefaultRetryPolicy(new RetryPolicy(3, 1, 1, 1.0));
+        final StubTransport transport = new StubTransport(gzip("{\"ok\":true}"), 503, 200);
+
+        try (final HTTPClient httpClient = new HTTPClient(transport, new RateLimiter(), new ResiliencePolicy(resilienceConfig))) {
+            final Optional<HTTPResult> result = httpClient.executeHTTPGetRequest(new HTTPQuery(QUOTES_URL, new HashMap<>(), new HashMap<>()));
+
+            assertEquals(200, result.get().getStatusCode());
+            assertEquals("{\"ok\":true}", result.get().getBody());
+            assertEquals(2, transport.methods.size());
+            assertEquals(1, httpClient.getCompressionMetrics().getCompressedResponses(EndpointFamily.QUOTES));
+        }
+    }
+
+    @Test
+    public void testExecuteHTTPGetRequest_readerThrows_expectEmptyResultAndBreakerFailure() throws IOException {
+        final ResilienceConfig resilienceConfig = new ResilienceConfig();
+        resilienceConfig.setCircuitFailureThreshold(1);
+        final StubTransport transport = new StubTransport(gzip("not json"), 200);
+
+        try (final HTTPClient httpClient = new HTTPClient(transport, new RateLimiter(), new ResiliencePolicy(resilienceConfig))) {
+            final Optional<Object> result = httpClient.executeHTTPGetRequest(new HTTPQuery(QUOTES_URL, new HashMap<>(), new HashMap<>()),
+                                                                             (statusCode, headers, body) -> {
+                                                                                 throw new IllegalStateException("unreadable");
+                                                                             });
+
+            assertEquals(false, result.isPresent());
+            assertEquals(CircuitBreaker.State.OPEN, httpClient.getResiliencePolicy().getCircuitBreaker(EndpointFamily.QUOTES).getState());
+        }
+    }
+
+    @Test
+    public void testReadHeaders_repeatedHeader_expectFirstValueFromBothTransports() {
+        final BasicHttpResponse apacheResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 429, "Too Many Requests");
+        apacheResponse.addHeader("Retry-After", "3");
+        apacheResponse.addHeader("retry-after", "9");
+
+        assertEquals("3", HTTPRequests.readHeaders(apacheResponse).get("Retry-After"));
+        assertEquals("3", OkHttpTransport.readHeaders(Headers.of("Retry-After", "3", "retry-after", "9")).get("Retry-After"));
+    }
+
+}
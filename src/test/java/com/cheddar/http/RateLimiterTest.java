@@ -0,0 +1,57 @@
+package com.cheddar.http;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class RateLimiterTest {
+
+    private static final String QUOTES_URL = "https://api.robinhood.com/quotes/";
+    private static final String ORDERS_URL = "https://api.robinhood.com/orders/";
+
+    private static RateLimiter createRateLimiter() {
+        final RateLimiterConfig config = new RateLimiterConfig();
+        config.getRequestsPerSecond().put(EndpointFamily.QUOTES, 2.0);
+        config.getRequestsPerSecond().put(EndpointFamily.ORDERS, 2.0);
+        return new RateLimiter(config);
+    }
+
+    @Test
+    public void testReserve_burstExhausted_expectQueuedWaits() {
+        final RateLimiter rateLimiter = createRateLimiter();
+        final long now = System.nanoTime();
+
+        assertEquals(0, rateLimiter.reserve(QUOTES_URL, now));
+        assertEquals(0, rateLimiter.reserve(QUOTES_URL, now));
+        assertEquals(500, TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(QUOTES_URL, now)));
+        assertEquals(1000, TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(QUOTES_URL, now)));
+    }
+
+    @Test
+    public void testOnResponse_retryAfter_expectFamilyPausedAndSlowed() {
+        final RateLimiter rateLimiter = createRateLimiter();
+        final long now = System.nanoTime();
+
+        rateLimiter.onResponse(QUOTES_URL, 429, "3", now);
+
+        assertEquals(3000, TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(QUOTES_URL, now)));
+        assertEquals(1.0, rateLimiter.getRequestsPerSecond(EndpointFamily.QUOTES), 0.0001);
+        assertEquals(0, rateLimiter.reserve(ORDERS_URL, now));
+    }
+
+    @Test
+    public void testOnResponse_successesAfterThrottle_expectRateRecovers() {
+        final RateLimiter rateLimiter = createRateLimiter();
+        final long now = System.nanoTime();
+
+        rateLimiter.onResponse(QUOTES_URL, 429, null, now);
+        for (int i = 0; i < 100; ++i) {
+            rateLimiter.onResponse(QUOTES_URL, 200, null, now);
+        }
+
+        assertEquals(2.0, rateLimiter.getRequestsPerSecond(EndpointFamily.QUOTES), 0.0001);
+    }
+
+}
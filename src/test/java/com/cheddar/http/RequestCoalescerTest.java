@@ -0,0 +1,91 @@
+package com.cheddar.http;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+
+    private static final HTTPQuery QUERY = new HTTPQuery("https://api.robinhood.com/portfolios/1/", ImmutableMap.of(), ImmutableMap.of());
+
+    @Test
+    public void testExecute_concurrentIdenticalQueries_expectOneCallSharedResult() throws Exception {
+        final RequestCoalescer requestCoalescer = new RequestCoalescer();
+        final CountDownLatch leaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLeader = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Object sharedResult = new Object();
+
+        final Callable<Object> caller = () -> requestCoalescer.execute(QUERY, () -> {
+            calls.incrementAndGet();
+            leaderStarted.countDown();
+            releaseLeader.await();
+            return sharedResult;
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Object> leader = executor.submit(caller);
+            leaderStarted.await();
+            final Future<Object> follower = executor.submit(caller);
+
+            while (requestCoalescer.getCoalescedCalls() == 0) {
+                Thread.sleep(1);
+            }
+            releaseLeader.countDown();
+
+            assertSame(sharedResult, leader.get());
+            assertSame(sharedResult, follower.get());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_sequentialQueriesWithoutTtl_expectEachCallExecuted() throws Exception {
+        final RequestCoalescer requestCoalescer = new RequestCoalescer();
+        final AtomicInteger calls = new AtomicInteger();
+
+        requestCoalescer.execute(QUERY, calls::incrementAndGet);
+        requestCoalescer.execute(QUERY, calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testExecute_sequentialQueriesWithinTtl_expectCachedResult() throws Exception {
+        final RequestCoalescer requestCoalescer = new RequestCoalescer(1, TimeUnit.MINUTES);
+        final AtomicInteger calls = new AtomicInteger();
+
+        requestCoalescer.execute(QUERY, calls::incrementAndGet);
+        final int second = requestCoalescer.execute(QUERY, calls::incrementAndGet);
+
+        assertEquals(1, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testExecute_failedCall_expectExceptionNotCached() {
+        final RequestCoalescer requestCoalescer = new RequestCoalescer(1, TimeUnit.MINUTES);
+
+        try {
+            requestCoalescer.execute(QUERY, () -> {
+                throw new IOException("boom");
+            });
+            fail();
+        } catch (final IOException e) {
+            assertEquals("boom", e.getMessage());
+        }
+
+        assertEquals("ok", requestCoalescer.execute(QUERY, () -> "ok"));
+    }
+
+}
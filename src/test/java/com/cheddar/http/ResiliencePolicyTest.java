@@ -0,0 +1,66 @@
+package com.cheddar.http;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResiliencePolicyTest {
+
+    private static final String ORDERS_URL = "https://api.robinhood.com/orders/";
+    private static final String LOGIN_URL = "https://api.robinhood.com/api-token-auth/";
+    private static final String QUOTES_URL = "https://api.robinhood.com/quotes/";
+
+    @Test
+    public void testOnFailure_postToOrders_expectNoRetry() {
+        final ResiliencePolicy resiliencePolicy = new ResiliencePolicy();
+
+        assertEquals(ResiliencePolicy.NO_RETRY, resiliencePolicy.onFailure("POST", ORDERS_URL, new ConnectException(), 1));
+        assertEquals(ResiliencePolicy.NO_RETRY, resiliencePolicy.onResponse("POST", ORDERS_URL, 503, 1));
+    }
+
+    @Test
+    public void testOnFailure_postNeverSent_expectRetryOnlyBeforeSending() {
+        final ResiliencePolicy resiliencePolicy = new ResiliencePolicy();
+
+        assertEquals(true, resiliencePolicy.onFailure("POST", LOGIN_URL, new ConnectException(), 1) >= 0);
+        assertEquals(ResiliencePolicy.NO_RETRY, resiliencePolicy.onFailure("POST", LOGIN_URL, new SocketTimeoutException(), 1));
+    }
+
+    @Test
+    public void testOnResponse_getServerErrors_expectBoundedRetriesThenOpenCircuit() {
+        final ResilienceConfig config = new ResilienceConfig();
+        config.setCircuitFailureThreshold(3);
+        final ResiliencePolicy resiliencePolicy = new ResiliencePolicy(config);
+
+        final long firstBackoff = resiliencePolicy.onResponse("GET", QUOTES_URL, 503, 1);
+        final long secondBackoff = resiliencePolicy.onResponse("GET", QUOTES_URL, 503, 2);
+
+        assertEquals(true, firstBackoff >= 0 && firstBackoff <= 200);
+        assertEquals(true, secondBackoff >= 0 && secondBackoff <= 400);
+        assertEquals(true, resiliencePolicy.allowRequest(QUOTES_URL));
+
+        assertEquals(ResiliencePolicy.NO_RETRY, resiliencePolicy.onFailure("GET", QUOTES_URL, new IOException(), 3));
+        assertEquals(false, resiliencePolicy.allowRequest(QUOTES_URL));
+        assertEquals(true, resiliencePolicy.allowRequest(ORDERS_URL));
+    }
+
+    @Test
+    public void testAllowRequest_openCircuitAfterCooldown_expectSingleProbe() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, 1000);
+
+        circuitBreaker.onFailure(0);
+
+        assertEquals(false, circuitBreaker.allowRequest(500));
+        assertEquals(true, circuitBreaker.allowRequest(1500));
+        assertEquals(false, circuitBreaker.allowRequest(1500));
+
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.cheddar.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketFor_everyBucketLowerBound_expectSameBucket() {
+        for (int bucket = 0; bucket < 400; ++bucket) {
+            assertEquals(bucket, LatencyHistogram.bucketFor(LatencyHistogram.lowerBound(bucket)));
+            assertEquals(bucket, LatencyHistogram.bucketFor(LatencyHistogram.lowerBound(bucket + 1) - 1));
+        }
+    }
+
+    @Test
+    public void testGetPercentileNanos_uniformMillis_expectWithinBucketError() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; ++millis) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5e6, histogram.getMeanNanos(), 1);
+        assertEquals(50e6, histogram.getPercentileNanos(0.5), 50e6 * 0.125);
+        assertEquals(99e6, histogram.getPercentileNanos(0.99), 99e6 * 0.125);
+        assertEquals(0, new LatencyHistogram().getPercentileNanos(0.99));
+    }
+
+}
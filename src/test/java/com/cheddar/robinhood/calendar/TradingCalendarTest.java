@@ -0,0 +1,78 @@
+package com.cheddar.robinhood.calendar;
+
+import com.cheddar.http.HTTPClient;
+import com.cheddar.robinhood.client.MockRobinhoodServer;
+import com.cheddar.robinhood.client.MockRobinhoodServerConfig;
+import com.cheddar.robinhood.client.RobinhoodClient;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+
+public class TradingCalendarTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static long millis(final String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    @Test
+    public void testRefresh_fridayWindow_expectEdgeDaysFollowedAndAnsweredFromMemory() throws IOException {
+        final TradingCalendarConfig config = new TradingCalendarConfig();
+        config.setDaysBack(1);
+        config.setDaysAhead(1);
+        final Clock friday = Clock.fixed(Instant.parse("2017-03-17T15:00:00Z"), ZoneOffset.UTC);
+        final TradingCalendarStore store = new TradingCalendarStore(temporaryFolder.getRoot().toPath().resolve("calendar.bin"));
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(), server.getBaseURL());
+             final TradingCalendar calendar = new TradingCalendar(client, config, store, friday)) {
+
+            // Thursday to Saturday, plus Wednesday and Monday reached through the edge links.
+            assertEquals(5, calendar.refresh());
+            final long requests = server.getRequestCount("GET markets");
+
+            assertEquals(true, calendar.isOpenNow());
+            assertEquals(false, calendar.isOpenAt(millis("2017-03-18T15:00:00Z")));
+            assertEquals(millis("2017-03-20T13:30:00Z"), calendar.getNextOpenMillis(millis("2017-03-17T21:00:00Z")).getAsLong());
+            assertEquals(millis("2017-03-16T20:00:00Z"), calendar.getPreviousCloseMillis(millis("2017-03-17T10:00:00Z")).getAsLong());
+            assertEquals(false, calendar.getNextOpenMillis(millis("2017-03-21T15:00:00Z")).isPresent());
+            assertEquals(requests, server.getRequestCount("GET markets"));
+            assertEquals(5, store.load().size());
+        }
+    }
+
+    @Test
+    public void testRefresh_edgeDayFailsOnSecondRefresh_expectNetworkReachedAndOldValueKept() throws IOException {
+        final TradingCalendarConfig config = new TradingCalendarConfig();
+        config.setDaysBack(1);
+        config.setDaysAhead(1);
+        final Clock friday = Clock.fixed(Instant.parse("2017-03-17T15:00:00Z"), ZoneOffset.UTC);
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(), server.getBaseURL());
+             final TradingCalendar calendar = new TradingCalendar(client, config, null, friday)) {
+
+            assertEquals(5, calendar.refresh());
+            final long requests = server.getRequestCount("GET markets");
+            server.failMarketHours("2017-03-16", 404, 1);
+
+            // Thursday fails, but its cached links still lead to Wednesday.
+            assertEquals(4, calendar.refresh());
+
+            assertEquals(requests + 5, server.getRequestCount("GET markets"));
+            assertEquals(true, client.getMarketStateCache().get("2017-03-17").isPresent());
+            assertEquals(millis("2017-03-16T20:00:00Z"), calendar.getPreviousCloseMillis(millis("2017-03-17T10:00:00Z")).getAsLong());
+            assertEquals(millis("2017-03-15T20:00:00Z"), calendar.getPreviousCloseMillis(millis("2017-03-16T10:00:00Z")).getAsLong());
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Instrument;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class InstrumentCacheTest {
+
+    private static final Instrument AAPL = new Instrument("https://api.robinhood.com/instruments/aapl/", "AAPL", "Apple", 0.25f, true, 0.01f);
+    private static final Instrument MSFT = new Instrument("https://api.robinhood.com/instruments/msft/", "MSFT", "Microsoft", 0.25f, true, 0.01f);
+
+    @Test
+    public void testGetForSymbol_repeatedLookups_expectSingleLoad() {
+        final InstrumentCache instrumentCache = new InstrumentCache();
+        final AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; ++i) {
+            final Optional<Instrument> instrument = instrumentCache.getForSymbol("aapl", symbol -> {
+                loads.incrementAndGet();
+                return Optional.of(AAPL);
+            });
+            assertEquals(AAPL, instrument.get());
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2, instrumentCache.getSymbolStats().hitCount());
+        assertEquals(1, instrumentCache.getSymbolStats().missCount());
+        assertEquals(AAPL, instrumentCache.getIfPresentForURL(AAPL.getUrl()).get());
+    }
+
+    @Test
+    public void testGetForURL_loaderFindsNothing_expectNothingCached() {
+        final InstrumentCache instrumentCache = new InstrumentCache();
+
+        assertEquals(false, instrumentCache.getForURL("https://api.robinhood.com/instruments/nope/", url -> Optional.empty()).isPresent());
+        assertEquals(0, instrumentCache.size());
+    }
+
+    @Test
+    public void testPutAll_boundedSize_expectEviction() {
+        final InstrumentCache instrumentCache = new InstrumentCache(1, TimeUnit.HOURS, 1);
+
+        instrumentCache.putAll(ImmutableList.of(AAPL, MSFT));
+
+        assertEquals(1, instrumentCache.size());
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Instrument;
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+public class InstrumentSnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSaveAndLoad_instrumentsWithNulls_expectRoundTrip() throws Exception {
+        final InstrumentSnapshotStore snapshotStore = new InstrumentSnapshotStore(temporaryFolder.getRoot().toPath().resolve("instruments.bin"));
+        final List<Instrument> instruments =
+                ImmutableList.of(new Instrument("https://api.robinhood.com/instruments/aapl/", "AAPL", "Apple", 0.25f, true, 0.01f),
+                                 new Instrument("https://api.robinhood.com/instruments/x/", "X", null, 0f, false, 0f));
+
+        snapshotStore.save(instruments);
+        final Optional<InstrumentSnapshot> snapshot = snapshotStore.load();
+
+        assertEquals(true, snapshot.isPresent());
+        assertEquals(InstrumentSnapshotStore.FORMAT_VERSION, snapshot.get().getVersion());
+        assertEquals(instruments, snapshot.get().getInstruments());
+    }
+
+    @Test
+    public void testLoad_unknownFormat_expectEmpty() throws Exception {
+        final Path snapshotPath = temporaryFolder.newFile("garbage.bin").toPath();
+        Files.write(snapshotPath, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertEquals(false, new InstrumentSnapshotStore(snapshotPath).load().isPresent());
+    }
+
+    @Test
+    public void testLoad_recordLengthDisagreesWithFields_expectEmpty() throws Exception {
+        final Path snapshotPath = temporaryFolder.getRoot().toPath().resolve("instruments.bin");
+        new InstrumentSnapshotStore(snapshotPath).save(ImmutableList.of(new Instrument("https://api.robinhood.com/instruments/x/", "X", null, 0f, false, 0f),
+                                                                        new Instrument("https://api.robinhood.com/instruments/y/", "Y", null, 0f, false, 0f)));
+
+        // The first record's length follows the 20-byte header; claim one byte more than its fields take.
+        final ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+        snapshot.putInt(20, snapshot.getInt(20) + 1);
+        Files.write(snapshotPath, snapshot.array());
+
+        assertEquals(false, new InstrumentSnapshotStore(snapshotPath).load().isPresent());
+    }
+
+}
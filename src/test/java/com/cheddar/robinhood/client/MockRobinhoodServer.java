@@ -0,0 +1,523 @@
+package com.cheddar.robinhood.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process stand-in for the Robinhood API, serving the endpoints {@link RobinhoodClient} uses from generated data:
+ * login, accounts, positions, portfolios and historicals, quotes, paginated instruments and orders, and market hours.
+ * Point a client at {@link #getBaseURL()}. Latency, page counts, throttling and server errors come from a
+ * {@link MockRobinhoodServerConfig}.
+ */
+@Slf4j
+public class MockRobinhoodServer implements Closeable {
+
+    static final String TOKEN = "mock-token";
+    static final String ACCOUNT_NUMBER = "5QR24141";
+    public static final Instant ORDER_HISTORY_START = Instant.parse("2017-06-09T15:21:00Z");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    static {
+        // Otherwise Nagle holds back each body behind its headers until the client's delayed ACK, adding ~40 ms a call.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final MockRobinhoodServerConfig config;
+    private final HttpServer server;
+    private final ExecutorService serverExecutor;
+    private final String baseURL;
+
+    private final Random random;
+    private final AtomicLong nextOrderId = new AtomicLong();
+    private final Map<String, Map<String, Object>> placedOrders = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, Object>> amendedOrders = new ConcurrentHashMap<>();
+    private final AtomicLong historyAmendments = new AtomicLong();
+
+    private final Map<String, PageFailure> pageFailures = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final LongAdder throttledResponses = new LongAdder();
+    private final LongAdder errorResponses = new LongAdder();
+
+    public MockRobinhoodServer(final MockRobinhoodServerConfig config) throws IOException {
+        this.config = config;
+        this.random = new Random(config.getSeed());
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.serverExecutor = Executors.newFixedThreadPool(config.getServerThreads());
+        this.server.setExecutor(serverExecutor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+        this.baseURL = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public String getBaseURL() {
+        return baseURL;
+    }
+
+    /**
+     * Requests served per route, e.g. {@code "GET quotes"}, including those answered with an injected fault.
+     */
+    public long getRequestCount(final String route) {
+        final LongAdder count = requestCounts.get(route);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getThrottledResponses() {
+        return throttledResponses.sum();
+    }
+
+    public long getErrorResponses() {
+        return errorResponses.sum();
+    }
+
+    public int getInstrumentCount() {
+        return config.getInstrumentPages() * config.getInstrumentsPerPage();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            final String method = exchange.getRequestMethod();
+            final URI uri = exchange.getRequestURI();
+            final String[] path = uri.getPath().replaceAll("^/+|/+$", "").split("/");
+            final Map<String, String> params = readParams(uri.getRawQuery());
+            if ("POST".equals(method)) {
+                params.putAll(readParams(new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8)));
+            }
+
+            final String route = method + " " + route(path);
+            requestCounts.computeIfAbsent(route, key -> new LongAdder()).increment();
+
+            pause();
+
+            if ("GET".equals(method) && (injectPageFailure(exchange, failureKey(path, params)) || injectFault(exchange))) {
+                return;
+            }
+
+            if (!"api-token-auth".equals(path[0]) && !"markets".equals(path[0]) && !"quotes".equals(path[0])
+                && !"instruments".equals(path[0]) && !("Token " + TOKEN).equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                respond(exchange, 401, ImmutableMap.of("detail", "Authentication credentials were not provided."));
+                return;
+            }
+
+            final Object body = dispatch(method, path, params);
+            if (body == null) {
+                respond(exchange, 404, ImmutableMap.of("detail", "Not found."));
+            } else {
+                respond(exchange, "POST".equals(method) && "orders".equals(path[0]) ? 201 : 200, body);
+            }
+        } catch (final RuntimeException e) {
+            log.warn(e.getMessage(), e);
+            respond(exchange, 500, ImmutableMap.of("detail", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String route(final String[] path) {
+        if ("portfolios".equals(path[0]) && path.length > 1 && "historicals".equals(path[1])) {
+            return "portfolios/historicals";
+        }
+        if ("accounts".equals(path[0]) && path.length > 2) {
+            return "accounts/" + path[2];
+        }
+        return path[0] + (path.length > 1 && !"markets".equals(path[0]) ? "/{id}" : "");
+    }
+
+    private Object dispatch(final String method, final String[] path, final Map<String, String> params) {
+        final String resource = path[0];
+
+        if ("POST".equals(method)) {
+            if ("api-token-auth".equals(resource)) {
+                return ImmutableMap.of("token", TOKEN);
+            }
+            if ("orders".equals(resource)) {
+                return placeOrder(params);
+            }
+            return null;
+        }
+
+        switch (resource) {
+            case "accounts":
+                if (path.length == 1) {
+                    return ImmutableMap.of("results", Collections.singletonList(account()));
+                }
+                return path.length > 2 && "positions".equals(path[2]) ? page(positions(), null) : account();
+            case "portfolios":
+                return path.length > 1 && "historicals".equals(path[1]) ? historicals() : portfolio();
+            case "quotes":
+                return quotes(params.getOrDefault("symbols", ""));
+            case "instruments":
+                if (path.length > 1) {
+                    return instrument(path[1].toUpperCase(Locale.ENGLISH));
+                }
+                if (params.containsKey("symbol")) {
+                    return page(Collections.singletonList(instrument(params.get("symbol"))), null);
+                }
+                return instrumentsPage(Integer.parseInt(params.getOrDefault("cursor", "0")));
+            case "orders":
+                if (path.length > 1) {
+                    return placedOrders.getOrDefault(path[1], order(path[1], "buy", "S1", "1", "10.00", "filled"));
+                }
+                return ordersPage(Integer.parseInt(params.getOrDefault("cursor", "0")), params.get("updated_at[gte]"));
+            case "markets":
+                return path.length > 3 ? marketHours(LocalDate.parse(path[3])) : null;
+            default:
+                return null;
+        }
+    }
+
+    private void pause() {
+        long latencyMillis = config.getLatencyMillis();
+        if (config.getLatencyJitterMillis() > 0) {
+            synchronized (random) {
+                latencyMillis += (long) (random.nextDouble() * config.getLatencyJitterMillis());
+            }
+        }
+        if (latencyMillis <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Answers the next {@code times} requests for page {@code pageIndex} of the paginated {@code resource}
+     * ({@code "instruments"}, {@code "orders"}) with {@code statusCode}; a 429 carries the configured Retry-After.
+     */
+    public void failPage(final String resource, final int pageIndex, final int statusCode, final int times) {
+        pageFailures.put(resource + "#" + pageIndex, new PageFailure(statusCode, times));
+    }
+
+    /**
+     * Answers the next {@code times} requests for the market hours of {@code date} ({@code yyyy-MM-dd}) with
+     * {@code statusCode}.
+     */
+    public void failMarketHours(final String date, final int statusCode, final int times) {
+        pageFailures.put("markets#" + date, new PageFailure(statusCode, times));
+    }
+
+    // Pages are keyed by cursor, market hours by date.
+    private static String failureKey(final String[] path, final Map<String, String> params) {
+        if ("markets".equals(path[0])) {
+            return "markets#" + (path.length > 3 ? path[3] : "");
+        }
+        return path[0] + "#" + params.getOrDefault("cursor", "0");
+    }
+
+    private boolean injectPageFailure(final HttpExchange exchange, final String failureKey) throws IOException {
+        final PageFailure failure = pageFailures.get(failureKey);
+        if (failure == null || failure.remaining.getAndDecrement() <= 0) {
+            return false;
+        }
+
+        if (failure.statusCode == 429) {
+            throttledResponses.increment();
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(config.getRetryAfterSeconds()));
+        } else {
+            errorResponses.increment();
+        }
+        respond(exchange, failure.statusCode, ImmutableMap.of("detail", "Injected failure."));
+        return true;
+    }
+
+    private static class PageFailure {
+        private final int statusCode;
+        private final AtomicLong remaining;
+
+        private PageFailure(final int statusCode, final int times) {
+            this.statusCode = statusCode;
+            this.remaining = new AtomicLong(times);
+        }
+    }
+
+    private boolean injectFault(final HttpExchange exchange) throws IOException {
+        final double roll;
+        synchronized (random) {
+            roll = random.nextDouble();
+        }
+
+        if (roll < config.getThrottleRate()) {
+            throttledResponses.increment();
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(config.getRetryAfterSeconds()));
+            respond(exchange, 429, ImmutableMap.of("detail", "Request was throttled."));
+            return true;
+        }
+        if (roll < config.getThrottleRate() + config.getErrorRate()) {
+            errorResponses.increment();
+            respond(exchange, 500, ImmutableMap.of("detail", "Internal server error."));
+            return true;
+        }
+        return false;
+    }
+
+    private static void respond(final HttpExchange exchange, final int statusCode, final Object body) throws IOException {
+        final byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (final OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private static Map<String, String> readParams(final String rawQuery) {
+        final Map<String, String> params = new HashMap<>();
+        if (rawQuery != null) {
+            for (final NameValuePair pair : URLEncodedUtils.parse(rawQuery, StandardCharsets.UTF_8)) {
+                params.put(pair.getName(), pair.getValue());
+            }
+        }
+        return params;
+    }
+
+    private static Map<String, Object> page(final List<?> results, final String next) {
+        final Map<String, Object> page = new LinkedHashMap<>();
+        page.put("previous", null);
+        page.put("results", results);
+        page.put("next", next);
+        return page;
+    }
+
+    private Map<String, Object> account() {
+        final Map<String, Object> account = new LinkedHashMap<>();
+        account.put("url", baseURL + "accounts/" + ACCOUNT_NUMBER + "/");
+        account.put("account_number", ACCOUNT_NUMBER);
+        account.put("positions", baseURL + "accounts/" + ACCOUNT_NUMBER + "/positions/");
+        account.put("portfolio", baseURL + "portfolios/" + ACCOUNT_NUMBER + "/");
+        account.put("margin_balances", ImmutableMap.of("unallocated_margin_cash", "1250.00",
+                                                       "margin_limit", "0.00",
+                                                       "start_of_day_dtbp", "5000.00",
+                                                       "overnight_buying_power", "2500.00"));
+        return account;
+    }
+
+    private List<Map<String, Object>> positions() {
+        final List<Map<String, Object>> positions = new ArrayList<>();
+        for (int i = 0; i < config.getPositions(); ++i) {
+            positions.add(ImmutableMap.of("quantity", i % 5 == 0 ? "0.0000" : String.format("%d.0000", i * 10),
+                                          "average_buy_price", String.format("%.4f", 10.0 + i),
+                                          "instrument", instrumentURL("S" + i)));
+        }
+        return positions;
+    }
+
+    private static Map<String, Object> portfolio() {
+        return ImmutableMap.of("excess_maintenance", "1000.0000",
+                               "excess_margin", "1000.0000",
+                               "market_value", "15230.5500",
+                               "adjusted_equity_previous_close", "16100.2200",
+                               "equity_previous_close", "16100.2200");
+    }
+
+    private static Map<String, Object> historicals() {
+        final List<Map<String, Object>> values = new ArrayList<>();
+        for (int i = 0; i < 78; ++i) {
+            final String equity = String.format("%.4f", 16000.0 + i);
+            values.add(ImmutableMap.<String, Object>builder().put("begins_at", String.format("2017-06-09T%02d:%02d:00Z", 13 + (30 + i * 5) / 60, (30 + i * 5) % 60))
+                                                            .put("adjusted_open_equity", equity).put("adjusted_close_equity", equity)
+                                                            .put("open_equity", equity).put("close_equity", equity)
+                                                            .put("open_market_value", equity).put("close_market_value", equity)
+                                                            .put("net_return", "0.0000").put("session", "reg")
+                                                            .build());
+        }
+        return ImmutableMap.of("equity_historicals", values, "span", "day", "interval", "5minute");
+    }
+
+    private Map<String, Object> quotes(final String symbols) {
+        final List<Map<String, Object>> results = new ArrayList<>();
+        for (final String symbol : symbols.split(",")) {
+            if (!symbol.isEmpty()) {
+                results.add(quote(symbol));
+            }
+        }
+        return ImmutableMap.of("results", results);
+    }
+
+    private Map<String, Object> quote(final String symbol) {
+        final double price = 10 + Math.abs(symbol.hashCode() % 50000) / 100.0;
+        final Map<String, Object> quote = new LinkedHashMap<>();
+        quote.put("ask_price", String.format("%.4f", price + 0.01));
+        quote.put("ask_size", 100);
+        quote.put("bid_price", String.format("%.4f", price - 0.01));
+        quote.put("bid_size", 200);
+        quote.put("last_trade_price", String.format("%.4f", price));
+        quote.put("last_extended_hours_trade_price", null);
+        quote.put("previous_close", String.format("%.4f", price - 1));
+        quote.put("adjusted_previous_close", String.format("%.4f", price - 1));
+        quote.put("symbol", symbol);
+        quote.put("trading_halted", false);
+        quote.put("updated_at", "2017-06-09T15:20:33Z");
+        quote.put("instrument", instrumentURL(symbol));
+        return quote;
+    }
+
+    private String instrumentURL(final String symbol) {
+        return baseURL + "instruments/" + symbol.toLowerCase(Locale.ENGLISH) + "/";
+    }
+
+    private Map<String, Object> instrument(final String symbol) {
+        final Map<String, Object> instrument = new LinkedHashMap<>();
+        instrument.put("url", instrumentURL(symbol));
+        instrument.put("symbol", symbol);
+        instrument.put("name", symbol + " Inc. - Common Stock");
+        instrument.put("day_trade_ratio", "0.2500");
+        instrument.put("tradeable", true);
+        instrument.put("min_tick_size", null);
+        instrument.put("state", "active");
+        instrument.put("quote", baseURL + "quotes/" + symbol + "/");
+        return instrument;
+    }
+
+    private Map<String, Object> instrumentsPage(final int pageIndex) {
+        final List<Map<String, Object>> instruments = new ArrayList<>();
+        for (int i = 0; i < config.getInstrumentsPerPage(); ++i) {
+            instruments.add(instrument("S" + (pageIndex * config.getInstrumentsPerPage() + i)));
+        }
+        final boolean last = pageIndex + 1 >= config.getInstrumentPages();
+        return page(instruments, last ? null : baseURL + "instruments/?cursor=" + (pageIndex + 1));
+    }
+
+    /**
+     * Changes the state of order {@code n} of the history and moves its {@code updated_at} past every other order, as
+     * a cancel or late fill would.
+     */
+    public void amendHistoricalOrder(final int n, final String state) {
+        final Map<String, Object> order = historicalOrder(n);
+        order.put("state", state);
+        order.put("updated_at", ORDER_HISTORY_START.plusSeconds(60L * (historyAmendments.incrementAndGet() + config.getOrderPages() * config.getOrdersPerPage())).toString());
+        amendedOrders.put(n, order);
+    }
+
+    /**
+     * Moves a placed order to {@code state}, as the exchange would when it fills or is cancelled.
+     */
+    public void updatePlacedOrder(final String id, final String state) {
+        placedOrders.computeIfPresent(id, (key, placed) -> {
+            final Map<String, Object> order = new LinkedHashMap<>(placed);
+            order.put("state", state);
+            return order;
+        });
+    }
+
+    private Map<String, Object> historicalOrder(final int n) {
+        final Map<String, Object> order = order("order-" + n, n % 2 == 0 ? "buy" : "sell", "S" + n, "10", "25.00", "filled");
+        order.put("updated_at", ORDER_HISTORY_START.plusSeconds(60L * n).toString());
+        return order;
+    }
+
+    /**
+     * Order {@code n} of the history was last updated {@code n} minutes after {@link #ORDER_HISTORY_START} unless
+     * amended; {@code updated_at[gte]} filters on that, so pages past the cut-off come back short or empty.
+     */
+    private Map<String, Object> ordersPage(final int pageIndex, final String updatedSince) {
+        final Instant since = updatedSince == null ? Instant.MIN : Instant.parse(updatedSince);
+        final List<Map<String, Object>> orders = new ArrayList<>();
+        for (int i = 0; i < config.getOrdersPerPage(); ++i) {
+            final int n = pageIndex * config.getOrdersPerPage() + i;
+            final Map<String, Object> order = amendedOrders.containsKey(n) ? amendedOrders.get(n) : historicalOrder(n);
+            if (!Instant.parse((String) order.get("updated_at")).isBefore(since)) {
+                orders.add(order);
+            }
+        }
+        final boolean last = pageIndex + 1 >= config.getOrderPages();
+        // Like Robinhood, the next link repeats the filter the first page was requested with.
+        final String filter = updatedSince == null ? "" : "&updated_at%5Bgte%5D=" + updatedSince;
+        return page(orders, last ? null : baseURL + "orders/?cursor=" + (pageIndex + 1) + filter);
+    }
+
+    private Map<String, Object> placeOrder(final Map<String, String> params) {
+        final String id = "placed-" + nextOrderId.incrementAndGet();
+        final Map<String, Object> order = order(id, params.get("side"), params.get("symbol"), params.get("quantity"), params.get("price"), "queued");
+        placedOrders.put(id, order);
+        return order;
+    }
+
+    private Map<String, Object> order(final String id, final String side, final String symbol, final String quantity,
+                                      final String price, final String state) {
+        final Map<String, Object> order = new LinkedHashMap<>();
+        order.put("id", id);
+        order.put("url", baseURL + "orders/" + id + "/");
+        order.put("account", baseURL + "accounts/" + ACCOUNT_NUMBER + "/");
+        order.put("instrument", instrumentURL(symbol));
+        order.put("state", state);
+        order.put("side", side);
+        order.put("type", "limit");
+        order.put("time_in_force", "gfd");
+        order.put("trigger", "immediate");
+        order.put("price", price);
+        order.put("average_price", "filled".equals(state) ? price : null);
+        order.put("quantity", quantity);
+        order.put("cumulative_quantity", "filled".equals(state) ? quantity : "0.00000");
+        order.put("reject_reason", null);
+        order.put("created_at", "2017-06-09T15:21:01.918530Z");
+        order.put("updated_at", "2017-06-09T15:21:02.541836Z");
+        order.put("executions", "filled".equals(state)
+                                ? Collections.singletonList(ImmutableMap.of("quantity", quantity, "price", price,
+                                                                            "timestamp", "2017-06-09T15:21:02.370000Z"))
+                                : Collections.emptyList());
+        return order;
+    }
+
+    private static boolean isWeekday(final LocalDate date) {
+        return date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY;
+    }
+
+    private static LocalDate nearestWeekday(final LocalDate date, final int step) {
+        LocalDate weekday = date.plusDays(step);
+        while (!isWeekday(weekday)) {
+            weekday = weekday.plusDays(step);
+        }
+        return weekday;
+    }
+
+    /**
+     * Weekdays are open and weekends closed; like the real API, the links skip to the nearest open day.
+     */
+    private Map<String, Object> marketHours(final LocalDate date) {
+        final boolean open = isWeekday(date);
+        final Map<String, Object> hours = new LinkedHashMap<>();
+        hours.put("date", date.toString());
+        hours.put("is_open", open);
+        hours.put("opens_at", open ? date + "T13:30:00+00:00" : null);
+        hours.put("closes_at", open ? date + "T20:00:00+00:00" : null);
+        hours.put("extended_opens_at", open ? date + "T13:00:00+00:00" : null);
+        hours.put("extended_closes_at", open ? date + "T22:00:00+00:00" : null);
+        hours.put("previous_open_hours", baseURL + "markets/XNAS/hours/" + nearestWeekday(date, -1) + "/");
+        hours.put("next_open_hours", baseURL + "markets/XNAS/hours/" + nearestWeekday(date, 1) + "/");
+        return hours;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.cheddar.robinhood.client;
+
+import lombok.Data;
+
+/**
+ * Shape and misbehaviour of a {@link MockRobinhoodServer}. Faults are only injected into GETs, which the client
+ * retries; logins and order placement always succeed so that runs stay deterministic.
+ */
+@Data
+public class MockRobinhoodServerConfig {
+    private int serverThreads = 32;
+
+    /** Added to every response; a uniformly random extra of up to {@code latencyJitterMillis} is added on top. */
+    private long latencyMillis = 0;
+    private long latencyJitterMillis = 0;
+
+    private int instrumentPages = 5;
+    private int instrumentsPerPage = 100;
+    private int orderPages = 2;
+    private int ordersPerPage = 50;
+    private int positions = 10;
+
+    /** Fraction of GETs answered with 429 and {@code Retry-After: retryAfterSeconds}. */
+    private double throttleRate = 0;
+    private int retryAfterSeconds = 1;
+
+    /** Fraction of GETs answered with 500. */
+    private double errorRate = 0;
+
+    private long seed = 42;
+}
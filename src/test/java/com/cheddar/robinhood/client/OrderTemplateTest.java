@@ -0,0 +1,35 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Instrument;
+import com.cheddar.robinhood.data.OrderSide;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderTemplateTest {
+
+    private static final OrderTemplate TEMPLATE =
+            new OrderTemplate("https://api.robinhood.com/accounts/1/",
+                              new Instrument("https://api.robinhood.com/instruments/aapl/", "AAPL", "Apple", 0.25f, true, 0.01f), "AAPL");
+
+    private static String price(final double limit) {
+        final String body = new String(TEMPLATE.encode(OrderSide.BUY, 1, limit), StandardCharsets.US_ASCII);
+        return body.substring(body.indexOf("&price=") + "&price=".length());
+    }
+
+    @Test
+    public void testEncode_halfCentLimits_expectRoundedHalfUpLikeFormat() {
+        for (final double limit : new double[] {1.005, 1.015, 2.675, 0.125, 150.255, 150.25, 10.0, 0.004}) {
+            assertEquals(String.valueOf(limit), String.format(Locale.ROOT, "%.2f", limit), price(limit));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncode_zeroShares_expectException() {
+        TEMPLATE.encode(OrderSide.SELL, 0, 10.0);
+    }
+
+}
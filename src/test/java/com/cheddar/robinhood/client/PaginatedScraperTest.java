@@ -0,0 +1,96 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.http.EndpointFamily;
+import com.cheddar.http.HTTPClient;
+import com.cheddar.http.HTTPClientConfig;
+import com.cheddar.http.RetryPolicy;
+import com.cheddar.robinhood.data.Instrument;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PaginatedScraperTest {
+
+    // A single attempt per request, so that every throttled or failed page reaches the scraper itself.
+    private static HTTPClientConfig createSingleAttemptConfig() {
+        final HTTPClientConfig config = new HTTPClientConfig();
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            config.getRateLimiterConfig().getRequestsPerSecond().put(family, 10000.0);
+        }
+        config.getRateLimiterConfig().setDefaultRetryAfterMillis(5);
+        config.getResilienceConfig().setDefaultRetryPolicy(new RetryPolicy(1, 1, 1, 1.0));
+        config.getResilienceConfig().setCircuitFailureThreshold(100);
+        return config;
+    }
+
+    private static MockRobinhoodServerConfig createServerConfig() {
+        final MockRobinhoodServerConfig serverConfig = new MockRobinhoodServerConfig();
+        serverConfig.setInstrumentPages(6);
+        serverConfig.setInstrumentsPerPage(20);
+        serverConfig.setRetryAfterSeconds(0);
+        return serverConfig;
+    }
+
+    private static ScrapeProgress scrapeSymbols(final MockRobinhoodServer server, final List<String> symbols) {
+        try (final HTTPClient httpClient = new HTTPClient(createSingleAttemptConfig());
+             final PaginatedScraper scraper = new PaginatedScraper(httpClient, 8, progress -> { })) {
+            return scraper.scrape(server.getBaseURL() + "instruments/", ImmutableMap.of(), ImmutableMap.of(), Instrument.class,
+                                  instrument -> symbols.add(instrument.getSymbol()));
+        }
+    }
+
+    private static List<String> expectedSymbols(final int count) {
+        final List<String> symbols = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            symbols.add("S" + i);
+        }
+        return symbols;
+    }
+
+    @Test
+    public void testScrape_severalPages_expectRecordsInPageOrder() throws IOException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(createServerConfig())) {
+            final List<String> symbols = new ArrayList<>();
+
+            final ScrapeProgress progress = scrapeSymbols(server, symbols);
+
+            assertEquals(false, progress.isFailed());
+            assertEquals(6, progress.getPages());
+            assertEquals(expectedSymbols(120), symbols);
+        }
+    }
+
+    @Test
+    public void testScrape_throttledPage_expectPageResumedInOrder() throws IOException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(createServerConfig())) {
+            server.failPage("instruments", 3, 429, 2);
+            final List<String> symbols = new ArrayList<>();
+
+            final ScrapeProgress progress = scrapeSymbols(server, symbols);
+
+            assertEquals(false, progress.isFailed());
+            assertEquals(2, progress.getThrottles());
+            assertEquals(expectedSymbols(120), symbols);
+        }
+    }
+
+    @Test
+    public void testScrape_failedPage_expectFailedWithStatusAndEarlierPagesOnly() throws IOException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(createServerConfig())) {
+            server.failPage("instruments", 2, 503, Integer.MAX_VALUE);
+            final List<String> symbols = new ArrayList<>();
+
+            final ScrapeProgress progress = scrapeSymbols(server, symbols);
+
+            assertEquals(true, progress.isFailed());
+            assertEquals(503, progress.getFailureStatusCode());
+            assertEquals(expectedSymbols(40), symbols);
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.robinhood.data.Quote;
+import com.cheddar.robinhood.data.QuoteBatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuoteBatchAccumulatorTest {
+
+    private static Quote createQuote(final String symbol) {
+        final Quote quote = new Quote();
+        quote.setSymbol(symbol);
+        return quote;
+    }
+
+    @Test
+    public void testToQuoteBatch_chunksCompleteOutOfOrder_expectCallerOrder() {
+        final QuoteBatchAccumulator accumulator = new QuoteBatchAccumulator(ImmutableList.of("msft", "AAPL", "TSLA", "AMZN"), 2);
+        final List<List<String>> chunks = accumulator.getChunks();
+
+        assertEquals(2, chunks.size());
+
+        accumulator.addQuotes(chunks.get(1), Arrays.asList(createQuote("TSLA"), createQuote("AMZN")));
+        accumulator.addQuotes(chunks.get(0), Arrays.asList(createQuote("AAPL"), createQuote("MSFT")));
+
+        final QuoteBatch quoteBatch = accumulator.toQuoteBatch();
+
+        assertEquals(true, quoteBatch.isComplete());
+        assertEquals("MSFT", quoteBatch.getQuotes().get(0).getSymbol());
+        assertEquals("AAPL", quoteBatch.getQuotes().get(1).getSymbol());
+        assertEquals("TSLA", quoteBatch.getQuotes().get(2).getSymbol());
+        assertEquals("AMZN", quoteBatch.getQuotes().get(3).getSymbol());
+    }
+
+    @Test
+    public void testToQuoteBatch_oneChunkFailsAndOneSymbolUnknown_expectPartialResult() {
+        final QuoteBatchAccumulator accumulator = new QuoteBatchAccumulator(ImmutableList.of("AAPL", "NOPE", "TSLA"), 2);
+        final List<List<String>> chunks = accumulator.getChunks();
+
+        accumulator.addQuotes(chunks.get(0), Arrays.asList(createQuote("AAPL"), null));
+        accumulator.addFailure(chunks.get(1));
+
+        final QuoteBatch quoteBatch = accumulator.toQuoteBatch();
+
+        assertEquals(1, quoteBatch.getQuotes().size());
+        assertEquals(ImmutableSet.of("NOPE", "TSLA"), quoteBatch.getFailedSymbols());
+        assertEquals(1, quoteBatch.getFailedChunks());
+        assertEquals(2, quoteBatch.getTotalChunks());
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.http.HTTPResult;
+import com.cheddar.robinhood.data.Order;
+import com.cheddar.robinhood.data.OrderSide;
+import com.cheddar.robinhood.data.OrderState;
+import com.cheddar.robinhood.data.Quote;
+import com.cheddar.robinhood.exception.RobinhoodAuthenticationException;
+import com.cheddar.robinhood.exception.RobinhoodException;
+import com.cheddar.robinhood.exception.RobinhoodRateLimitException;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResponseParserTest {
+
+    @Test(expected = RobinhoodAuthenticationException.class)
+    public void testParseQuotes_unauthorized_expectAuthenticationException() throws RobinhoodException {
+        ResponseParser.parseQuotes(new HTTPResult(401, ImmutableMap.of(), "<html>Unauthorized</html>"));
+    }
+
+    @Test(expected = RobinhoodException.class)
+    public void testParsePlacedOrder_rejectReason_expectException() throws RobinhoodException {
+        ResponseParser.parsePlacedOrder(new HTTPResult(201, ImmutableMap.of(), "{\"id\":\"o1\",\"state\":\"rejected\",\"reject_reason\":\"insufficient\"}"),
+                                        "AAPL", OrderSide.BUY);
+    }
+
+    @Test
+    public void testParsePlacedOrder_queuedOrder_expectDecodedOrder() throws RobinhoodException {
+        final Order order = ResponseParser.parsePlacedOrder(
+                new HTTPResult(201, ImmutableMap.of(), "{\"id\":\"o1\",\"state\":\"queued\",\"side\":\"sell\",\"price\":\"12.50\",\"reject_reason\":null}"),
+                "AAPL", OrderSide.SELL);
+
+        assertEquals("o1", order.getId());
+        assertEquals(OrderState.QUEUED, order.getState());
+        assertEquals(12.5, order.getPrice(), 0.001);
+    }
+
+    @Test
+    public void testCheckStatus_throttled_expectRetryAfter() {
+        try {
+            ResponseParser.checkStatus(new HTTPResult(429, ImmutableMap.of("Retry-After", "7"), "{}"));
+        } catch (final RobinhoodRateLimitException e) {
+            assertEquals(7, e.getRetryAfterSeconds());
+            return;
+        } catch (final RobinhoodException e) {
+            throw new AssertionError(e);
+        }
+        throw new AssertionError("Expected a RobinhoodRateLimitException");
+    }
+
+    @Test
+    public void testParseQuotes_ok_expectQuotesWithoutNulls() throws RobinhoodException {
+        final List<Quote> quotes =
+                ResponseParser.parseQuotes(new HTTPResult(200, ImmutableMap.of(), "{\"results\":[{\"symbol\":\"AAPL\"},null]}"));
+
+        assertEquals(1, quotes.size());
+        assertEquals("AAPL", quotes.get(0).getSymbol());
+    }
+
+    @Test
+    public void testGetBody_declaredCharset_expectDecodedWithIt() {
+        final byte[] latin1 = "Caf\u00e9".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertEquals("Caf\u00e9", new HTTPResult(200, ImmutableMap.of(), latin1, StandardCharsets.ISO_8859_1).getBody());
+    }
+
+    @Test
+    public void testCheckStatus_longErrorPage_expectMessageWithExcerptOnly() {
+        final String page = "<html>" + StringUtils.repeat("x", 5000) + "</html>";
+        try {
+            ResponseParser.checkStatus(new HTTPResult(502, ImmutableMap.of(), page));
+        } catch (final RobinhoodException e) {
+            assertEquals(true, e.getMessage().length() < 300);
+            return;
+        }
+        throw new AssertionError("Expected a RobinhoodServerException");
+    }
+
+}
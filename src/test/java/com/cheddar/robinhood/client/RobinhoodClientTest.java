@@ -0,0 +1,247 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.http.EndpointFamily;
+import com.cheddar.http.HTTPClient;
+import com.cheddar.http.HTTPClientConfig;
+import com.cheddar.http.RetryPolicy;
+import com.cheddar.metrics.APIMethod;
+import com.cheddar.metrics.HistogramMetricsRecorder;
+import com.cheddar.metrics.Metrics;
+import com.cheddar.robinhood.data.Instrument;
+import com.cheddar.robinhood.data.Order;
+import com.cheddar.robinhood.data.OrderSide;
+import com.cheddar.robinhood.data.OrderState;
+import com.cheddar.robinhood.exception.RobinhoodAuthenticationException;
+import com.cheddar.robinhood.exception.RobinhoodException;
+import com.cheddar.robinhood.exception.RobinhoodNotFoundException;
+import com.google.common.collect.ImmutableList;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class RobinhoodClientTest {
+
+    private static HTTPClientConfig createFastClientConfig() {
+        final HTTPClientConfig config = new HTTPClientConfig();
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            config.getRateLimiterConfig().getRequestsPerSecond().put(family, 10000.0);
+        }
+        config.getRateLimiterConfig().setDefaultRetryAfterMillis(5);
+        config.getResilienceConfig().setDefaultRetryPolicy(new RetryPolicy(6, 1, 5, 2.0));
+        config.getResilienceConfig().setCircuitFailureThreshold(100);
+        return config;
+    }
+
+    @Test
+    public void testGetPortfolio_mockServer_expectSingleLoginThenPortfolio() throws IOException, RobinhoodException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            assertEquals(15230.55, client.getPortfolio().getMarket_value(), 0.001);
+            assertEquals(2500.0, client.getMarginBalances().getOvernight_buying_power(), 0.001);
+            assertEquals(1, server.getRequestCount("POST api-token-auth"));
+            assertEquals(1, server.getRequestCount("GET accounts"));
+        }
+    }
+
+    @Test
+    public void testGetAllInstruments_throttlingAndServerErrors_expectEveryInstrument() throws IOException, RobinhoodException {
+        final MockRobinhoodServerConfig serverConfig = new MockRobinhoodServerConfig();
+        serverConfig.setInstrumentPages(8);
+        serverConfig.setThrottleRate(0.3);
+        serverConfig.setRetryAfterSeconds(0);
+        serverConfig.setErrorRate(0.2);
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(serverConfig);
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            final Set<Instrument> instruments = client.getAllInstruments();
+
+            assertEquals(server.getInstrumentCount(), instruments.size());
+            assertEquals(true, server.getThrottledResponses() + server.getErrorResponses() > 0);
+        }
+    }
+
+    @Test
+    public void testGetOrdersAfterDate_unauthorizedSecondPage_expectAuthenticationExceptionAndSessionDropped() throws IOException, RobinhoodException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            client.getPortfolio();
+            server.failPage("orders", 1, 401, 1);
+
+            try {
+                client.getOrdersAfterDate(Date.from(MockRobinhoodServer.ORDER_HISTORY_START));
+                throw new AssertionError("Expected a RobinhoodAuthenticationException");
+            } catch (final RobinhoodAuthenticationException e) {
+                assertEquals(401, e.getStatusCode());
+            }
+
+            assertEquals(false, client.isLoggedIn());
+        }
+    }
+
+    @Test
+    public void testAsyncGetAllInstruments_failedPage_expectExceptionalCompletion() throws IOException, InterruptedException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL());
+             final AsyncRobinhoodClient asyncClient = new AsyncRobinhoodClient(client, ForkJoinPool.commonPool())) {
+
+            server.failPage("instruments", 2, 404, Integer.MAX_VALUE);
+
+            try {
+                asyncClient.getAllInstruments().get();
+                throw new AssertionError("Expected the scrape to fail");
+            } catch (final ExecutionException e) {
+                assertEquals(RobinhoodNotFoundException.class, e.getCause().getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncGetAllInstruments_throttledPage_expectEveryInstrument() throws IOException, InterruptedException, ExecutionException {
+        final MockRobinhoodServerConfig serverConfig = new MockRobinhoodServerConfig();
+        serverConfig.setInstrumentPages(4);
+        serverConfig.setRetryAfterSeconds(0);
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(serverConfig);
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL());
+             final AsyncRobinhoodClient asyncClient = new AsyncRobinhoodClient(client, ForkJoinPool.commonPool())) {
+
+            server.failPage("instruments", 2, 429, 2);
+
+            assertEquals(server.getInstrumentCount(), asyncClient.getAllInstruments().get().size());
+            assertEquals(2, server.getThrottledResponses());
+        }
+    }
+
+    @Test
+    public void testAsyncGetOrdersAfterDate_unauthorizedSecondPage_expectAuthenticationExceptionAndSessionDropped()
+            throws IOException, RobinhoodException, InterruptedException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL());
+             final AsyncRobinhoodClient asyncClient = new AsyncRobinhoodClient(client, ForkJoinPool.commonPool())) {
+
+            client.getPortfolio();
+            server.failPage("orders", 1, 401, 1);
+
+            try {
+                asyncClient.getOrdersAfterDate(Date.from(MockRobinhoodServer.ORDER_HISTORY_START)).get();
+                throw new AssertionError("Expected the scrape to fail");
+            } catch (final ExecutionException e) {
+                assertEquals(RobinhoodAuthenticationException.class, e.getCause().getClass());
+            }
+
+            assertEquals(false, client.isLoggedIn());
+        }
+    }
+
+    @Test
+    public void testBuyShares_mockServer_expectQueuedOrderRetrievableByURL() throws IOException, RobinhoodException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            final Order order = client.buyShares("AAPL", 3, 150.25);
+
+            assertEquals(OrderState.QUEUED, order.getState());
+            assertEquals(OrderSide.BUY, order.getSide());
+            assertEquals(150.25, order.getPrice(), 0.001);
+            assertEquals(order.getId(), client.getOrderFromURL(order.getUrl()).get().getId());
+        }
+    }
+
+    @Test
+    public void testBuyShares_negativeLimitAndLowerCaseSymbol_expectRobinhoodExceptionAndSharedTemplate() throws IOException, RobinhoodException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            client.prepareOrders(ImmutableList.of("AAPL"));
+            final long instrumentRequests = server.getRequestCount("GET instruments");
+
+            try {
+                client.buyShares("aapl", 1, -1.0);
+                throw new AssertionError("Expected a RobinhoodException");
+            } catch (final RobinhoodException e) {
+                assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+            }
+
+            assertEquals(instrumentRequests, server.getRequestCount("GET instruments"));
+        }
+    }
+
+    @Test
+    public void testSellShares_preparedOrders_expectNoInstrumentLookupWhenPlacing() throws IOException, RobinhoodException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            client.prepareOrders(ImmutableList.of("MSFT"));
+            final long instrumentRequests = server.getRequestCount("GET instruments");
+
+            assertEquals(true, client.warmUpConnection());
+            final Order order = client.sellShares("MSFT", 2, 41.006);
+
+            assertEquals(OrderSide.SELL, order.getSide());
+            assertEquals(41.01, order.getPrice(), 0.001);
+            assertEquals(2.0, order.getQuantity(), 0.001);
+            assertEquals(instrumentRequests, server.getRequestCount("GET instruments"));
+        }
+    }
+
+    @Test
+    public void testGetPortfolio_histogramRecorder_expectCallRequestsAndParseRecorded() throws IOException, RobinhoodException {
+        final HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+        Metrics.setRecorder(recorder);
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            client.getPortfolio();
+
+            assertEquals(1, recorder.getCallLatencies(APIMethod.GET_PORTFOLIO).getCount());
+            assertEquals(1, recorder.getCallLatencies(APIMethod.LOGIN).getCount());
+            assertEquals(0, recorder.getCallFailures(APIMethod.GET_PORTFOLIO));
+            assertEquals(3, recorder.getStatusCount(EndpointFamily.ACCOUNT, 200));
+            assertEquals(true, recorder.getBytesIn(EndpointFamily.ACCOUNT) > 0);
+            assertEquals(true, recorder.getParseLatencies().size() > 0);
+        } finally {
+            Metrics.setRecorder(null);
+        }
+    }
+
+    @Test
+    public void testGetMarketStateForDate_sameDayTwice_expectSingleRequest() throws IOException, RobinhoodException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            final DateTime morning = new DateTime(2017, 3, 13, 9, 0);
+
+            assertEquals(client.getMarketStateForDate(morning), client.getMarketStateForDate(morning.plusHours(6)));
+            assertEquals(1, server.getRequestCount("GET markets"));
+        }
+    }
+
+    @Test
+    public void testLoadDriver_everyMethod_expectCallsAndNoErrors() throws IOException, InterruptedException {
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(createFastClientConfig()), server.getBaseURL())) {
+
+            final Map<String, RobinhoodLoadDriver.MethodStats> stats =
+                    RobinhoodLoadDriver.forEveryMethod(server.getBaseURL(), ImmutableList.of("AAPL", "MSFT")).run(client, 14, 500);
+
+            assertEquals(14, stats.size());
+            for (final RobinhoodLoadDriver.MethodStats methodStats : stats.values()) {
+                assertEquals(methodStats.getMethod(), true, methodStats.getCalls() > 0);
+                assertEquals(methodStats.getMethod(), 0, methodStats.getErrors());
+            }
+        }
+    }
+
+}
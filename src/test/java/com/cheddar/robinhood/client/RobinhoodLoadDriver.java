@@ -0,0 +1,183 @@
+package com.cheddar.robinhood.client;
+
+import com.cheddar.http.EndpointFamily;
+import com.cheddar.http.HTTPClient;
+import com.cheddar.http.HTTPClientConfig;
+import com.cheddar.robinhood.RobinhoodAPI;
+import com.google.common.collect.ImmutableList;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls {@link RobinhoodAPI} methods from several threads for a fixed time and reports throughput and p50/p99 latency
+ * per method. {@link #main} runs every method against a {@link MockRobinhoodServer}, so throughput or tail-latency
+ * regressions show up offline; {@code ./gradlew loadTest -PloadTest.args="threads seconds latencyMillis"}.
+ */
+@Slf4j
+public class RobinhoodLoadDriver {
+
+    @FunctionalInterface
+    public interface Call {
+        void run(final RobinhoodAPI api) throws Exception;
+    }
+
+    @Data
+    public static class MethodStats {
+        private final String method;
+        private final long calls;
+        private final long errors;
+        private final double callsPerSecond;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+    }
+
+    private final Map<String, Call> calls = new LinkedHashMap<>();
+
+    public RobinhoodLoadDriver add(final String method, final Call call) {
+        calls.put(method, call);
+        return this;
+    }
+
+    /**
+     * One call of every {@link RobinhoodAPI} method, with URLs pointing at the server behind {@code baseURL}.
+     */
+    public static RobinhoodLoadDriver forEveryMethod(final String baseURL, final List<String> symbols) {
+        final String instrumentURL = baseURL + "instruments/" + symbols.get(0).toLowerCase(Locale.ENGLISH) + "/";
+        final String orderURL = baseURL + "orders/order-1/";
+        final Date ordersSince = new DateTime().minusDays(1).toDate();
+
+        return new RobinhoodLoadDriver().add("getPortfolio", RobinhoodAPI::getPortfolio)
+                                        .add("getAllInstruments", RobinhoodAPI::getAllInstruments)
+                                        .add("getInstrumentFromURL", api -> api.getInstrumentFromURL(instrumentURL))
+                                        .add("getInstrumentForSymbol", api -> api.getInstrumentForSymbol(symbols.get(1)))
+                                        .add("getMarginBalances", RobinhoodAPI::getMarginBalances)
+                                        .add("getPositions", RobinhoodAPI::getPositions)
+                                        .add("getOrdersAfterDate", api -> api.getOrdersAfterDate(ordersSince))
+                                        .add("getHistoricalValues", api -> api.getHistoricalValues("day", "5minute", "regular"))
+                                        .add("getQuotes", api -> api.getQuotes(symbols))
+                                        .add("getQuote", api -> api.getQuote(symbols.get(0)))
+                                        .add("buyShares", api -> api.buyShares(symbols.get(0), 1, 10.0))
+                                        .add("sellShares", api -> api.sellShares(symbols.get(0), 1, 10.0))
+                                        .add("getOrderFromURL", api -> api.getOrderFromURL(orderURL))
+                                        .add("getMarketStateForDate", api -> api.getMarketStateForDate(new DateTime()));
+    }
+
+    /**
+     * Runs for {@code durationMillis} on {@code threads} threads, each cycling through the registered calls from a
+     * different starting point so that every method sees concurrent load. A call that throws counts as an error and
+     * is left out of the latency figures.
+     */
+    public Map<String, MethodStats> run(final RobinhoodAPI api, final int threads, final long durationMillis) throws InterruptedException {
+        final List<String> methods = new ArrayList<>(calls.keySet());
+        final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        methods.forEach(method -> recorders.put(method, new LatencyRecorder()));
+
+        final ExecutorService workers = Executors.newFixedThreadPool(threads);
+        final long startNanos = System.nanoTime();
+        final long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+
+        for (int t = 0; t < threads; ++t) {
+            final int offset = t;
+            workers.execute(() -> {
+                for (int i = offset; System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted(); ++i) {
+                    final String method = methods.get(i % methods.size());
+                    final long callStartNanos = System.nanoTime();
+                    try {
+                        calls.get(method).run(api);
+                        recorders.get(method).record(System.nanoTime() - callStartNanos);
+                    } catch (final Exception e) {
+                        log.debug("{} failed: {}", method, e.getMessage());
+                        recorders.get(method).error();
+                    }
+                }
+            });
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(durationMillis + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+
+        final double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        final Map<String, MethodStats> stats = new LinkedHashMap<>();
+        recorders.forEach((method, recorder) -> stats.put(method, recorder.toStats(method, elapsedSeconds)));
+        return stats;
+    }
+
+    public static String formatReport(final Map<String, MethodStats> stats) {
+        final StringBuilder report = new StringBuilder(String.format("%-24s %8s %7s %10s %10s %10s %10s%n",
+                                                                     "method", "calls", "errors", "calls/s", "p50 ms", "p99 ms", "max ms"));
+        for (final MethodStats methodStats : stats.values()) {
+            report.append(String.format("%-24s %8d %7d %10.1f %10.2f %10.2f %10.2f%n", methodStats.getMethod(), methodStats.getCalls(),
+                                        methodStats.getErrors(), methodStats.getCallsPerSecond(), methodStats.getP50Millis(),
+                                        methodStats.getP99Millis(), methodStats.getMaxMillis()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Arguments: threads, seconds, server latency in millis. The client's rate limits are lifted so the figures reflect
+     * the client and server rather than the client's self-imposed request budget.
+     */
+    public static void main(final String[] args) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        final MockRobinhoodServerConfig serverConfig = new MockRobinhoodServerConfig();
+        serverConfig.setLatencyMillis(args.length > 2 ? Long.parseLong(args[2]) : 5);
+        serverConfig.setLatencyJitterMillis(serverConfig.getLatencyMillis());
+
+        final HTTPClientConfig clientConfig = new HTTPClientConfig();
+        for (final EndpointFamily family : EndpointFamily.values()) {
+            clientConfig.getRateLimiterConfig().getRequestsPerSecond().put(family, 100000.0);
+        }
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(serverConfig);
+             final RobinhoodClient client = new RobinhoodClient("load", "test", new HTTPClient(clientConfig), server.getBaseURL())) {
+            final Map<String, MethodStats> stats =
+                    forEveryMethod(server.getBaseURL(), ImmutableList.of("AAPL", "MSFT", "GOOG", "AMZN", "TSLA")).run(client, threads, TimeUnit.SECONDS.toMillis(seconds));
+
+            System.out.printf("%d threads for %d s, server latency %d ms (+ up to %d ms jitter)%n%s", threads, seconds,
+                              serverConfig.getLatencyMillis(), serverConfig.getLatencyJitterMillis(), formatReport(stats));
+        }
+    }
+
+    private static class LatencyRecorder {
+        private final LongAdder errors = new LongAdder();
+        private long[] latencies = new long[1024];
+        private int count;
+
+        private synchronized void record(final long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+
+        private void error() {
+            errors.increment();
+        }
+
+        private synchronized MethodStats toStats(final String method, final double elapsedSeconds) {
+            final long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new MethodStats(method, count, errors.sum(), count / elapsedSeconds,
+                                   percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), percentileMillis(sorted, 1.0));
+        }
+
+        private static double percentileMillis(final long[] sorted, final double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            final int index = Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1);
+            return sorted[index] / 1e6;
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.cheddar.robinhood.client;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RobinhoodSessionTest {
+
+    @Test
+    public void testIsLoggedIn_tokenAndAccountEndpoints_expectTrue() {
+        final RobinhoodSession anonymousSession =
+                new RobinhoodSession(ImmutableMap.of("Accept", "*/*"), ImmutableMap.of("login", "https://login/"));
+
+        final RobinhoodSession authenticatedSession = anonymousSession.withAuthToken("abc");
+        final RobinhoodSession loggedInSession =
+                authenticatedSession.withEndpoints(ImmutableMap.of("positions", "p", "portfolio", "pf", "account", "a"));
+
+        assertEquals(false, anonymousSession.isLoggedIn());
+        assertEquals(false, authenticatedSession.isLoggedIn());
+        assertEquals(true, loggedInSession.isLoggedIn());
+        assertEquals("Token abc", loggedInSession.getHeaders().get("Authorization"));
+        assertEquals("https://login/", loggedInSession.getEndpoint("login"));
+    }
+
+    @Test
+    public void testWithAuthToken_existingSession_expectOriginalUnchanged() {
+        final RobinhoodSession anonymousSession =
+                new RobinhoodSession(ImmutableMap.of("Accept", "*/*"), ImmutableMap.of());
+
+        anonymousSession.withAuthToken("abc");
+
+        assertEquals(null, anonymousSession.getHeaders().get("Authorization"));
+        assertEquals(1, anonymousSession.getHeaders().size());
+    }
+
+}
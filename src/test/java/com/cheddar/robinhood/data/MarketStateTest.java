@@ -5,6 +5,10 @@ import com.google.common.collect.ImmutableMap;
 import org.joda.time.DateTime;
 import org.junit.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
 import static org.junit.Assert.assertEquals;
 
 public class MarketStateTest {
@@ -36,4 +40,25 @@ public class MarketStateTest {
         assertEquals(marketState.getExtendedCloseTime().isPresent(), true);
     }
 
+    @Test
+    public void testIsAfterHoursNow_injectedClock_expectSessionPerTime() {
+        final ImmutableMap<String, String> robinhoodDay = ImmutableMap.<String, String>builder().put("is_open", "true")
+                                                                                                .put("extended_opens_at", "2017-03-13T13:00:00+00:00")
+                                                                                                .put("opens_at", "2017-03-13T13:30:00+00:00")
+                                                                                                .put("closes_at", "2017-03-13T20:00:00+00:00")
+                                                                                                .put("extended_closes_at", "2017-03-13T22:00:00+00:00")
+                                                                                                .build();
+        final MarketState preMarket = new MarketState(robinhoodDay, Clock.fixed(Instant.parse("2017-03-13T13:10:00Z"), ZoneOffset.UTC));
+        final MarketState regular = new MarketState(robinhoodDay, Clock.fixed(Instant.parse("2017-03-13T15:00:00Z"), ZoneOffset.UTC));
+        final MarketState overnight = new MarketState(robinhoodDay, Clock.fixed(Instant.parse("2017-03-13T23:00:00Z"), ZoneOffset.UTC));
+
+        assertEquals(true, preMarket.isAfterHoursNow());
+        assertEquals(true, preMarket.isOpenNow());
+        assertEquals(false, regular.isAfterHoursNow());
+        assertEquals(true, regular.isOpenNow());
+        assertEquals(false, overnight.isAfterHoursNow());
+        assertEquals(false, overnight.isOpenNow());
+        assertEquals(Instant.parse("2017-03-13T13:30:00Z").toEpochMilli(), regular.getOpensAtMillis());
+    }
+
 }
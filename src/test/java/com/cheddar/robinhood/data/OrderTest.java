@@ -0,0 +1,64 @@
+package com.cheddar.robinhood.data;
+
+import com.cheddar.util.JSONUtil;
+import com.cheddar.util.TimeUtil;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderTest {
+
+    private static final String FILLED_ORDER = "{\"id\":\"order-1\",\"state\":\"filled\",\"side\":\"buy\",\"price\":\"171.25000000\"," +
+                                               "\"average_price\":\"171.21600000\",\"quantity\":\"10.00000\",\"cumulative_quantity\":\"10.00000\"," +
+                                               "\"created_at\":\"2017-06-09T15:21:01.918530Z\",\"updated_at\":null,\"executions\":[" +
+                                               "{\"timestamp\":\"2017-06-09T15:21:02.230000Z\",\"price\":\"171.21000000\",\"quantity\":\"4.00000\"}," +
+                                               "{\"timestamp\":\"2017-06-09T15:21:02.370000Z\",\"price\":\"171.22000000\",\"quantity\":\"6.00000\"}]}";
+
+    @Test
+    public void testDeserializeObject_filledOrder_expectTypedFieldsAndFillAggregates() {
+        final Order order = JSONUtil.deserializeObject(FILLED_ORDER, Order.class).get();
+
+        assertEquals(OrderState.FILLED, order.getState());
+        assertEquals(true, order.getState().isTerminal());
+        assertEquals(OrderSide.BUY, order.getSide());
+        assertEquals(171.25, order.getPrice(), 1e-9);
+        assertEquals(Instant.parse("2017-06-09T15:21:01.918Z").toEpochMilli(), order.getCreated_at());
+        assertEquals(TimeUtil.NO_TIME, order.getUpdated_at());
+        assertEquals(Instant.parse("2017-06-09T15:21:02.230Z").toEpochMilli(), order.getExecutions().get(0).getTimestamp());
+        assertEquals(10.0, order.getFilledQuantity(), 1e-9);
+        assertEquals(0.0, order.getRemainingQuantity(), 1e-9);
+        assertEquals(171.216, order.getVolumeWeightedAveragePrice(), 1e-9);
+    }
+
+    @Test
+    public void testDeserializeObject_serializedOrderAndUnknownState_expectRoundTrip() {
+        final Order order = JSONUtil.deserializeObject(FILLED_ORDER.replace("\"filled\"", "\"pending_review\""), Order.class).get();
+
+        assertEquals(OrderState.UNKNOWN, order.getState());
+        assertEquals(order, JSONUtil.deserializeObject(JSONUtil.serializeObject(order).get(), Order.class).get());
+    }
+
+    @Test
+    public void testDeserializeObject_nullStateAndSide_expectUnknown() {
+        final String json = FILLED_ORDER.replace("\"state\":\"filled\"", "\"state\":null").replace("\"side\":\"buy\"", "\"side\":null");
+        final Order order = JSONUtil.deserializeObject(json, Order.class).get();
+
+        assertEquals(OrderState.UNKNOWN, order.getState());
+        assertEquals(false, order.getState().isTerminal());
+        assertEquals(OrderSide.UNKNOWN, order.getSide());
+    }
+
+    @Test
+    public void testDeserializeObject_nullExecutions_expectNothingFilled() {
+        final String json = FILLED_ORDER.substring(0, FILLED_ORDER.indexOf("\"executions\":")) + "\"executions\":null}";
+        final Order order = JSONUtil.deserializeObject(json, Order.class).get();
+
+        assertEquals(0, order.getExecutions().size());
+        assertEquals(0.0, order.getFilledQuantity(), 1e-9);
+        assertEquals(10.0, order.getRemainingQuantity(), 1e-9);
+        assertEquals(true, Double.isNaN(order.getVolumeWeightedAveragePrice()));
+    }
+
+}
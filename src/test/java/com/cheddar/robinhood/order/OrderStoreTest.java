@@ -0,0 +1,91 @@
+package com.cheddar.robinhood.order;
+
+import com.cheddar.http.HTTPClient;
+import com.cheddar.robinhood.client.MockRobinhoodServer;
+import com.cheddar.robinhood.client.MockRobinhoodServerConfig;
+import com.cheddar.robinhood.client.RobinhoodClient;
+import com.cheddar.robinhood.data.Order;
+import com.cheddar.robinhood.data.OrderState;
+import com.cheddar.robinhood.exception.RobinhoodException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class OrderStoreTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSync_amendedOrder_expectOnlyDeltaMergedAndJournalReplayed() throws IOException, RobinhoodException {
+        final MockRobinhoodServerConfig serverConfig = new MockRobinhoodServerConfig();
+        serverConfig.setOrderPages(3);
+        serverConfig.setOrdersPerPage(20);
+        final OrderJournal journal = new OrderJournal(temporaryFolder.getRoot().toPath().resolve("orders.jsonl"));
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(serverConfig);
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(), server.getBaseURL())) {
+
+            final OrderStore orderStore = new OrderStore(client, journal);
+
+            assertEquals(60, orderStore.sync().size());
+            assertEquals(MockRobinhoodServer.ORDER_HISTORY_START.plusSeconds(59 * 60).toEpochMilli(), orderStore.getHighWaterMarkMillis());
+            assertEquals(0, orderStore.sync().size());
+
+            server.amendHistoricalOrder(7, "cancelled");
+            final List<Order> changed = orderStore.sync();
+
+            assertEquals(1, changed.size());
+            assertEquals(OrderState.CANCELLED, orderStore.get("order-7").get().getState());
+            assertEquals(60, orderStore.size());
+
+            final OrderStore restarted = new OrderStore(client, journal);
+            assertEquals(60, restarted.load());
+            assertEquals(orderStore.getHighWaterMarkMillis(), restarted.getHighWaterMarkMillis());
+            assertEquals(OrderState.CANCELLED, restarted.get("order-7").get().getState());
+
+            orderStore.compactJournal();
+            assertEquals(60, new OrderStore(client, journal).load());
+        }
+    }
+
+    @Test
+    public void testSync_pageFailsPartway_expectHighWaterMarkKeptAndMissedOrdersFetchedLater() throws IOException, RobinhoodException {
+        final MockRobinhoodServerConfig serverConfig = new MockRobinhoodServerConfig();
+        serverConfig.setOrderPages(3);
+        serverConfig.setOrdersPerPage(20);
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(serverConfig);
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(), server.getBaseURL())) {
+
+            final OrderStore orderStore = new OrderStore(client);
+            assertEquals(60, orderStore.sync().size());
+            final long highWaterMarkMillis = orderStore.getHighWaterMarkMillis();
+
+            server.amendHistoricalOrder(7, "cancelled");
+            server.amendHistoricalOrder(45, "cancelled");
+            server.failPage("orders", 1, 404, Integer.MAX_VALUE);
+            try {
+                orderStore.sync();
+                fail("Expected the failed page to fail the sync.");
+            } catch (final RobinhoodException e) {
+                // expected
+            }
+
+            assertEquals(highWaterMarkMillis, orderStore.getHighWaterMarkMillis());
+            assertEquals(OrderState.FILLED, orderStore.get("order-7").get().getState());
+
+            server.failPage("orders", 1, 404, 0);
+            assertEquals(2, orderStore.sync().size());
+            assertEquals(OrderState.CANCELLED, orderStore.get("order-7").get().getState());
+            assertEquals(OrderState.CANCELLED, orderStore.get("order-45").get().getState());
+        }
+    }
+
+}
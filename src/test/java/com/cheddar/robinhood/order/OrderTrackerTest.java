@@ -0,0 +1,49 @@
+package com.cheddar.robinhood.order;
+
+import com.cheddar.http.HTTPClient;
+import com.cheddar.robinhood.client.MockRobinhoodServer;
+import com.cheddar.robinhood.client.MockRobinhoodServerConfig;
+import com.cheddar.robinhood.client.RobinhoodClient;
+import com.cheddar.robinhood.data.Order;
+import com.cheddar.robinhood.data.OrderState;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderTrackerTest {
+
+    @Test
+    public void testTrack_placedOrderLaterFilled_expectFutureCompletedAndPollingStopped() throws Exception {
+        final OrderTrackerConfig config = new OrderTrackerConfig();
+        config.setFastPollMillis(10);
+        config.setRestingPollMillis(10);
+
+        try (final MockRobinhoodServer server = new MockRobinhoodServer(new MockRobinhoodServerConfig());
+             final RobinhoodClient client = new RobinhoodClient("user", "pass", new HTTPClient(), server.getBaseURL());
+             final OrderTracker orderTracker = new OrderTracker(client, config)) {
+
+            final Order placed = client.buyShares("AAPL", 2, 150.0);
+            final CompletableFuture<Order> filled = orderTracker.track(placed);
+
+            assertEquals(filled, orderTracker.track(placed));
+            assertEquals(1, orderTracker.getTrackedOrderCount());
+
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(false, filled.isDone());
+
+            server.updatePlacedOrder(placed.getId(), "filled");
+
+            assertEquals(OrderState.FILLED, filled.get(5, TimeUnit.SECONDS).getState());
+            assertEquals(0, orderTracker.getTrackedOrderCount());
+
+            final long polls = server.getRequestCount("GET orders/{id}");
+            assertEquals(true, polls > 1);
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(polls, server.getRequestCount("GET orders/{id}"));
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.cheddar.robinhood.stream;
+
+import com.cheddar.robinhood.data.Quote;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuoteChangeTest {
+
+    private static Quote createQuote(final double bid, final double ask, final double last) {
+        return new Quote("AAPL", ask, bid, 100, 100, last, last, 150, 150, "https://api.robinhood.com/instruments/aapl/");
+    }
+
+    @Test
+    public void testBetween_firstQuote_expectAllFieldsChanged() {
+        final Optional<QuoteChange> quoteChange = QuoteChange.between(null, createQuote(150.1, 150.2, 150.15));
+
+        assertEquals(EnumSet.allOf(QuoteField.class), quoteChange.get().getChangedFields());
+    }
+
+    @Test
+    public void testBetween_identicalQuotes_expectNoChange() {
+        assertEquals(false, QuoteChange.between(createQuote(150.1, 150.2, 150.15), createQuote(150.1, 150.2, 150.15)).isPresent());
+    }
+
+    @Test
+    public void testMergedWith_twoChanges_expectUnionFromFirstPrevious() {
+        final Quote first = createQuote(150.1, 150.2, 150.15);
+        final Quote second = createQuote(150.0, 150.2, 150.15);
+        final Quote third = createQuote(150.0, 150.3, 150.15);
+
+        final QuoteChange merged = QuoteChange.between(first, second).get().mergedWith(QuoteChange.between(second, third).get());
+
+        assertEquals(EnumSet.of(QuoteField.BID_PRICE, QuoteField.ASK_PRICE), merged.getChangedFields());
+        assertEquals(first, merged.getPrevious());
+        assertEquals(third, merged.getCurrent());
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.cheddar.robinhood.stream;
+
+import com.cheddar.robinhood.data.Quote;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuoteSubscriptionTest {
+
+    private static QuoteChange createChange(final double last) {
+        return QuoteChange.between(null, new Quote("AAPL", last, last, 100, 100, last, last, 150, 150,
+                                                   "https://api.robinhood.com/instruments/aapl/")).get();
+    }
+
+    @Test
+    public void testEnqueue_deliveryRejectedOnce_expectNoExceptionAndLaterChangesDelivered() {
+        final AtomicInteger executions = new AtomicInteger();
+        final Executor rejectingOnce = task -> {
+            if (executions.incrementAndGet() == 1) {
+                throw new RejectedExecutionException("shut down");
+            }
+            task.run();
+        };
+        final List<QuoteChange> received = new ArrayList<>();
+        final QuoteSubscription subscription = new QuoteSubscription(ImmutableSet.of("AAPL"), received::add, rejectingOnce, null);
+
+        subscription.enqueue(createChange(150.0));
+        subscription.enqueue(createChange(151.0));
+
+        assertEquals(1, received.size());
+        assertEquals(151.0, received.get(0).getCurrent().getLast_trade_price(), 0.001);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.cheddar.util;
+
+import com.cheddar.robinhood.data.Instrument;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JSONUtilTest {
+
+    private static final String INSTRUMENTS_PAGE =
+            "{\"previous\":null,\"results\":[" +
+            "{\"url\":\"https://api.robinhood.com/instruments/1/\",\"symbol\":\"AAPL\",\"min_tick_size\":null,\"splits\":[1,2]}," +
+            "null," +
+            "{\"url\":\"https://api.robinhood.com/instruments/2/\",\"symbol\":\"MSFT\",\"tradeable\":true}" +
+            "],\"meta\":{\"count\":2},\"next\":\"https://api.robinhood.com/instruments/?cursor=abc\"}";
+
+    @Test
+    public void testStreamArrayField_paginatedResults_expectRecordsAndCursor() throws Exception {
+        final List<Instrument> instruments = new ArrayList<>();
+
+        final Map<String, String> fields =
+                JSONUtil.streamArrayField(new ByteArrayInputStream(INSTRUMENTS_PAGE.getBytes(StandardCharsets.UTF_8)),
+                                          "results", Instrument.class, instruments::add);
+
+        assertEquals(2, instruments.size());
+        assertEquals("AAPL", instruments.get(0).getSymbol());
+        assertEquals("MSFT", instruments.get(1).getSymbol());
+        assertEquals(true, instruments.get(1).isTradeable());
+        assertEquals("https://api.robinhood.com/instruments/?cursor=abc", fields.get("next"));
+        assertNull(fields.get("previous"));
+    }
+
+    @Test
+    public void testStreamArrayField_missingArray_expectNoRecords() throws Exception {
+        final List<Instrument> instruments = new ArrayList<>();
+
+        final Map<String, String> fields = JSONUtil.streamArrayField("{\"next\":null}", "results", Instrument.class, instruments::add);
+
+        assertEquals(0, instruments.size());
+        assertNull(fields.get("next"));
+    }
+
+}
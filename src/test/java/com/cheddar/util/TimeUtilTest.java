@@ -0,0 +1,82 @@
+package com.cheddar.util;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TimeUtilTest {
+
+    @Test
+    public void testParseISO8601Millis_robinhoodFormats_expectSameAsJavaTime() {
+        assertEquals(Instant.parse("2017-06-09T15:21:01.918Z").toEpochMilli(), TimeUtil.parseISO8601Millis("2017-06-09T15:21:01.918530Z"));
+        assertEquals(Instant.parse("2017-03-13T20:00:00Z").toEpochMilli(), TimeUtil.parseISO8601Millis("2017-03-13T20:00:00+00:00"));
+        assertEquals(Instant.parse("2017-03-13T18:00:00Z").toEpochMilli(), TimeUtil.parseISO8601Millis("2017-03-13T13:00:00-0500"));
+        assertEquals(Instant.parse("2017-03-13T12:00:00.500Z").toEpochMilli(), TimeUtil.parseISO8601Millis("2017-03-13T13:00:00.5+01"));
+        assertEquals(Instant.parse("1969-12-31T23:59:59Z").toEpochMilli(), TimeUtil.parseISO8601Millis("1969-12-31T23:59:59"));
+    }
+
+    @Test
+    public void testParseISO8601Millis_randomInstants_expectRoundTrip() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10000; ++i) {
+            final long millis = random.nextLong() % 8_000_000_000_000L;
+            final String text = OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.ofHours(random.nextInt(25) - 12)).toString();
+            if (text.length() >= 19 && text.charAt(16) == ':') {
+                assertEquals(text, millis, TimeUtil.parseISO8601Millis(text));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseISO8601Millis_garbageOffset_expectException() {
+        TimeUtil.parseISO8601Millis("2017-03-13T20:00:00+00:0");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseISO8601Millis_dayPastEndOfMonth_expectException() {
+        TimeUtil.parseISO8601Millis("2017-02-30T00:00:00Z");
+    }
+
+    @Test
+    public void testParseISO8601Millis_leapDays_expectOnlyInLeapYears() {
+        assertEquals(Instant.parse("2016-02-29T00:00:00Z").toEpochMilli(), TimeUtil.parseISO8601Millis("2016-02-29T00:00:00Z"));
+        assertEquals(Instant.parse("2000-02-29T00:00:00Z").toEpochMilli(), TimeUtil.parseISO8601Millis("2000-02-29T00:00:00Z"));
+        for (final String text : new String[] {"2017-02-29T00:00:00Z", "1900-02-29T00:00:00Z", "2017-04-31T00:00:00Z"}) {
+            try {
+                TimeUtil.parseISO8601Millis(text);
+                fail(text);
+            } catch (final IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testCreateStrFromDate_roundTrip_expectSameMillis() {
+        final Date date = new Date(1497021661000L);
+        final String text = TimeUtil.createStrFromDate(date, "yyyy-MM-dd'T'HH:mm:ss");
+        assertEquals(date.getTime(), TimeUtil.createDateFromStr("yyyy-MM-dd'T'HH:mm:ss", text).get().getMillis());
+    }
+
+    @Test
+    public void testCreateDateFromStr_textWithOffset_expectOffsetOverZone() {
+        final String format = "yyyy-MM-dd'T'HH:mm:ssXXX";
+
+        assertEquals(Instant.parse("2017-08-01T11:30:00Z").toEpochMilli(),
+                     TimeUtil.createDateFromStr(format, "2017-08-01T13:30:00+02:00", "America/New_York").get().getMillis());
+        assertEquals(Instant.parse("2017-08-01T13:30:00Z").toEpochMilli(),
+                     TimeUtil.createDateFromStr(format, "2017-08-01T13:30:00Z", "America/New_York").get().getMillis());
+        assertEquals(Instant.parse("2017-08-01T17:30:00Z").toEpochMilli(),
+                     TimeUtil.createDateFromStr("yyyy-MM-dd'T'HH:mm:ss", "2017-08-01T13:30:00", "America/New_York").get().getMillis());
+        assertEquals(Instant.parse("2017-08-01T04:00:00Z").toEpochMilli(),
+                     TimeUtil.createDateFromStr("yyyy-MM-dd", "2017-08-01", "America/New_York").get().getMillis());
+    }
+
+}